@@ -34,4 +34,37 @@ public abstract class ArgumentParser<T> {
      */
     public abstract T parse(String argument) throws CommandParseException;
 
+    /**
+     * Parses the given argument string into a {@link ParseResult}. Invalid input results in an errored
+     * {@link ParseResult} instead of an exception. The default implementation delegates to {@link #parse(String)};
+     * parsers of frequently used types should override this method so that rejecting input does not throw.
+     *
+     * @param argument the argument string to parse
+     *
+     * @return the parse result holding either the parsed object or an error message
+     */
+    public ParseResult<T> tryParse(String argument) {
+        try {
+            return ParseResult.success(parse(argument));
+        } catch (CommandParseException exception) {
+            return ParseResult.error(exception.getMessage());
+        } catch (RuntimeException exception) {
+            return ParseResult.error(String.format("Invalid %s value: %s", type.getSimpleName(), argument));
+        }
+    }
+
+    /**
+     * Parses the given argument string within the command invocation. Parsers of arguments holding resources, such as
+     * streams, should override this method and register the resources with
+     * {@link CommandInvocationContext#registerCloseable(AutoCloseable)}, so that they are closed once the command
+     * invocation completes. The default implementation delegates to {@link #tryParse(String)}.
+     *
+     * @param ctx      the command invocation context
+     * @param argument the argument string to parse
+     *
+     * @return the parse result holding either the parsed object or an error message
+     */
+    public ParseResult<T> tryParse(CommandInvocationContext ctx, String argument) {
+        return tryParse(argument);
+    }
 }
@@ -0,0 +1,43 @@
+package enterprises.iwakura.ganyu;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Interface for non-blocking {@link Input} implementations, e.g. sources fed by an event loop.
+ * <p>
+ *     {@link Ganyu} does not start the command reader thread for asynchronous inputs. Instead, it requests the next
+ *     line once the previous one was handed to the executor, thus an idle Ganyu instance holds no thread. Blocking
+ *     inputs keep being read by the command reader thread.
+ * </p>
+ * Completing the stage exceptionally with {@link NoSuchElementException} ends the input, as with
+ * {@link #readNextInput()}.
+ */
+public interface AsyncInput extends Input {
+
+    /**
+     * Requests the next line of input. Only one read is requested at a time.
+     *
+     * @return Stage completed with the non-null line once it is available.
+     */
+    CompletionStage<String> readNextInputAsync();
+
+    /**
+     * Blocks until the next line of input is available, see {@link #readNextInputAsync()}.
+     *
+     * @return Non-null string containing the user input.
+     */
+    @Override
+    default String readNextInput() {
+        try {
+            return readNextInputAsync().toCompletableFuture().join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package enterprises.iwakura.ganyu;
+
+import lombok.Data;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the aggregated result of a batch of commands executed by {@link Ganyu#executeAll(java.util.Collection)}.
+ * Holds the result of every item in the order of the batch and the failed items.
+ */
+public class BatchResult {
+
+    /**
+     * A failed item of the batch.
+     */
+    @Data
+    public static class Failure {
+
+        private final int index;
+        private final String input;
+        // Errored result of the command, null if the command completed exceptionally
+        private final CommandResult commandResult;
+        private final Throwable exception;
+
+        /**
+         * Returns the error message of the failure.
+         *
+         * @return the error message of the result, or of the exception
+         */
+        public String getErrorMessage() {
+            return commandResult != null ? commandResult.getErrorMessage() : String.valueOf(exception);
+        }
+    }
+
+    /**
+     * Results of the items in the order of the batch, null for items that completed exceptionally.
+     */
+    @Getter
+    private final List<CommandResult> results;
+    @Getter
+    private final List<Failure> failures;
+
+    /**
+     * Creates a BatchResult.
+     *
+     * @param results  the results of the items in the order of the batch
+     * @param failures the failed items in the order of the batch
+     */
+    public BatchResult(List<CommandResult> results, List<Failure> failures) {
+        this.results = Collections.unmodifiableList(results);
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * Whether all items of the batch succeeded.
+     *
+     * @return true if no item failed, false otherwise
+     */
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * Returns the number of items of the batch.
+     *
+     * @return the number of items
+     */
+    public int size() {
+        return results.size();
+    }
+
+    /**
+     * Returns the number of succeeded items.
+     *
+     * @return the number of succeeded items
+     */
+    public int getSucceededCount() {
+        return results.size() - failures.size();
+    }
+}
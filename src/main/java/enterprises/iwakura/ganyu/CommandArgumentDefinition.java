@@ -4,6 +4,11 @@ import enterprises.iwakura.ganyu.annotation.GreedyArgument;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
 /**
  * Defines a command argument.
  */
@@ -16,8 +21,11 @@ public class CommandArgumentDefinition {
     private String parameterName;
     private String description;
     private boolean injectable;
+    private boolean piped;
     private boolean mandatory;
     private Class<?> type;
+    private Class<?> elementType;
+    private Class<?> lazyValueType;
     private int index;
 
     /**
@@ -30,11 +38,42 @@ public class CommandArgumentDefinition {
     }
 
     /**
-     * Whether this argument is greedy (is annotated with {@link GreedyArgument}). Greedy arguments consume all remaining input. String types are always considered greedy.
+     * Whether this argument is greedy (its parsed type is annotated with {@link GreedyArgument}). Greedy arguments consume all remaining input. String types are always considered greedy.
      *
      * @return true if the argument is greedy, false otherwise.
      */
     public boolean isGreedy() {
-        return type == String.class || type.isAnnotationPresent(GreedyArgument.class);
+        final Class<?> parsedType = getParsedType();
+        return parsedType == String.class || parsedType.isAnnotationPresent(GreedyArgument.class);
+    }
+
+    /**
+     * Whether this argument holds multiple values, i.e. its type is a {@link List}, {@link Set}, {@link Collection}
+     * or an array. The type of its values is {@link #getElementType()}.
+     *
+     * @return true if the argument is multi-valued, false otherwise.
+     */
+    public boolean isMultiValued() {
+        return elementType != null;
+    }
+
+    /**
+     * Whether this argument is parsed lazily, i.e. its type is {@link Lazy} or {@link Supplier}. The type of the
+     * lazily parsed value is {@link #getLazyValueType()}.
+     *
+     * @return true if the argument is lazy, false otherwise.
+     */
+    public boolean isLazy() {
+        return lazyValueType != null;
+    }
+
+    /**
+     * Returns the type parsed from user input, which is the lazily parsed value type for lazy arguments and the
+     * argument type otherwise.
+     *
+     * @return the parsed type.
+     */
+    public Class<?> getParsedType() {
+        return lazyValueType != null ? lazyValueType : type;
     }
 }
@@ -1,6 +1,8 @@
 package enterprises.iwakura.ganyu;
 
 import enterprises.iwakura.ganyu.exception.CommandParseException;
+import enterprises.iwakura.ganyu.impl.argumentParsers.MultiValuedArguments;
+import enterprises.iwakura.ganyu.impl.argumentParsers.PrimitiveArgumentParsers;
 
 /**
  * Interface for parsing command arguments. Implementations should provide methods for parsing
@@ -31,7 +33,9 @@ public interface CommandArgumentParser {
     /**
      * Parses a single argument based on its definition and the provided string value. Handles primitive
      * types by converting them to their corresponding wrapper classes. Calls current
-     * {@link Ganyu}'s {@link ArgumentParser} for specific type parsing.
+     * {@link Ganyu}'s {@link ArgumentParser#tryParse(CommandInvocationContext, String)} for specific type parsing.
+     * Lazy arguments (see {@link CommandArgumentDefinition#isLazy()}) are parsed on first access of the returned
+     * {@link Lazy}.
      *
      * @param ctx The command invocation context.
      * @param argumentDefinition The definition of the argument to be parsed.
@@ -42,32 +46,49 @@ public interface CommandArgumentParser {
      */
     default Object parseSingleArgument(CommandInvocationContext ctx, CommandArgumentDefinition argumentDefinition, String argument) throws CommandParseException {
         if (argument == null) {
-            return null;
+            return argumentDefinition.isLazy() ? Lazy.value(null) : null;
         }
 
-        Class<?> type = argumentDefinition.getType();
-
         // Handles primitive types by converting them to their corresponding wrapper classes
-        if (type.isPrimitive()) {
-            if (type == boolean.class) {
-                type = Boolean.class;
-            } else if (type == int.class) {
-                type = Integer.class;
-            } else if (type == long.class) {
-                type = Long.class;
-            } else if (type == double.class) {
-                type = Double.class;
-            } else if (type == float.class) {
-                type = Float.class;
-            } else if (type == short.class) {
-                type = Short.class;
-            } else if (type == byte.class) {
-                type = Byte.class;
-            } else if (type == char.class) {
-                type = Character.class;
-            }
+        Class<?> type = PrimitiveArgumentParsers.wrap(argumentDefinition.getParsedType());
+        ArgumentParser<?> parser = ctx.getGanyu().getArgumentParser(type);
+
+        if (argumentDefinition.isLazy()) {
+            return Lazy.of(() -> parser.tryParse(ctx, argument));
+        }
+
+        return parser.tryParse(ctx, argument).getOrThrow();
+    }
+
+    /**
+     * Parses a multi-valued argument (see {@link CommandArgumentDefinition#isMultiValued()}) from whitespace or comma
+     * separated values. Calls current {@link Ganyu}'s {@link ArgumentParser#tryParse(CommandInvocationContext, String)}
+     * for each value.
+     * Lazy arguments (see {@link CommandArgumentDefinition#isLazy()}) are parsed on first access of the returned
+     * {@link Lazy}.
+     *
+     * @param ctx The command invocation context.
+     * @param argumentDefinition The definition of the argument to be parsed.
+     * @param argument The string representation of the values to be parsed.
+     *
+     * @return The parsed collection or array, or null if the argument is null.
+     * @throws CommandParseException if parsing fails.
+     */
+    default Object parseMultiValuedArgument(CommandInvocationContext ctx, CommandArgumentDefinition argumentDefinition, String argument) throws CommandParseException {
+        if (argument == null) {
+            return argumentDefinition.isLazy() ? Lazy.value(null) : null;
+        }
+
+        if (argumentDefinition.isLazy()) {
+            return Lazy.of(() -> {
+                try {
+                    return ParseResult.success(MultiValuedArguments.parse(ctx, argumentDefinition, argument));
+                } catch (CommandParseException exception) {
+                    return ParseResult.error(exception.getMessage());
+                }
+            });
         }
 
-        return ctx.getGanyu().getArgumentParser(type).parse(argument);
+        return MultiValuedArguments.parse(ctx, argumentDefinition, argument);
     }
 }
@@ -2,12 +2,16 @@ package enterprises.iwakura.ganyu;
 
 import enterprises.iwakura.ganyu.annotation.InjectableArgument;
 import enterprises.iwakura.ganyu.annotation.NamedArg;
+import enterprises.iwakura.ganyu.impl.InvocationOutput;
+import enterprises.iwakura.ganyu.impl.Pipe;
 import lombok.*;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Context for a command invocation, holding information about the command, its arguments, and the result.
@@ -18,15 +22,41 @@ import java.util.Map;
 @InjectableArgument
 public class CommandInvocationContext {
 
+    private static final AtomicLong NEXT_INVOCATION_ID = new AtomicLong();
+
     private final Ganyu ganyu;
     private final RegisteredCommand registeredCommand;
 
+    private final long invocationId = NEXT_INVOCATION_ID.incrementAndGet();
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final long startedAtNanos = System.nanoTime();
+
     private String unprocessedArguments = "";
     private final Map<CommandArgumentDefinition, Object> argumentValues = new HashMap<>();
 
     private CommandResult commandResult;
     private Throwable commandException;
 
+    // Input and output of the session the invocation originates from, null for Ganyu's input and output
+    private InputSource sourceInput;
+    private Output sourceOutput;
+
+    // Output of the previous pipeline stage, null if the invocation is not a non-first pipeline stage
+    private Pipe pipedInput;
+
+    // Key the result is cached under once the invocation completes, null if the result is not cached, see Cacheable
+    private Object cacheKey;
+
+    // Completed with the final result once the invocation completes, see Ganyu#submit(String)
+    private final CompletableFuture<CommandResult> completion = new CompletableFuture<>();
+
+    @Getter(AccessLevel.NONE)
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private InvocationOutput output;
+
     /**
      * Adds a value for a specific command argument definition.
      *
@@ -62,6 +92,98 @@ public class CommandInvocationContext {
         return matchingArguments;
     }
 
+    /**
+     * Returns the output scoped to this command invocation. Messages are buffered and written to the source output at
+     * once when the invocation completes, see {@link InvocationOutput} and {@link #getSourceOutput()}. Messages of
+     * pipeline stages writing to the next stage are not buffered.
+     *
+     * @return The invocation output.
+     */
+    public synchronized InvocationOutput getOutput() {
+        if (output == null) {
+            final Output sourceOutput = getSourceOutput();
+            final int bufferLimit = sourceOutput instanceof Pipe ? 0 : ganyu.getInvocationOutputBufferLimit();
+            output = new InvocationOutput(sourceOutput, bufferLimit, this);
+        }
+        return output;
+    }
+
+    /**
+     * Returns the input the invocation originates from, e.g. a server session. Defaults to {@link Ganyu}'s input.
+     *
+     * @return The source input.
+     */
+    public InputSource getSourceInput() {
+        return sourceInput != null ? sourceInput : ganyu.getInput();
+    }
+
+    /**
+     * Returns the output the invocation writes to, e.g. a server session. Defaults to {@link Ganyu}'s output.
+     *
+     * @return The source output.
+     */
+    public Output getSourceOutput() {
+        return sourceOutput != null ? sourceOutput : ganyu.getOutput();
+    }
+
+    /**
+     * Creates a {@link TableWriter} writing an aligned table to the invocation output, see {@link #getOutput()}.
+     *
+     * @param headers The column headers, may be empty.
+     * @return The table writer.
+     */
+    public TableWriter table(String... headers) {
+        return getOutput().table(headers);
+    }
+
+    /**
+     * Creates a {@link TableWriter} writing a table to the invocation output, see {@link #getOutput()}.
+     *
+     * @param mode    The rendering mode.
+     * @param headers The column headers, may be empty.
+     * @return The table writer.
+     */
+    public TableWriter table(TableWriter.Mode mode, String... headers) {
+        return getOutput().table(mode, headers);
+    }
+
+    /**
+     * Registers a resource, such as a stream argument, to be closed once the command invocation completes.
+     * Resources are closed in the reverse order of their registration.
+     *
+     * @param closeable The resource to close.
+     * @param <T>       The type of the resource.
+     * @return The registered resource.
+     */
+    public synchronized <T extends AutoCloseable> T registerCloseable(T closeable) {
+        closeables.add(closeable);
+        return closeable;
+    }
+
+    /**
+     * Closes all resources registered with {@link #registerCloseable(AutoCloseable)}. Failures are reported to
+     * {@link Ganyu}'s output and do not prevent the remaining resources from being closed.
+     */
+    public synchronized void closeResources() {
+        for (int i = closeables.size() - 1; i >= 0; i--) {
+            try {
+                closeables.get(i).close();
+            } catch (Exception exception) {
+                getOutput().error("Failed to close command argument resource!", exception);
+            }
+        }
+        closeables.clear();
+    }
+
+    /**
+     * Returns the time elapsed since this invocation started.
+     *
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - startedAtNanos;
+    }
+
     /**
      * Retrieves the value of a specific command argument.
      *
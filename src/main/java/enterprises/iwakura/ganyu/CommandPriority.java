@@ -0,0 +1,16 @@
+package enterprises.iwakura.ganyu;
+
+/**
+ * Priority of a command, see {@link enterprises.iwakura.ganyu.annotation.Priority}.
+ */
+public enum CommandPriority {
+    /**
+     * The command waits in the dispatch queue along with the commands of other sources.
+     */
+    NORMAL,
+    /**
+     * The command jumps the dispatch queue and may run on its reserved thread, see
+     * {@link enterprises.iwakura.ganyu.impl.DispatchQueue#submitPriority(Runnable)}.
+     */
+    HIGH
+}
@@ -10,7 +10,7 @@ public interface CommandRegisterProcessor {
     /**
      * Processes the given command and registers it with the provided Ganyu instance.
      *
-     * @param ganyu the Ganyu instance to register commands with
+     * @param ganyu the Ganyu instance to register commands with, null when registering into a shared {@link CommandRegistry}
      * @param command the command to process
      *
      * @return a list of registered commands, each of them being level-one commands
@@ -0,0 +1,304 @@
+package enterprises.iwakura.ganyu;
+
+import enterprises.iwakura.ganyu.impl.CommandRegisterProcessorImpl;
+import enterprises.iwakura.ganyu.impl.argumentParsers.DiscoveredArgumentParsers;
+import enterprises.iwakura.ganyu.impl.argumentParsers.PrimitiveArgumentParsers;
+import enterprises.iwakura.ganyu.impl.argumentParsers.StreamArgumentParsers;
+import enterprises.iwakura.ganyu.impl.commands.HelpCommand;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Registry of commands and argument parsers, which may be shared by multiple {@link Ganyu} instances.
+ * <p>
+ *     Registries are layered: a registry overlays its parent, looking up commands and argument parsers in the parent
+ *     when they are not registered in the registry itself. Once built, a registry can be frozen by {@link #freeze()},
+ *     which makes it immutable and thus safe to share between threads and Ganyu instances. Only frozen registries can
+ *     be parents. A Ganyu instance created with a frozen registry registers its own commands into a new overlay, so
+ *     memory scales with the number of distinct commands rather than the number of instances.
+ * </p>
+ * The in-built argument parsers and the help command are registered in the frozen {@link #defaults()} registry, which
+ * is the parent of registries created by {@link #CommandRegistry()}. Commands of a shared registry are invoked by all
+ * Ganyu instances sharing it, thus they should not hold per-instance state.
+ */
+public class CommandRegistry {
+
+    // Sorted by key length and then lexicographically, so that longer command names are matched first
+    private static final Comparator<String> COMMAND_NAME_ORDER = (a, b) -> {
+        int cmp = Integer.compare(b.length(), a.length());
+        return cmp != 0 ? cmp : a.compareTo(b);
+    };
+
+    private static volatile CommandRegistry defaults;
+
+    @Getter
+    private final CommandRegistry parent;
+    @Getter
+    private volatile boolean frozen;
+
+    private final Map<String, RegisteredCommand> registeredCommandLookup = new TreeMap<>(COMMAND_NAME_ORDER);
+    private final Map<Class<?>, ArgumentParser<?>> argumentParsers = new HashMap<>();
+    private final List<RegisteredCommand> registeredCommands = new ArrayList<>();
+
+    /**
+     * Creates a registry overlaying the {@link #defaults()} registry.
+     */
+    public CommandRegistry() {
+        this(defaults());
+    }
+
+    /**
+     * Creates a registry overlaying the parent registry.
+     *
+     * @param parent The frozen parent registry, null for a registry without the in-built parsers and commands.
+     * @throws IllegalArgumentException if the parent is not frozen.
+     */
+    public CommandRegistry(CommandRegistry parent) {
+        if (parent != null && !parent.isFrozen()) {
+            throw new IllegalArgumentException("Parent registry must be frozen!");
+        }
+
+        this.parent = parent;
+    }
+
+    /**
+     * Returns the frozen registry holding the in-built argument parsers, see {@link PrimitiveArgumentParsers} and
+     * {@link StreamArgumentParsers}, and the {@link HelpCommand}. It is created once and shared by all Ganyu instances.
+     *
+     * @return The default registry.
+     */
+    public static CommandRegistry defaults() {
+        CommandRegistry registry = defaults;
+
+        if (registry == null) {
+            synchronized (CommandRegistry.class) {
+                registry = defaults;
+
+                if (registry == null) {
+                    registry = new CommandRegistry(null);
+                    PrimitiveArgumentParsers.register(registry);
+                    StreamArgumentParsers.register(registry);
+                    registry.registerCommands(new CommandRegisterProcessorImpl(), new HelpCommand());
+                    defaults = registry.freeze();
+                }
+            }
+        }
+
+        return registry;
+    }
+
+    /**
+     * Freezes the registry, making it immutable.
+     *
+     * @return This registry.
+     */
+    public CommandRegistry freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Registers an argument parser for its type, replacing the parser of the parent registry, if any.
+     *
+     * @param parser The argument parser to register.
+     * @param <T>    The type that the parser can parse.
+     * @throws IllegalArgumentException if the parser is null.
+     * @throws IllegalStateException    if the registry is frozen.
+     */
+    public <T> void registerArgumentParser(ArgumentParser<T> parser) {
+        if (parser == null) {
+            throw new IllegalArgumentException("Type and parser cannot be null!");
+        }
+
+        checkNotFrozen();
+        argumentParsers.put(parser.getType(), parser);
+    }
+
+    /**
+     * Processes the commands by {@link CommandRegisterProcessorImpl} and registers them.
+     *
+     * @param commands The commands to register.
+     * @return A list of registered commands of the last command.
+     * @throws IllegalStateException    if the registry is frozen.
+     * @throws IllegalArgumentException if an argument type of the commands cannot be parsed.
+     */
+    public List<RegisteredCommand> registerCommands(GanyuCommand... commands) {
+        return registerCommands(new CommandRegisterProcessorImpl(), commands);
+    }
+
+    /**
+     * Processes the commands by the processor and registers them. The processor is not given any Ganyu instance, as
+     * the registry may be shared by many of them.
+     *
+     * @param commandRegisterProcessor The processor to register commands.
+     * @param commands                 The commands to register.
+     * @return A list of registered commands of the last command.
+     * @throws IllegalStateException    if the registry is frozen.
+     * @throws IllegalArgumentException if an argument type of the commands cannot be parsed.
+     */
+    public List<RegisteredCommand> registerCommands(CommandRegisterProcessor commandRegisterProcessor, GanyuCommand... commands) {
+        if (commands == null || commands.length == 0) {
+            return null;
+        }
+
+        checkNotFrozen();
+        List<RegisteredCommand> registeredCommands = null;
+
+        for (GanyuCommand command : commands) {
+            if (command != null) {
+                registeredCommands = commandRegisterProcessor.process(null, command);
+                addRegisteredCommands(registeredCommands);
+            }
+        }
+
+        return registeredCommands;
+    }
+
+    /**
+     * Adds already processed commands and their subcommands to the registry.
+     *
+     * Argument parsers of the commands are resolved beforehand, thus parsers of custom argument types have to be
+     * registered before the commands using them.
+     *
+     * @param registeredCommands The level-one commands returned by {@link CommandRegisterProcessor}.
+     * @throws IllegalStateException    if the registry is frozen.
+     * @throws IllegalArgumentException if an argument type of the commands cannot be parsed, in which case none of the
+     *                                  commands is added.
+     */
+    public void addRegisteredCommands(List<RegisteredCommand> registeredCommands) {
+        checkNotFrozen();
+
+        registeredCommands.forEach(registeredCommand -> {
+            if (registeredCommand.hasMethod()) {
+                discoverArgumentParsers(registeredCommand);
+            }
+
+            registeredCommand.getSubCommands().forEach(this::discoverArgumentParsers);
+        });
+
+        this.registeredCommands.addAll(registeredCommands);
+
+        registeredCommands.forEach(registeredCommand -> {
+            // Default command
+            if (registeredCommand.hasMethod()) {
+                registeredCommandLookup.put(registeredCommand.getFullyQualifiedName(), registeredCommand);
+            }
+
+            // Subcommands
+            registeredCommand.getSubCommands().forEach(subCommand -> registeredCommandLookup.put(subCommand.getFullyQualifiedName(), subCommand));
+
+            // NOTE: There are no two-level deep subcommands currently
+        });
+    }
+
+    /**
+     * Retrieves the command registered under the fully qualified name in this registry or its parents.
+     *
+     * @param fullyQualifiedName The fully qualified name of the command, e.g. <code>user list</code>.
+     * @return The registered command, or null if there is none.
+     */
+    public RegisteredCommand getCommand(String fullyQualifiedName) {
+        for (CommandRegistry registry = this; registry != null; registry = registry.parent) {
+            final RegisteredCommand command = registry.registeredCommandLookup.get(fullyQualifiedName);
+
+            if (command != null) {
+                return command;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Retrieves the argument parser registered for the type in this registry or its parents. Parsers of
+     * {@link DiscoveredArgumentParsers} are not considered.
+     *
+     * @param type The type for which to retrieve the argument parser.
+     * @return The argument parser, or null if there is none.
+     */
+    public ArgumentParser<?> getArgumentParser(Class<?> type) {
+        for (CommandRegistry registry = this; registry != null; registry = registry.parent) {
+            final ArgumentParser<?> parser = registry.argumentParsers.get(type);
+
+            if (parser != null) {
+                return parser;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Retrieves the level-one commands of this registry and its parents, the parents' commands first. Registries with
+     * a parent return a snapshot, commands registered afterward are not reflected.
+     *
+     * @return An unmodifiable list of registered commands.
+     */
+    public List<RegisteredCommand> getRegisteredCommands() {
+        if (parent == null) {
+            return Collections.unmodifiableList(registeredCommands);
+        }
+
+        final List<RegisteredCommand> commands = new ArrayList<>(parent.getRegisteredCommands());
+        commands.addAll(registeredCommands);
+        return Collections.unmodifiableList(commands);
+    }
+
+    /**
+     * Retrieves the commands of this registry and its parents by their fully qualified names, sorted by name length
+     * and then lexicographically. Commands of this registry replace the parents' commands of the same name. Registries
+     * with a parent return a snapshot, commands registered afterward are not reflected.
+     *
+     * @return An unmodifiable map of registered commands.
+     */
+    public Map<String, RegisteredCommand> getRegisteredCommandLookup() {
+        if (parent == null) {
+            return Collections.unmodifiableMap(registeredCommandLookup);
+        }
+
+        final Map<String, RegisteredCommand> lookup = new TreeMap<>(COMMAND_NAME_ORDER);
+        lookup.putAll(parent.getRegisteredCommandLookup());
+        lookup.putAll(registeredCommandLookup);
+        return Collections.unmodifiableMap(lookup);
+    }
+
+    /**
+     * Retrieves the argument parsers of this registry and its parents by their types. Registries with a parent return a
+     * snapshot, parsers registered afterward are not reflected.
+     *
+     * @return An unmodifiable map of argument parsers.
+     */
+    public Map<Class<?>, ArgumentParser<?>> getArgumentParsers() {
+        if (parent == null) {
+            return Collections.unmodifiableMap(argumentParsers);
+        }
+
+        final Map<Class<?>, ArgumentParser<?>> parsers = new HashMap<>(parent.getArgumentParsers());
+        parsers.putAll(argumentParsers);
+        return Collections.unmodifiableMap(parsers);
+    }
+
+    /**
+     * Discovers argument parsers for argument types of the command that have no parser registered, so that the
+     * discovery does not happen on the first invocation.
+     *
+     * @param registeredCommand The registered command.
+     * @throws IllegalArgumentException if an argument type has neither a registered nor a discovered parser.
+     */
+    private void discoverArgumentParsers(RegisteredCommand registeredCommand) {
+        for (CommandArgumentDefinition argumentDefinition : registeredCommand.getArgumentDefinitions()) {
+            Class<?> type = PrimitiveArgumentParsers.wrap(argumentDefinition.isMultiValued() ? argumentDefinition.getElementType() : argumentDefinition.getParsedType());
+
+            if (!argumentDefinition.isInjectable() && getArgumentParser(type) == null && DiscoveredArgumentParsers.lookup(type) == null) {
+                throw new IllegalArgumentException("No argument parser registered for type " + type.getName() + " of command " + registeredCommand.getFullyQualifiedName());
+            }
+        }
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Registry is frozen!");
+        }
+    }
+}
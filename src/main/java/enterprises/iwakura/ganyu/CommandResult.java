@@ -2,9 +2,11 @@ package enterprises.iwakura.ganyu;
 
 import lombok.Data;
 
+import java.util.Optional;
+
 /**
  * Represents the result of a command execution.
- * Contains an error message if the command failed, and a success flag.
+ * Contains an error message if the command failed, a success flag and an optional, untyped payload.
  */
 @Data
 public class CommandResult {
@@ -13,6 +15,24 @@ public class CommandResult {
 
     protected final String errorMessage;
     protected final boolean success;
+    protected final Object payload;
+
+    public CommandResult(String errorMessage, boolean success) {
+        this(errorMessage, success, null);
+    }
+
+    /**
+     * Creates a new CommandResult.
+     *
+     * @param errorMessage the error message, null for successful results
+     * @param success      whether the command succeeded
+     * @param payload      the structured payload of the result, may be null
+     */
+    public CommandResult(String errorMessage, boolean success, Object payload) {
+        this.errorMessage = errorMessage;
+        this.success = success;
+        this.payload = payload;
+    }
 
     /**
      * Creates errored command result.
@@ -33,4 +53,51 @@ public class CommandResult {
     public static CommandResult success() {
         return SUCCESS;
     }
+
+    /**
+     * Creates a successful command result holding a structured payload, which is meant for programmatic callers and
+     * machine-readable outputs, such as {@link enterprises.iwakura.ganyu.impl.JsonLinesOutput}. The payload is untyped,
+     * callers read it by {@link #getPayload(Class)} or {@link #findPayload(Class)} with the type they expect.
+     *
+     * @param payload the payload, may be null
+     *
+     * @return CommandResult instance indicating success
+     */
+    public static CommandResult success(Object payload) {
+        return payload == null ? SUCCESS : new CommandResult(null, true, payload);
+    }
+
+    /**
+     * Returns the payload of the result.
+     *
+     * @return the payload, or null if there is none
+     */
+    public Object getPayload() {
+        return payload;
+    }
+
+    /**
+     * Returns the payload cast to the specified type.
+     *
+     * @param type the expected type of the payload
+     * @param <T>  the type of the payload
+     *
+     * @return the payload, or null if there is none
+     * @throws ClassCastException if the payload is not of the specified type
+     */
+    public <T> T getPayload(Class<T> type) {
+        return type.cast(payload);
+    }
+
+    /**
+     * Returns the payload if it is of the specified type.
+     *
+     * @param type the expected type of the payload
+     * @param <T>  the type of the payload
+     *
+     * @return the payload, or empty if there is none or it is of a different type
+     */
+    public <T> Optional<T> findPayload(Class<T> type) {
+        return type.isInstance(payload) ? Optional.of(type.cast(payload)) : Optional.empty();
+    }
 }
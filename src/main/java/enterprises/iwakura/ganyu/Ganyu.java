@@ -1,21 +1,33 @@
 package enterprises.iwakura.ganyu;
 
 import enterprises.iwakura.ganyu.annotation.NamedArg;
+import enterprises.iwakura.ganyu.annotation.RunOn;
+import enterprises.iwakura.ganyu.annotation.SerializeOn;
 import enterprises.iwakura.ganyu.exception.CommandParseException;
 import enterprises.iwakura.ganyu.exception.InvalidCommandArgumentsException;
 import enterprises.iwakura.ganyu.impl.*;
-import enterprises.iwakura.ganyu.impl.argumentParsers.PrimitiveArgumentParsers;
-import enterprises.iwakura.ganyu.impl.commands.HelpCommand;
+import enterprises.iwakura.ganyu.impl.argumentParsers.DiscoveredArgumentParsers;
+import enterprises.iwakura.ganyu.impl.argumentParsers.StreamArgumentParsers;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -39,174 +51,1224 @@ public class Ganyu {
     protected final CommandRegisterProcessor commandRegisterProcessor;
     protected final InjectableArgumentResolver injectableArgumentResolver;
     protected final Executor executor;
+    // Named executors commands are routed to, see RunOn
+    @Getter(AccessLevel.NONE)
+    protected final Map<String, Executor> executors = new ConcurrentHashMap<>();
+    // Names of executors commands are routed to but which are not registered, reported once each
+    @Getter(AccessLevel.NONE)
+    protected final Set<String> unknownExecutorNames = ConcurrentHashMap.newKeySet();
 
-    // Lookup map for registered commands, sorted by key length and then lexicographically
-    protected final Map<String, RegisteredCommand> registeredCommandLookup = new TreeMap<>(
-            (a, b) -> {
-                int cmp = Integer.compare(b.length(), a.length());
-                return cmp != 0 ? cmp : a.compareTo(b);
-            }
-    );
+    // Registered commands and argument parsers, overlaying a shared registry
+    protected final CommandRegistry commandRegistry;
 
     protected ThreadFactory threadFactory = runnable -> new Thread(runnable, "Ganyu-Command-Reader");
-    protected Map<Class<?>, ArgumentParser<?>> argumentParsers = new HashMap<>();
-    protected List<RegisteredCommand> registeredCommands = new ArrayList<>();
 
-    protected boolean run;
+    // Maximum number of characters buffered by invocation outputs before streaming through, see InvocationOutput
+    protected int invocationOutputBufferLimit = 64 * 1024;
+
+    // Inputs attached in addition to the input, see attachInput(Input, Output)
+    protected final Map<Input, Output> attachedInputs = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.NONE)
+    protected final Map<Input, Thread> attachedInputThreads = new ConcurrentHashMap<>();
+    // Current read loop of each asynchronous input, pending reads of earlier loops are ignored once they complete
+    @Getter(AccessLevel.NONE)
+    protected final Map<Input, Object> asyncReadLoops = new ConcurrentHashMap<>();
+    protected DispatchQueue dispatchQueue;
+    // Runs invocations serialized by a key, see SerializeOn
+    protected SerialLanes serialLanes;
+    // Results of cacheable commands, kept per instance as registries may be shared, see Cacheable
+    @Getter(AccessLevel.NONE)
+    protected final Map<RegisteredCommand, ResultCache> resultCaches = new ConcurrentHashMap<>();
+
+    // Runs the chunks of batches, see executeAll(Collection)
+    protected Executor batchExecutor = ForkJoinPool.commonPool();
+    // Runs the stages of pipelines, see getPipelineExecutor()
+    protected Executor pipelineExecutor;
+    // Maximum number of lines buffered between pipeline stages, see Pipe
+    protected int pipeCapacity = Pipe.DEFAULT_CAPACITY;
+
+    // Read by async input callbacks and attached input readers, which may run on any thread
+    protected volatile boolean run;
+
+    protected final Thread commandReaderThread = createCommandReaderThread();
+
+    /**
+     * Creates a new Ganyu instance with the provided components.
+     *
+     * @param input                     The input source to read commands from.
+     * @param output                    The output destination to write info messages and errors to.
+     * @param commandArgumentParser     The parser to parse command arguments.
+     * @param commandRegisterProcessor  The processor to register commands.
+     * @param injectableArgumentResolver The resolver for injectable arguments.
+     * @param executor                  The executor to run commands asynchronously.
+     */
+    public Ganyu(Input input, Output output, CommandArgumentParser commandArgumentParser, CommandRegisterProcessor commandRegisterProcessor, InjectableArgumentResolver injectableArgumentResolver, Executor executor) {
+        this(input, output, commandArgumentParser, commandRegisterProcessor, injectableArgumentResolver, executor, CommandRegistry.defaults());
+    }
+
+    /**
+     * Creates a new Ganyu instance with the provided components and command registry. If the registry is frozen, e.g.
+     * shared by many Ganyu instances, commands and argument parsers registered with this instance are registered into
+     * a new overlay of it, see {@link CommandRegistry}.
+     *
+     * @param input                     The input source to read commands from.
+     * @param output                    The output destination to write info messages and errors to.
+     * @param commandArgumentParser     The parser to parse command arguments.
+     * @param commandRegisterProcessor  The processor to register commands.
+     * @param injectableArgumentResolver The resolver for injectable arguments.
+     * @param executor                  The executor to run commands asynchronously.
+     * @param commandRegistry           The registry of commands and argument parsers.
+     */
+    public Ganyu(Input input, Output output, CommandArgumentParser commandArgumentParser, CommandRegisterProcessor commandRegisterProcessor, InjectableArgumentResolver injectableArgumentResolver, Executor executor, CommandRegistry commandRegistry) {
+        this.input = input;
+        this.output = output;
+        this.commandArgumentParser = commandArgumentParser;
+        this.commandRegisterProcessor = commandRegisterProcessor;
+        this.injectableArgumentResolver = injectableArgumentResolver;
+        this.executor = executor;
+        this.dispatchQueue = new DispatchQueue(executor);
+        this.dispatchQueue.setExceptionHandler(this::handleDispatchException);
+        this.serialLanes = new SerialLanes(executor);
+        this.serialLanes.setExceptionHandler(this::handleDispatchException);
+        this.commandRegistry = commandRegistry.isFrozen() ? new CommandRegistry(commandRegistry) : commandRegistry;
+        filterPayloadReferences(input);
+    }
+
+    /**
+     * Creates a standard Ganyu instance with {@link ConsoleInput} and {@link ConsoleOutput}.
+     *
+     * @return A Ganyu instance configured for console input and output.
+     */
+    public static Ganyu console() {
+        return standard(new ConsoleInput(), new ConsoleOutput());
+    }
+
+    /**
+     * Creates a standard Ganyu instance with the provided input and output implementations. This will
+     * run the commands in the command reader thread, blocking it until the command completes.
+     *
+     * @param input  The input source to read commands from.
+     * @param output The output destination to write info messages and errors to.
+     * @return A Ganyu instance configured with the provided input and output.
+     */
+    public static Ganyu standard(Input input, Output output) {
+        return new Ganyu(input, output, new CommandArgumentParserImpl(), new CommandRegisterProcessorImpl(), new ClassInjectableArgumentResolver(), Runnable::run);
+    }
+
+    /**
+     * Creates a standard Ganyu instance with the provided input, output implementations, and executor.
+     * This will run the commands in the provided executor, allowing for asynchronous command execution.
+     *
+     * @param input    The input source to read commands from.
+     * @param output   The output destination to write info messages and errors to.
+     * @param executor The executor to run commands asynchronously.
+     * @return A Ganyu instance configured with the provided input, output, and executor.
+     */
+    public static Ganyu standardWithExecutor(Input input, Output output, Executor executor) {
+        return new Ganyu(input, output, new CommandArgumentParserImpl(), new CommandRegisterProcessorImpl(), new ClassInjectableArgumentResolver(), executor);
+    }
+
+    /**
+     * Creates a standard Ganyu instance with the provided input and output implementations, which shares the commands
+     * and argument parsers of the provided registry. Commands run in the command reader thread, as with
+     * {@link #standard(Input, Output)}.
+     *
+     * @param input           The input source to read commands from.
+     * @param output          The output destination to write info messages and errors to.
+     * @param commandRegistry The registry of commands and argument parsers, usually frozen.
+     * @return A Ganyu instance configured with the provided input, output, and registry.
+     */
+    public static Ganyu standard(Input input, Output output, CommandRegistry commandRegistry) {
+        return new Ganyu(input, output, new CommandArgumentParserImpl(), new CommandRegisterProcessorImpl(), new ClassInjectableArgumentResolver(), Runnable::run, commandRegistry);
+    }
+
+    /**
+     * Starts the Ganyu command reader thread, which will read commands from the input source
+     * and execute them using the provided executor. {@link AsyncInput}s are read without the command reader thread,
+     * lines that are already available may be handed to the executor on the calling thread. Inputs attached by
+     * {@link #attachInput(Input, Output)} are started as well.
+     *
+     * @throws IllegalStateException if Ganyu is already running.
+     */
+    public void run() {
+        if (run) {
+            throw new IllegalStateException("Ganyu is already running!");
+        }
+
+        run = true;
+
+        if (input instanceof AsyncInput) {
+            readAsyncInput((AsyncInput) input, output);
+        } else {
+            commandReaderThread.start();
+        }
+
+        attachedInputs.forEach(this::startReading);
+    }
+
+    /**
+     * Stops the Ganyu command reader thread, which will stop reading commands from the input source.
+     *
+     * @throws IllegalStateException if Ganyu is not running.
+     */
+    public void stop() {
+        if (!run) {
+            throw new IllegalStateException("Ganyu is not running!");
+        }
+
+        run = false;
+
+        if (!(input instanceof AsyncInput)) {
+            commandReaderThread.interrupt();
+        }
+
+        attachedInputThreads.values().forEach(Thread::interrupt);
+        attachedInputThreads.clear();
+        asyncReadLoops.clear();
+    }
+
+    /**
+     * Attaches another input source, whose lines are dispatched along with the lines of Ganyu's input, sharing the
+     * registered commands. The invocations write to the specified output, see
+     * {@link CommandInvocationContext#getSourceOutput()}. All inputs feed the {@link DispatchQueue}, which schedules
+     * them round-robin, so that one busy input cannot starve the others. If Ganyu is running, the input is read right
+     * away, otherwise once {@link #run()} is called. Blocking inputs are read by their own command reader thread.
+     *
+     * @param input  The input source to read commands from.
+     * @param output The output destination of the commands read from the input.
+     * @throws IllegalArgumentException if the input is already attached or is Ganyu's input.
+     */
+    public void attachInput(Input input, Output output) {
+        if (input == this.input || attachedInputs.putIfAbsent(input, output) != null) {
+            throw new IllegalArgumentException("Input is already attached!");
+        }
+
+        filterPayloadReferences(input);
+
+        if (run) {
+            startReading(input, output);
+        }
+    }
+
+    /**
+     * Detaches an input source attached by {@link #attachInput(Input, Output)}. Lines already read are still
+     * dispatched.
+     *
+     * @param input The input source to detach.
+     * @return true if the input was attached, false otherwise.
+     */
+    public boolean detachInput(Input input) {
+        if (attachedInputs.remove(input) == null) {
+            return false;
+        }
+
+        asyncReadLoops.remove(input);
+        final Thread readerThread = attachedInputThreads.remove(input);
+
+        if (readerThread != null) {
+            readerThread.interrupt();
+        }
+
+        return true;
+    }
+
+    /**
+     * Retrieves an unmodifiable view of the attached inputs and their outputs.
+     *
+     * @return An unmodifiable map of attached inputs.
+     */
+    public Map<Input, Output> getAttachedInputs() {
+        return Collections.unmodifiableMap(attachedInputs);
+    }
+
+    /**
+     * Creates the command reader thread, which continuously reads commands from the input source
+     * @return The created command reader thread.
+     */
+    protected Thread createCommandReaderThread() {
+        return threadFactory.newThread(() -> readInput(input, output));
+    }
+
+    /**
+     * Starts reading an attached input source.
+     *
+     * @param input  The input source.
+     * @param output The output destination of the commands read from the input.
+     */
+    protected void startReading(Input input, Output output) {
+        if (input instanceof AsyncInput) {
+            readAsyncInput((AsyncInput) input, output);
+            return;
+        }
+
+        final Thread readerThread = threadFactory.newThread(() -> readInput(input, output));
+        attachedInputThreads.put(input, readerThread);
+        readerThread.start();
+    }
+
+    /**
+     * Reads lines from the blocking input until it ends, is detached or Ganyu is stopped.
+     *
+     * @param input  The input source.
+     * @param output The output destination of the commands read from the input.
+     */
+    protected void readInput(Input input, Output output) {
+        while (isReading(input)) {
+            final String inputString;
+
+            try {
+                inputString = input.readNextInput();
+            } catch (Exception exception) {
+                if (exception instanceof NoSuchElementException) {
+                    return; // End of input stream (usually thrown by Scanner)
+                }
+
+                if (isReading(input)) {
+                    output.error("Failed to read input!", exception);
+                }
+                continue;
+            }
+
+            if (isReading(input)) {
+                acceptInput(input, output, inputString);
+            }
+        }
+    }
+
+    /**
+     * Reads lines from the asynchronous input until it ends, is detached or Ganyu is stopped. Lines that are already
+     * available are read in a loop, otherwise reading resumes on the thread completing the pending read, thus the
+     * stack does not grow with the number of lines.
+     *
+     * @param asyncInput The asynchronous input.
+     * @param output     The output destination of the commands read from the input.
+     */
+    protected void readAsyncInput(AsyncInput asyncInput, Output output) {
+        final Object readLoop = new Object();
+        asyncReadLoops.put(asyncInput, readLoop);
+        readAsyncInput(asyncInput, output, readLoop);
+    }
+
+    /**
+     * Reads lines from the asynchronous input as long as the read loop is its current one. A pending read may outlive
+     * its loop, e.g. if Ganyu is stopped and run again, and is then completed for both loops; only the current loop
+     * accepts the line.
+     */
+    private void readAsyncInput(AsyncInput asyncInput, Output output, Object readLoop) {
+        while (asyncReadLoops.get(asyncInput) == readLoop && isReading(asyncInput)) {
+            final CompletableFuture<String> nextInput = asyncInput.readNextInputAsync().toCompletableFuture();
+
+            if (!nextInput.isDone()) {
+                nextInput.whenComplete((inputString, exception) -> {
+                    if (asyncReadLoops.get(asyncInput) == readLoop && acceptAsyncInput(asyncInput, output, inputString, exception)) {
+                        readAsyncInput(asyncInput, output, readLoop);
+                    }
+                });
+                return;
+            }
+
+            String inputString = null;
+            Throwable exception = null;
+
+            try {
+                inputString = nextInput.join();
+            } catch (CompletionException | CancellationException completionException) {
+                exception = completionException;
+            }
+
+            if (!acceptAsyncInput(asyncInput, output, inputString, exception)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Accepts a line read from the asynchronous input.
+     *
+     * @param asyncInput  The asynchronous input.
+     * @param output      The output destination of the commands read from the input.
+     * @param inputString The line, null if the read failed.
+     * @param exception   The exception the read failed with, null if it succeeded.
+     * @return true if reading should continue, false if the input ended, was detached or Ganyu was stopped.
+     */
+    private boolean acceptAsyncInput(AsyncInput asyncInput, Output output, String inputString, Throwable exception) {
+        if (!isReading(asyncInput)) {
+            return false;
+        }
+
+        if (exception != null) {
+            final Throwable cause = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+
+            if (cause instanceof NoSuchElementException) {
+                return false; // End of input
+            }
+
+            output.error("Failed to read input!", cause);
+            return true;
+        }
+
+        acceptInput(asyncInput, output, inputString);
+        return true;
+    }
+
+    /**
+     * Whether the input source should still be read.
+     *
+     * @param input The input source.
+     * @return true if Ganyu is running and the input is Ganyu's input or is attached, false otherwise.
+     */
+    protected boolean isReading(Input input) {
+        return run && (input == this.input || attachedInputs.containsKey(input));
+    }
+
+    /**
+     * Hands a line read from the input source to the {@link DispatchQueue}, skipping empty lines. Invocations of commands
+     * annotated with {@link SerializeOn} are handed to their lane of the {@link SerialLanes} instead, commands routed by
+     * {@link RunOn} run on their executor, see {@link #getCommandExecutor(RegisteredCommand)}. Commands with
+     * {@link CommandPriority#HIGH} priority jump the queue, see {@link DispatchQueue#submitPriority(Runnable)}.
+     *
+     * @param input       The input source the line was read from.
+     * @param output      The output destination of the command.
+     * @param inputString The line.
+     */
+    protected void acceptInput(Input input, Output output, String inputString) {
+        if (inputString == null || inputString.isEmpty()) {
+            return;
+        }
+
+        final RegisteredCommand registeredCommand = CommandLines.isSingleCommand(inputString) ? lookupCommand(inputString) : null;
+        final Object serializationKey = registeredCommand != null ? serializationKey(registeredCommand, inputString, input) : null;
+        final Executor commandExecutor = registeredCommand != null ? getCommandExecutor(registeredCommand) : executor;
+
+        if (serializationKey != null) {
+            serialLanes.submit(serializationKey, commandExecutor == executor
+                ? () -> dispatch(registeredCommand, inputString, input, output, null)
+                : () -> CompletableFuture.supplyAsync(() -> dispatch(registeredCommand, inputString, input, output, null), commandExecutor).thenCompose(Function.identity()));
+            return;
+        }
+
+        if (commandExecutor != executor) {
+            commandExecutor.execute(() -> dispatch(registeredCommand, inputString, input, output, null));
+            return;
+        }
+
+        if (registeredCommand != null && registeredCommand.getPriority() == CommandPriority.HIGH) {
+            dispatchQueue.submitPriority(() -> dispatch(registeredCommand, inputString, input, output, null));
+            return;
+        }
+
+        dispatchQueue.submit(input, () -> {
+            if (registeredCommand != null) {
+                dispatch(registeredCommand, inputString, input, output, null);
+            } else {
+                dispatch(inputString, input, output);
+            }
+        });
+    }
+
+    /**
+     * Sets the queue lines are dispatched through. Exceptions thrown by its tasks are written to Ganyu's output, unless
+     * the queue has its own exception handler.
+     *
+     * @param dispatchQueue The dispatch queue.
+     */
+    public void setDispatchQueue(DispatchQueue dispatchQueue) {
+        if (dispatchQueue.getExceptionHandler() == null) {
+            dispatchQueue.setExceptionHandler(this::handleDispatchException);
+        }
+
+        this.dispatchQueue = dispatchQueue;
+    }
+
+    /**
+     * Sets the lanes invocations with a serialization key run on, see {@link SerializeOn}. Exceptions thrown by their
+     * tasks are written to Ganyu's output, unless the lanes have their own exception handler.
+     *
+     * @param serialLanes The serial lanes.
+     */
+    public void setSerialLanes(SerialLanes serialLanes) {
+        if (serialLanes.getExceptionHandler() == null) {
+            serialLanes.setExceptionHandler(this::handleDispatchException);
+        }
+
+        this.serialLanes = serialLanes;
+    }
+
+    /**
+     * Writes an exception that escaped a dispatched task to Ganyu's output.
+     *
+     * @param thread    The thread the task ran on.
+     * @param exception The exception.
+     */
+    protected void handleDispatchException(Thread thread, Throwable exception) {
+        output.error("An unexpected error occurred while dispatching a command!", exception);
+    }
+
+    /**
+     * Registers a named executor, which commands annotated with {@link RunOn} of the same name run on. Replaces the
+     * executor previously registered under the name.
+     *
+     * @param name     The name of the executor, e.g. "io".
+     * @param executor The executor.
+     */
+    public void registerExecutor(String name, Executor executor) {
+        executors.put(name, executor);
+    }
+
+    /**
+     * Returns the executor registered under the name.
+     *
+     * @param name The name of the executor.
+     * @return The executor, or null if none is registered under the name.
+     */
+    public Executor getNamedExecutor(String name) {
+        return executors.get(name);
+    }
+
+    /**
+     * Returns the executor the command runs on: the named executor it is routed to by {@link RunOn}, or the default
+     * {@link #getExecutor()}. Commands routed to an executor that is not registered run on the default executor, which
+     * is reported to Ganyu's output once per executor name, as it usually means the executor was registered under a
+     * different name or not at all.
+     *
+     * @param registeredCommand The command.
+     * @return The executor of the command.
+     */
+    public Executor getCommandExecutor(RegisteredCommand registeredCommand) {
+        final String executorName = registeredCommand.getExecutorName();
+
+        if (executorName == null) {
+            return executor;
+        }
+
+        final Executor namedExecutor = executors.get(executorName);
+
+        if (namedExecutor == null) {
+            if (unknownExecutorNames.add(executorName)) {
+                output.error("Executor '" + executorName + "' of command " + registeredCommand.getFullyQualifiedName() + " is not registered, running on the default executor!", null);
+            }
+
+            return executor;
+        }
+
+        return namedExecutor;
+    }
+
+    /**
+     * Returns the serialization key of the invocation, see {@link SerializeOn}.
+     *
+     * @param registeredCommand The looked up command.
+     * @param inputString       The full input string containing the command and its arguments.
+     * @param sourceInput       The input the line was read from.
+     * @return The serialization key, or null if the invocation is not serialized.
+     */
+    protected Object serializationKey(RegisteredCommand registeredCommand, String inputString, InputSource sourceInput) {
+        final String group = registeredCommand.getSerializationGroup();
+
+        if (group == null) {
+            return null;
+        }
+
+        final CommandArgumentDefinition serializationArgument = registeredCommand.getSerializationArgument();
+
+        if (serializationArgument == null) {
+            return Arrays.asList(group, sourceInput);
+        }
+
+        final List<String> tokens = CommandLines.tokenize(inputString.substring(registeredCommand.getFullyQualifiedName().length()));
+        String value = null;
+
+        if (registeredCommand.isNamedArgumentHandler()) {
+            for (int i = 0; i < tokens.size() - 1; i++) {
+                final String token = tokens.get(i);
+
+                if (token.equals("-" + serializationArgument.getName()) || token.equals("--" + serializationArgument.getLongName())) {
+                    value = tokens.get(i + 1).startsWith("-") ? null : tokens.get(i + 1);
+                    break;
+                }
+            }
+        } else {
+            int position = 0;
+
+            for (CommandArgumentDefinition argumentDefinition : registeredCommand.getArgumentDefinitions()) {
+                if (argumentDefinition == serializationArgument) {
+                    break;
+                } else if (!argumentDefinition.isInjectable()) {
+                    position++;
+                }
+            }
+
+            value = position < tokens.size() ? tokens.get(position) : null;
+        }
+
+        return value != null ? Arrays.asList(group, value) : null;
+    }
+
+    /**
+     * Submits a single line of input for execution by the {@link Executor}, as if it was read from the input source.
+     * Commands routed by {@link RunOn} run on their executor, see {@link #getCommandExecutor(RegisteredCommand)}.
+     * Other commands with {@link CommandPriority#HIGH} priority are handed to the dispatch queue as priority tasks,
+     * see {@link DispatchQueue#submitPriority(Runnable)}.
+     * <p>
+     *     The returned future completes with the {@link CommandResult} once the invocation completes, including the
+     *     post-command method, thus programmatic callers can obtain the payload of the result, see
+     *     {@link CommandResult#getPayload(Class)}, without parsing the output. Unknown commands and invalid arguments
+     *     complete the future with an errored result, whereas exceptions thrown by the command complete it
+     *     exceptionally.
+     * </p>
+     *
+     * @param inputString The full input string containing the command and its arguments.
+     * @return A future completed with the result of the command.
+     */
+    public CompletableFuture<CommandResult> submit(String inputString) {
+        return submit(inputString, input, output);
+    }
+
+    /**
+     * Submits a single line of input read from another source than Ganyu's input, such as a server session, see
+     * {@link #submit(String)}. The invocation writes to the source output, see
+     * {@link CommandInvocationContext#getSourceOutput()}.
+     *
+     * @param inputString  The full input string containing the command and its arguments.
+     * @param sourceInput  The input the line was read from.
+     * @param sourceOutput The output to write to.
+     * @return A future completed with the result of the command.
+     */
+    public CompletableFuture<CommandResult> submit(String inputString, InputSource sourceInput, Output sourceOutput) {
+        final RegisteredCommand registeredCommand = inputString != null && CommandLines.isSingleCommand(inputString) ? lookupCommand(inputString) : null;
+        final Object serializationKey = registeredCommand != null ? serializationKey(registeredCommand, inputString, sourceInput) : null;
+
+        return submit(registeredCommand, serializationKey, inputString, sourceInput, sourceOutput);
+    }
+
+    /**
+     * Submits the line of the looked up command, see {@link #submit(String, InputSource, Output)}.
+     *
+     * @param registeredCommand The looked up command, null to dispatch the line as usual.
+     * @param serializationKey  The serialization key of the invocation, null if it is not serialized.
+     * @param inputString       The full input string containing the command and its arguments.
+     * @param sourceInput       The input the line was read from.
+     * @param sourceOutput      The output to write to.
+     * @return A future completed with the result of the command.
+     */
+    private CompletableFuture<CommandResult> submit(RegisteredCommand registeredCommand, Object serializationKey, String inputString, InputSource sourceInput, Output sourceOutput) {
+        final CompletableFuture<CommandResult> future = new CompletableFuture<>();
+
+        final Supplier<CompletableFuture<CommandResult>> task = () -> {
+            try {
+                final CompletableFuture<CommandResult> completion = registeredCommand != null
+                    ? dispatch(registeredCommand, inputString, sourceInput, sourceOutput, null)
+                    : dispatch(inputString, sourceInput, sourceOutput);
+
+                completion.whenComplete((result, exception) -> {
+                    if (exception != null) {
+                        future.completeExceptionally(exception);
+                    } else {
+                        future.complete(result);
+                    }
+                });
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+            return future;
+        };
+
+        final Executor commandExecutor = registeredCommand != null ? getCommandExecutor(registeredCommand) : executor;
+
+        try {
+            if (serializationKey != null) {
+                serialLanes.submit(serializationKey, commandExecutor == executor ? task : () -> {
+                    try {
+                        commandExecutor.execute(task::get);
+                    } catch (RejectedExecutionException exception) {
+                        future.completeExceptionally(exception);
+                    }
+                    return future;
+                });
+            } else if (commandExecutor == executor && registeredCommand != null && registeredCommand.getPriority() == CommandPriority.HIGH) {
+                dispatchQueue.submitPriority(task::get);
+            } else {
+                commandExecutor.execute(task::get);
+            }
+        } catch (RejectedExecutionException exception) {
+            future.completeExceptionally(exception);
+        }
+
+        return future;
+    }
+
+    /**
+     * Executes a batch of inputs and aggregates their results.
+     * <p>
+     *     The batch is partitioned into chunks, which run in parallel on the {@link #getBatchExecutor()}, the common
+     *     work-stealing pool by default. Items of a chunk are dispatched one after another on the chunk's thread, and
+     *     commands are looked up once per distinct command prefix of the chunk rather than once per item. Chains and
+     *     pipelines are dispatched as usual. Items of commands with a serialization key, see {@link SerializeOn}, and
+     *     of commands routed by {@link RunOn} are submitted as by {@link #submit(String)} instead, thus they run on
+     *     their executor and never run concurrently with other invocations of their key. Items dispatched on the
+     *     chunk's thread do not wait in the dispatch queue, thus their {@link CommandPriority} has no effect. Items
+     *     write to Ganyu's output.
+     * </p>
+     *
+     * @param inputStrings The full input strings containing the commands and their arguments.
+     * @return A future completed with the aggregated result once all items complete.
+     */
+    public CompletableFuture<BatchResult> executeAll(Collection<String> inputStrings) {
+        final int maxCommandWords = commandRegistry.getRegisteredCommandLookup().keySet().stream()
+            .mapToInt(commandName -> commandName.split(" ").length)
+            .max()
+            .orElse(1);
+
+        return executeBatch(inputStrings.toArray(new String[0]), null, maxCommandWords);
+    }
+
+    /**
+     * Executes a command once per argument binding, e.g. <code>executeAll("cache invalidate", keys)</code>, and
+     * aggregates the results, see {@link #executeAll(Collection)}. The command is looked up once for the whole batch
+     * and the arguments are not split into chains or pipelines.
+     *
+     * @param command   The fully qualified name of the command.
+     * @param arguments The arguments of each invocation.
+     * @return A future completed with the aggregated result once all items complete.
+     * @throws IllegalArgumentException if the command is not registered.
+     */
+    public CompletableFuture<BatchResult> executeAll(String command, Collection<String> arguments) {
+        final RegisteredCommand registeredCommand = commandRegistry.getCommand(command);
+
+        if (registeredCommand == null) {
+            throw new IllegalArgumentException("Unknown command: " + command);
+        }
+
+        return executeBatch(arguments.stream().map(argument -> command + " " + argument).toArray(String[]::new), registeredCommand, 0);
+    }
+
+    /**
+     * Executes the batch in chunks on the batch executor.
+     *
+     * @param inputs            The full input strings.
+     * @param preparedCommand   The command of all inputs, null to look up the commands.
+     * @param maxCommandWords   The maximum number of words of registered command names.
+     * @return A future completed with the aggregated result once all items complete.
+     */
+    protected CompletableFuture<BatchResult> executeBatch(String[] inputs, RegisteredCommand preparedCommand, int maxCommandWords) {
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<CommandResult>[] futures = new CompletableFuture[inputs.length];
+        final int parallelism = batchExecutor instanceof ForkJoinPool ? ((ForkJoinPool) batchExecutor).getParallelism() : Runtime.getRuntime().availableProcessors();
+        // A few chunks per thread, so that threads finishing early steal the remaining chunks
+        final int chunkSize = Math.max(1, (inputs.length + parallelism * 4 - 1) / (parallelism * 4));
+        final List<CompletableFuture<Void>> chunks = new ArrayList<>();
+
+        for (int start = 0; start < inputs.length; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(start + chunkSize, inputs.length);
+            chunks.add(CompletableFuture.runAsync(() -> executeChunk(inputs, from, to, preparedCommand, maxCommandWords, futures), batchExecutor));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+            .thenCompose(ignored -> CompletableFuture.allOf(futures))
+            .handle((ignored, exception) -> {
+                final List<CommandResult> results = new ArrayList<>(inputs.length);
+                final List<BatchResult.Failure> failures = new ArrayList<>();
+
+                for (int i = 0; i < inputs.length; i++) {
+                    CommandResult result = null;
+                    Throwable failure = null;
+
+                    try {
+                        result = futures[i] != null ? futures[i].join() : null;
+                    } catch (CompletionException | CancellationException completionException) {
+                        failure = completionException.getCause() != null ? completionException.getCause() : completionException;
+                    }
+
+                    if (failure == null && result == null) {
+                        failure = exception != null ? exception : new IllegalStateException("Item was not executed");
+                    }
+
+                    results.add(result);
+
+                    if (failure != null || !result.isSuccess()) {
+                        failures.add(new BatchResult.Failure(i, inputs[i], result, failure));
+                    }
+                }
+
+                return new BatchResult(results, failures);
+            });
+    }
+
+    private void executeChunk(String[] inputs, int from, int to, RegisteredCommand preparedCommand, int maxCommandWords, CompletableFuture<CommandResult>[] futures) {
+        // Commands by the prefix of the input they are looked up by
+        final Map<String, RegisteredCommand> lookups = new HashMap<>();
+
+        for (int i = from; i < to; i++) {
+            final String inputString = inputs[i];
+
+            try {
+                if (preparedCommand != null) {
+                    futures[i] = dispatchBatchItem(preparedCommand, inputString);
+                } else if (!CommandLines.isSingleCommand(inputString)) {
+                    futures[i] = dispatch(inputString, input, output);
+                } else {
+                    final String commandPrefix = commandPrefix(inputString, maxCommandWords);
+                    RegisteredCommand registeredCommand = lookups.get(commandPrefix);
+
+                    if (registeredCommand == null && !lookups.containsKey(commandPrefix)) {
+                        registeredCommand = lookupCommand(commandPrefix);
+                        lookups.put(commandPrefix, registeredCommand);
+                    }
+
+                    futures[i] = registeredCommand != null
+                        ? dispatchBatchItem(registeredCommand, inputString)
+                        : CompletableFuture.completedFuture(unknownCommand(inputString, output));
+                }
+            } catch (Throwable throwable) {
+                futures[i] = new CompletableFuture<>();
+                futures[i].completeExceptionally(throwable);
+            }
+        }
+    }
+
+    /**
+     * Dispatches the batch item on the current thread, unless it has a serialization key or its command is routed to
+     * another executor, in which case it is submitted as by {@link #submit(String)}.
+     */
+    private CompletableFuture<CommandResult> dispatchBatchItem(RegisteredCommand registeredCommand, String inputString) {
+        final Object serializationKey = serializationKey(registeredCommand, inputString, input);
+
+        if (serializationKey != null || getCommandExecutor(registeredCommand) != executor) {
+            return submit(registeredCommand, serializationKey, inputString, input, output);
+        }
+
+        return dispatch(registeredCommand, inputString, input, output, null);
+    }
+
+    /**
+     * Returns the first words of the input, which determine the command looked up by {@link #lookupCommand(String)}.
+     */
+    private static String commandPrefix(String inputString, int maxCommandWords) {
+        int end = -1;
+
+        for (int i = 0; i < maxCommandWords; i++) {
+            end = inputString.indexOf(' ', end + 1);
+
+            if (end < 0) {
+                return inputString;
+            }
+        }
+
+        return inputString.substring(0, end);
+    }
+
+    /**
+     * Dispatches a single line of input. Looks up the command, parses its arguments and executes it on the current
+     * thread.
+     *
+     * @param inputString The full input string containing the command and its arguments.
+     * @return A future completed with the result once the invocation completes, see
+     * {@link CommandInvocationContext#getCompletion()}.
+     */
+    protected CompletableFuture<CommandResult> dispatch(String inputString) {
+        return dispatch(inputString, input, output);
+    }
+
+    /**
+     * Dispatches a single line of input read from the source input on the current thread, see
+     * {@link #dispatch(String)}. Lines holding a chain of commands are dispatched by
+     * {@link #dispatchChain(String, List, Input, Output)}, lines holding a pipeline by
+     * {@link #dispatchPipeline(List, RegisteredCommand[], Input, Output)}.
+     *
+     * @param inputString  The full input string containing the command and its arguments.
+     * @param sourceInput  The input the line was read from.
+     * @param sourceOutput The output to write to.
+     * @return A future completed with the result once the invocation completes.
+     */
+    protected CompletableFuture<CommandResult> dispatch(String inputString, InputSource sourceInput, Output sourceOutput) {
+        final List<CommandLines.ChainedCommand> chain = CommandLines.splitChain(inputString);
+
+        if (chain.size() > 1) {
+            return dispatchChain(inputString, chain, sourceInput, sourceOutput);
+        }
+
+        final List<String> stages = CommandLines.splitPipeline(inputString);
+        final RegisteredCommand[] registeredCommands = new RegisteredCommand[stages.size()];
+        final CommandResult lookupError = lookupStages(inputString, stages, registeredCommands, sourceOutput);
+
+        if (lookupError != null) {
+            return CompletableFuture.completedFuture(lookupError);
+        }
+
+        return dispatchStages(stages, registeredCommands, sourceInput, sourceOutput);
+    }
+
+    /**
+     * Dispatches a chain of commands, e.g. <code>build ; test &amp;&amp; deploy</code>, see
+     * {@link CommandLines#splitChain(String)}.
+     * <p>
+     *     The whole chain is parsed as one batch: the commands of all its elements, including pipeline stages, are
+     *     looked up before any of them runs, thus a typo does not leave the chain half-done. The elements then run one
+     *     after another as a single task, without handing each of them to the {@link Executor}. An element joined by
+     *     <code>&amp;&amp;</code> is skipped if the previous element failed, i.e. its {@link CommandResult} is not
+     *     successful or it completed exceptionally. Elements completing asynchronously, such as asynchronous commands,
+     *     continue the chain on the executor of the next element once they complete, see
+     *     {@link #getCommandExecutor(RegisteredCommand)}.
+     * </p>
+     *
+     * @param inputString  The full input string.
+     * @param chain        The elements of the chain.
+     * @param sourceInput  The input the line was read from.
+     * @param sourceOutput The output to write to.
+     * @return A future completed with the result of the last element that ran.
+     */
+    protected CompletableFuture<CommandResult> dispatchChain(String inputString, List<CommandLines.ChainedCommand> chain, InputSource sourceInput, Output sourceOutput) {
+        final List<List<String>> chainStages = new ArrayList<>(chain.size());
+        final List<RegisteredCommand[]> chainCommands = new ArrayList<>(chain.size());
+
+        for (CommandLines.ChainedCommand chainedCommand : chain) {
+            if (chainedCommand.getCommandLine().isEmpty()) {
+                sourceOutput.error("Empty command in chain: " + inputString, null);
+                return CompletableFuture.completedFuture(CommandResult.error("Empty command in chain: " + inputString));
+            }
+
+            final List<String> stages = CommandLines.splitPipeline(chainedCommand.getCommandLine());
+            final RegisteredCommand[] registeredCommands = new RegisteredCommand[stages.size()];
+            final CommandResult lookupError = lookupStages(chainedCommand.getCommandLine(), stages, registeredCommands, sourceOutput);
+
+            if (lookupError != null) {
+                return CompletableFuture.completedFuture(lookupError);
+            }
+
+            chainStages.add(stages);
+            chainCommands.add(registeredCommands);
+        }
+
+        final CompletableFuture<CommandResult> future = new CompletableFuture<>();
+        continueChain(chain, chainStages, chainCommands, 0, null, null, sourceInput, sourceOutput, future);
+        return future;
+    }
+
+    /**
+     * Runs the elements of a chain from the index on. Elements completing synchronously are run in a loop, once an
+     * element does not, the chain continues on the executor of the next element, see
+     * {@link #chainExecutor(List, int)}.
+     */
+    private void continueChain(List<CommandLines.ChainedCommand> chain, List<List<String>> chainStages, List<RegisteredCommand[]> chainCommands, int index,
+                               CommandResult previousResult, Throwable previousException, InputSource sourceInput, Output sourceOutput, CompletableFuture<CommandResult> future) {
+        CommandResult result = previousResult;
+        Throwable exception = previousException;
+
+        for (int i = index; i < chain.size(); i++) {
+            final boolean previousFailed = exception != null || (result != null && !result.isSuccess());
+
+            if (chain.get(i).isConditional() && previousFailed) {
+                // Skipped, the failure carries over to the following conditional elements
+                continue;
+            }
+
+            CompletableFuture<CommandResult> element;
+
+            try {
+                element = dispatchStages(chainStages.get(i), chainCommands.get(i), sourceInput, sourceOutput);
+            } catch (Throwable throwable) {
+                element = new CompletableFuture<>();
+                element.completeExceptionally(throwable);
+            }
+
+            if (!element.isDone()) {
+                final int next = i + 1;
+                element.whenComplete((elementResult, elementException) -> {
+                    try {
+                        chainExecutor(chainCommands, next).execute(() ->
+                            continueChain(chain, chainStages, chainCommands, next, elementResult, elementException, sourceInput, sourceOutput, future));
+                    } catch (RejectedExecutionException rejectedException) {
+                        future.completeExceptionally(rejectedException);
+                    }
+                });
+                return;
+            }
+
+            try {
+                result = element.join();
+                exception = null;
+            } catch (CompletionException | CancellationException completionException) {
+                result = null;
+                exception = completionException.getCause() != null ? completionException.getCause() : completionException;
+            }
+        }
+
+        if (exception != null) {
+            future.completeExceptionally(exception);
+        } else {
+            future.complete(result);
+        }
+    }
+
+    /**
+     * Returns the executor the chain continues on from the index: the executor of the element's command, see
+     * {@link #getCommandExecutor(RegisteredCommand)}, or the default executor for pipelines and the end of the chain.
+     */
+    private Executor chainExecutor(List<RegisteredCommand[]> chainCommands, int index) {
+        if (index < chainCommands.size() && chainCommands.get(index).length == 1) {
+            return getCommandExecutor(chainCommands.get(index)[0]);
+        }
 
-    protected final Thread commandReaderThread = createCommandReaderThread();
+        return executor;
+    }
 
     /**
-     * Creates a new Ganyu instance with the provided components.
+     * Looks up the commands of the stages of a pipeline, or of a single command. Empty pipeline stages and unknown
+     * commands are reported to the source output.
      *
-     * @param input                     The input source to read commands from.
-     * @param output                    The output destination to write info messages and errors to.
-     * @param commandArgumentParser     The parser to parse command arguments.
-     * @param commandRegisterProcessor  The processor to register commands.
-     * @param injectableArgumentResolver The resolver for injectable arguments.
-     * @param executor                  The executor to run commands asynchronously.
+     * @param inputString        The input string the stages were split from.
+     * @param stages             The commands of the stages, along with their arguments.
+     * @param registeredCommands The array to store the looked up commands into, one per stage.
+     * @param sourceOutput       The output to report errors to.
+     * @return null if all commands were found, otherwise an errored result.
      */
-    public Ganyu(Input input, Output output, CommandArgumentParser commandArgumentParser, CommandRegisterProcessor commandRegisterProcessor, InjectableArgumentResolver injectableArgumentResolver, Executor executor) {
-        this.input = input;
-        this.output = output;
-        this.commandArgumentParser = commandArgumentParser;
-        this.commandRegisterProcessor = commandRegisterProcessor;
-        this.injectableArgumentResolver = injectableArgumentResolver;
-        this.executor = executor;
+    protected CommandResult lookupStages(String inputString, List<String> stages, RegisteredCommand[] registeredCommands, Output sourceOutput) {
+        for (int i = 0; i < registeredCommands.length; i++) {
+            if (stages.size() > 1 && stages.get(i).isEmpty()) {
+                sourceOutput.error("Empty pipeline stage: " + inputString, null);
+                return CommandResult.error("Empty pipeline stage: " + inputString);
+            }
+
+            registeredCommands[i] = lookupCommand(stages.get(i));
+
+            if (registeredCommands[i] == null) {
+                return unknownCommand(stages.get(i), sourceOutput);
+            }
+        }
 
-        PrimitiveArgumentParsers.register(this);
-        this.registerCommands(new HelpCommand());
+        return null;
     }
 
     /**
-     * Creates a standard Ganyu instance with {@link ConsoleInput} and {@link ConsoleOutput}.
+     * Dispatches looked up commands, as a pipeline if there is more than one stage.
      *
-     * @return A Ganyu instance configured for console input and output.
+     * @param stages             The commands of the stages, along with their arguments.
+     * @param registeredCommands The looked up commands, one per stage.
+     * @param sourceInput        The input the line was read from.
+     * @param sourceOutput       The output to write to.
+     * @return A future completed with the result once the invocation completes.
      */
-    public static Ganyu console() {
-        return standard(new ConsoleInput(), new ConsoleOutput());
+    protected CompletableFuture<CommandResult> dispatchStages(List<String> stages, RegisteredCommand[] registeredCommands, InputSource sourceInput, Output sourceOutput) {
+        if (registeredCommands.length == 1) {
+            return dispatch(registeredCommands[0], stages.get(0), sourceInput, sourceOutput, null);
+        }
+
+        return dispatchPipeline(stages, registeredCommands, sourceInput, sourceOutput);
     }
 
     /**
-     * Creates a standard Ganyu instance with the provided input and output implementations. This will
-     * run the commands in the command reader thread, blocking it until the command completes.
+     * Dispatches the stages of a pipeline, e.g. <code>list | grep foo</code>, see {@link CommandLines#splitPipeline(String)}.
+     * <p>
+     *     The stages are looked up before any of them runs, see
+     *     {@link #lookupStages(String, List, RegisteredCommand[], Output)}. Info messages of each stage are streamed
+     *     into the next stage through a bounded {@link Pipe}, which the next stage reads by a
+     *     {@link enterprises.iwakura.ganyu.annotation.Piped} parameter. The last stage writes to the source output, as
+     *     do errors of all stages. The stages run concurrently: all but the last stage on the
+     *     {@link #getPipelineExecutor()}, the last stage on the current thread.
+     * </p>
      *
-     * @param input  The input source to read commands from.
-     * @param output The output destination to write info messages and errors to.
-     * @return A Ganyu instance configured with the provided input and output.
+     * @param stages             The commands of the stages, along with their arguments.
+     * @param registeredCommands The looked up commands, one per stage.
+     * @param sourceInput        The input the line was read from.
+     * @param sourceOutput       The output to write to.
+     * @return A future completed once all stages complete, with the result of the first failed stage or the result
+     * of the last stage.
      */
-    public static Ganyu standard(Input input, Output output) {
-        return new Ganyu(input, output, new CommandArgumentParserImpl(), new CommandRegisterProcessorImpl(), new ClassInjectableArgumentResolver(), Runnable::run);
+    protected CompletableFuture<CommandResult> dispatchPipeline(List<String> stages, RegisteredCommand[] registeredCommands, InputSource sourceInput, Output sourceOutput) {
+        final Pipe[] pipes = new Pipe[registeredCommands.length - 1];
+        final List<CompletableFuture<CommandResult>> completions = new ArrayList<>(registeredCommands.length);
+
+        for (int i = 0; i < pipes.length; i++) {
+            pipes[i] = new Pipe(sourceOutput, pipeCapacity);
+        }
+
+        for (int i = 0; i < registeredCommands.length; i++) {
+            final int stage = i;
+            final Pipe pipedInput = stage > 0 ? pipes[stage - 1] : null;
+            final Pipe pipedOutput = stage < pipes.length ? pipes[stage] : null;
+            final CompletableFuture<CommandResult> completion = new CompletableFuture<>();
+            completions.add(completion);
+
+            final Runnable task = () -> {
+                try {
+                    dispatch(registeredCommands[stage], stages.get(stage), sourceInput, pipedOutput != null ? pipedOutput : sourceOutput, pipedInput)
+                        .whenComplete((result, exception) -> completeStage(completion, pipedInput, pipedOutput, result, exception));
+                } catch (Throwable throwable) {
+                    completeStage(completion, pipedInput, pipedOutput, null, throwable);
+                }
+            };
+
+            if (pipedOutput == null) {
+                task.run();
+                continue;
+            }
+
+            try {
+                getPipelineExecutor().execute(task);
+            } catch (RejectedExecutionException exception) {
+                completeStage(completion, pipedInput, pipedOutput, null, exception);
+            }
+        }
+
+        return CompletableFuture.allOf(completions.toArray(new CompletableFuture[0])).handle((ignored, ignoredException) -> {
+            CommandResult lastResult = null;
+
+            for (CompletableFuture<CommandResult> completion : completions) {
+                // Completed by now, the first failed stage decides the result
+                final CommandResult result = completion.join();
+
+                if (!result.isSuccess()) {
+                    return result;
+                }
+
+                lastResult = result;
+            }
+
+            return lastResult;
+        });
     }
 
     /**
-     * Creates a standard Ganyu instance with the provided input, output implementations, and executor.
-     * This will run the commands in the provided executor, allowing for asynchronous command execution.
-     *
-     * @param input    The input source to read commands from.
-     * @param output   The output destination to write info messages and errors to.
-     * @param executor The executor to run commands asynchronously.
-     * @return A Ganyu instance configured with the provided input, output, and executor.
+     * Completes a pipeline stage: ends the input of the next stage and discards the rest of the stage's own input.
      */
-    public static Ganyu standardWithExecutor(Input input, Output output, Executor executor) {
-        return new Ganyu(input, output, new CommandArgumentParserImpl(), new CommandRegisterProcessorImpl(), new ClassInjectableArgumentResolver(), executor);
+    private void completeStage(CompletableFuture<CommandResult> completion, Pipe pipedInput, Pipe pipedOutput, CommandResult result, Throwable exception) {
+        if (pipedOutput != null) {
+            pipedOutput.close();
+        }
+
+        if (pipedInput != null) {
+            pipedInput.closeReader();
+        }
+
+        if (exception != null) {
+            completion.completeExceptionally(exception);
+        } else {
+            completion.complete(result);
+        }
     }
 
     /**
-     * Starts the Ganyu command reader thread, which will read commands from the input source
-     * and execute them using the provided executor.
+     * Reports an unknown command along with similarly named commands.
      *
-     * @throws IllegalStateException if Ganyu is already running.
+     * @param inputString  The input string the command was not found in.
+     * @param sourceOutput The output to write to.
+     * @return An errored result.
      */
-    public void run() {
-        if (run) {
-            throw new IllegalStateException("Ganyu is already running!");
-        }
+    protected CommandResult unknownCommand(String inputString, Output sourceOutput) {
+        sourceOutput.error("Unknown command: " + inputString, null);
 
-        run = true;
-        commandReaderThread.start();
+        String similarCommandNames = commandRegistry.getRegisteredCommandLookup().keySet().stream()
+            .filter(cmdName -> cmdName.startsWith(inputString.split(" ")[0]))
+            .collect(Collectors.joining(", "));
+
+        if (!similarCommandNames.isEmpty()) {
+            sourceOutput.info("Similar commands: " + similarCommandNames);
+        }
+        return CommandResult.error("Unknown command: " + inputString);
     }
 
     /**
-     * Stops the Ganyu command reader thread, which will stop reading commands from the input source.
+     * Dispatches a looked up command on the current thread: parses its arguments and executes it. Invocations
+     * exceeding the {@link enterprises.iwakura.ganyu.annotation.RateLimit} of the command are rejected with an errored
+     * result or delayed, see {@link RateLimiter}.
      *
-     * @throws IllegalStateException if Ganyu is not running.
+     * @param registeredCommand The command.
+     * @param inputString       The input string containing the command and its arguments.
+     * @param sourceInput       The input the line was read from.
+     * @param sourceOutput      The output to write to.
+     * @param pipedInput        The output of the previous pipeline stage, null if not a pipeline stage.
+     * @return A future completed with the result once the invocation completes.
      */
-    public void stop() {
-        if (!run) {
-            throw new IllegalStateException("Ganyu is not running!");
+    protected CompletableFuture<CommandResult> dispatch(RegisteredCommand registeredCommand, String inputString, InputSource sourceInput, Output sourceOutput, Pipe pipedInput) {
+        final CommandInvocationContext context = new CommandInvocationContext(this, registeredCommand);
+        context.setSourceInput(sourceInput);
+        context.setSourceOutput(sourceOutput);
+        context.setPipedInput(pipedInput);
+        // Removes the command name from the input string to obtain the arguments
+        final String arguments = inputString.replaceFirst(registeredCommand.getFullyQualifiedName(), "").trim();
+        context.setUnprocessedArguments(arguments);
+        sourceOutput.invocationStarted(context);
+
+        final RateLimiter rateLimiter = registeredCommand.getRateLimiter();
+        if (rateLimiter != null && !rateLimiter.acquire(sourceInput)) {
+            final String message = "Rate limit exceeded for command: " + registeredCommand.getFullyQualifiedName();
+            context.setCommandResult(CommandResult.error(message));
+            context.getOutput().error(message, null);
+            completeInvocation(context);
+            return context.getCompletion();
         }
 
-        run = false;
-        commandReaderThread.interrupt();
+        try {
+            if (registeredCommand.isNamedArgumentHandler()) {
+                commandArgumentParser.parseNamed(context);
+            } else {
+                commandArgumentParser.parseSimple(context);
+            }
+        } catch (CommandParseException parseException) {
+            context.setCommandResult(CommandResult.error(parseException.getMessage()));
+            context.getOutput().error(parseException.getMessage(), null);
+            handleException(context, parseException);
+            completeInvocation(context);
+            return context.getCompletion();
+        } catch (Exception exception) {
+            context.setCommandException(exception);
+            context.getOutput().error("An unexpected error occurred while parsing command arguments!", exception);
+            handleException(context, exception);
+            completeInvocation(context);
+            return context.getCompletion();
+        }
+
+        executeCommand(context);
+        return context.getCompletion();
     }
 
     /**
-     * Creates the command reader thread, which continuously reads commands from the input source
-     * @return The created command reader thread.
+     * Returns the executor running the stages of pipelines, except the last stage. Defaults to a shared cached pool
+     * of daemon threads, as the stages block each other once the pipes between them are full and thus must not run
+     * on the same thread.
+     *
+     * @return The pipeline executor.
      */
-    protected Thread createCommandReaderThread() {
-        return threadFactory.newThread(() -> {
-            while (run) {
-                final String inputString;
+    public Executor getPipelineExecutor() {
+        return pipelineExecutor != null ? pipelineExecutor : DefaultPipelineExecutor.EXECUTOR;
+    }
 
-                try {
-                    inputString = this.input.readNextInput();
-                } catch (Exception exception) {
-                    if (exception instanceof NoSuchElementException) {
-                        return; // End of input stream (usually thrown by Scanner)
-                    }
+    /**
+     * Performs a training run, intended for creating an AppCDS class list and archive of short-lived CLI tools.
+     * <p>
+     *     Every command has to be registered before calling this method. The training run looks up every registered
+     *     command, dispatches the in-built help command for each command lookup and then dispatches the provided
+     *     warm-up inputs. Inputs are dispatched on the calling thread, bypassing the {@link Executor}, and each of them
+     *     is waited for until its invocation completes, including the post-command method, so that all classes on the
+     *     dispatch path are loaded before this method returns. The command reader thread is not started.
+     * </p>
+     * Warm-up inputs should be side-effect free, as they are executed as any other command would be. Their failures are
+     * written to the output as usual and do not stop the training run.
+     *
+     * @param warmUpInputs Additional inputs to dispatch, e.g. <code>status --verbose</code>.
+     */
+    public void trainingRun(String... warmUpInputs) {
+        final Set<String> commandNames = commandRegistry.getRegisteredCommandLookup().keySet();
+        commandNames.forEach(this::lookupCommand);
 
-                    output.error("Failed to read input!", exception);
-                    continue;
-                }
+        awaitTrainingInput("help");
+        commandNames.forEach(commandName -> awaitTrainingInput("help " + commandName));
 
-                if (inputString == null || inputString.isEmpty()) {
-                    continue;
+        if (warmUpInputs != null) {
+            for (String warmUpInput : warmUpInputs) {
+                if (warmUpInput != null && !warmUpInput.isEmpty()) {
+                    awaitTrainingInput(warmUpInput);
                 }
-
-                executor.execute(() -> {
-                    final RegisteredCommand registeredCommand = lookupCommand(inputString);
-
-                    if (registeredCommand == null) {
-                        output.error("Unknown command: " + inputString, null);
-
-                        String similarCommandNames = registeredCommandLookup.keySet().stream()
-                            .filter(cmdName -> cmdName.startsWith(inputString.split(" ")[0]))
-                            .collect(Collectors.joining(", "));
-
-                        if (!similarCommandNames.isEmpty()) {
-                            output.info("Similar commands: " + similarCommandNames);
-                        }
-                        return;
-                    }
-
-                    final CommandInvocationContext context = new CommandInvocationContext(this, registeredCommand);
-
-                    try {
-                        // Removes the command name from the input string to obtain the arguments
-                        final String arguments = inputString.replaceFirst(registeredCommand.getFullyQualifiedName(), "").trim();
-                        context.setUnprocessedArguments(arguments);
-
-                        if (registeredCommand.isNamedArgumentHandler()) {
-                            commandArgumentParser.parseNamed(context);
-                        } else {
-                            commandArgumentParser.parseSimple(context);
-                        }
-                    } catch (CommandParseException parseException) {
-                        output.error(parseException.getMessage(), null);
-                        handleException(context, parseException);
-                        return;
-                    } catch (Exception exception) {
-                        output.error("An unexpected error occurred while parsing command arguments!", exception);
-                        handleException(context, exception);
-                        return;
-                    }
-
-                    executeCommand(context);
-                });
             }
-        });
+        }
+    }
+
+    /**
+     * Dispatches the input of a training run and waits until its invocation completes, whether it succeeds or not.
+     */
+    private void awaitTrainingInput(String inputString) {
+        dispatch(inputString).handle((result, exception) -> null).join();
     }
 
     /**
@@ -215,13 +1277,10 @@ public class Ganyu {
      * @param parser The argument parser to register.
      * @param <T>    The type that the parser can parse.
      * @throws IllegalArgumentException if the parser is null.
+     * @throws IllegalStateException    if the command registry is frozen.
      */
     public <T> void registerArgumentParser(ArgumentParser<T> parser) {
-        if (parser == null) {
-            throw new IllegalArgumentException("Type and parser cannot be null!");
-        }
-
-        argumentParsers.put(parser.getType(), parser);
+        commandRegistry.registerArgumentParser(parser);
     }
 
     /**
@@ -229,6 +1288,9 @@ public class Ganyu {
      *
      * @param commands The commands to register.
      * @return A list of registered commands.
+     * @throws IllegalStateException    if the command registry is frozen.
+     * @throws IllegalArgumentException if an argument type of the commands cannot be parsed, see
+     *                                  {@link CommandRegistry#addRegisteredCommands(List)}.
      */
     public List<RegisteredCommand> registerCommands(GanyuCommand... commands) {
         if (commands == null || commands.length == 0) {
@@ -243,27 +1305,51 @@ public class Ganyu {
             }
 
             registeredCommands = commandRegisterProcessor.process(this, command);
+            commandRegistry.addRegisteredCommands(registeredCommands);
+        }
 
-            // Add to registered commands
-            this.registeredCommands.addAll(registeredCommands);
+        return registeredCommands;
+    }
 
-            // Add to lookup map
-            registeredCommands.forEach(registeredCommand -> {
-                // Default command
-                if (registeredCommand.hasMethod()) {
-                    registeredCommandLookup.put(registeredCommand.getFullyQualifiedName(), registeredCommand);
-                }
+    /**
+     * Lets the {@link PayloadInput} hand its payload over only to lines checked by {@link #referencesPayload(String)}.
+     *
+     * @param input The input source.
+     */
+    private void filterPayloadReferences(Input input) {
+        if (input instanceof PayloadInput) {
+            ((PayloadInput) input).setPayloadReferenceFilter(this::referencesPayload);
+        }
+    }
 
-                // Subcommands
-                registeredCommand.getSubCommands().forEach(subCommand -> {
-                    registeredCommandLookup.put(subCommand.getFullyQualifiedName(), subCommand);
-                });
+    /**
+     * Checks whether the line read from a {@link PayloadInput} references its payload, i.e. it has the
+     * {@value PayloadInput#PAYLOAD_REFERENCE} argument and invokes a single command taking a stream argument. Other
+     * lines pass {@value PayloadInput#PAYLOAD_REFERENCE} to their commands as is and the input keeps reading lines.
+     *
+     * @param inputString The read line.
+     * @return true if the line references the payload, false otherwise.
+     */
+    protected boolean referencesPayload(String inputString) {
+        if (!PayloadInput.hasPayloadReference(inputString) || !CommandLines.isSingleCommand(inputString)) {
+            return false;
+        }
 
-                // NOTE: There are no two-level deep subcommands currently
-            });
+        final RegisteredCommand registeredCommand = lookupCommand(inputString);
+
+        if (registeredCommand == null) {
+            return false;
         }
 
-        return registeredCommands;
+        for (CommandArgumentDefinition argumentDefinition : registeredCommand.getArgumentDefinitions()) {
+            final Class<?> type = argumentDefinition.isMultiValued() ? argumentDefinition.getElementType() : argumentDefinition.getParsedType();
+
+            if (!argumentDefinition.isInjectable() && commandRegistry.getArgumentParser(type) instanceof StreamArgumentParsers.StreamArgumentParser) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     /**
@@ -278,9 +1364,11 @@ public class Ganyu {
 
         for (int i = splitInput.length - 1; i >= 0; i--) {
             String constructedCommand = String.join(" ", Arrays.copyOfRange(splitInput, 0, i + 1));
-            if (registeredCommandLookup.containsKey(constructedCommand)) {
+            final RegisteredCommand registeredCommand = commandRegistry.getCommand(constructedCommand);
+
+            if (registeredCommand != null) {
                 // If the command is found, return it
-                return registeredCommandLookup.get(constructedCommand);
+                return registeredCommand;
             } else if (i == 0) {
                 // If we reach the first word and it's not found, return null
                 return null;
@@ -292,7 +1380,9 @@ public class Ganyu {
 
     /**
      * Executes a command based on the provided CommandInvocationContext.
-     * This method handles pre-command, command execution, post-command, and exception handling.
+     * This method handles pre-command, command execution, post-command, and exception handling. Once the invocation
+     * completes, {@link #completeInvocation(CommandInvocationContext)} is called. Cacheable commands are invoked only
+     * if their result is not cached, see {@link #lookupCachedResult(CommandInvocationContext)}.
      *
      * @param ctx The CommandInvocationContext containing information about the command to execute.
      */
@@ -303,21 +1393,89 @@ public class Ganyu {
             try {
                 command.getPreCommandMethod().invoke(command.getGanyuCommand(), ctx);
             } catch (Exception exception) {
-                output.error("An unexpected error occurred while invoking pre-command method!", exception);
+                ctx.setCommandException(exception);
+                ctx.getOutput().error("An unexpected error occurred while invoking pre-command method!", exception);
                 handleException(ctx, exception);
+                completeInvocation(ctx);
+                return;
+            }
+        }
+
+        CompletableFuture<CommandResult> futureCommandResult = command.isCacheable() ? lookupCachedResult(ctx) : null;
+
+        if (futureCommandResult == null) {
+            futureCommandResult = invokeCommand(ctx);
+
+            if (futureCommandResult == null) {
                 return;
             }
         }
 
+        futureCommandResult.whenCompleteAsync((result, commandException) -> {
+            try {
+                ctx.setCommandException(commandException);
+                ctx.setCommandResult(result);
+
+                if (commandException != null) {
+                    ctx.getOutput().error("An unexpected error occurred while executing command!", commandException);
+                    handleException(ctx, (Exception) (commandException instanceof InvocationTargetException ? commandException.getCause() : commandException));
+                    return;
+                }
+
+                if (!result.isSuccess()) {
+                    if (result.getErrorMessage() != null) {
+                        ctx.getOutput().error(result.getErrorMessage(), null);
+                    } else {
+                        ctx.getOutput().error("Command execution failed (however, no message was given.)", null);
+                    }
+                }
+
+                if (command.getPostCommandMethod() != null) {
+                    try {
+                        command.getPostCommandMethod().invoke(command.getGanyuCommand(), ctx);
+                    } catch (Exception exception) {
+                        ctx.getOutput().error("An unexpected error occurred while invoking post-command method!", exception);
+                        handleException(ctx, exception);
+                    }
+                }
+            } finally {
+                completeInvocation(ctx);
+            }
+        });
+    }
+
+    /**
+     * Invokes the command method and adapts its return value to a future of the result.
+     *
+     * @param ctx The CommandInvocationContext of the invocation.
+     * @return The future of the result, or null if the invocation failed and was completed.
+     */
+    protected CompletableFuture<CommandResult> invokeCommand(CommandInvocationContext ctx) {
+        final RegisteredCommand command = ctx.getRegisteredCommand();
         CompletableFuture<CommandResult> futureCommandResult;
         Object commandReturnValue;
 
         try {
             commandReturnValue = command.getMethod().invoke(command.getGanyuCommand(), getArgumentValues(command.getMethod(), ctx));
+        } catch (InvocationTargetException exception) {
+            if (exception.getCause() instanceof CommandParseException) {
+                // Lazy argument could not be parsed
+                ctx.setCommandResult(CommandResult.error(exception.getCause().getMessage()));
+                ctx.getOutput().error(exception.getCause().getMessage(), null);
+                handleException(ctx, (CommandParseException) exception.getCause());
+            } else {
+                ctx.setCommandException(exception.getCause());
+                ctx.getOutput().error("An unexpected error occurred while invoking/executing command method!", exception);
+                handleException(ctx, exception);
+            }
+            completeInvocation(ctx);
+            return null;
         } catch (Exception exception) {
-            output.error("An unexpected error occurred while invoking/executing command method!", exception);
+            ctx.setCommandException(exception);
+            ctx.getOutput().error("An unexpected error occurred while invoking/executing command method!", exception);
             handleException(ctx, exception);
-            return;
+            completeInvocation(ctx);
+            return null;
         }
 
         if (commandReturnValue instanceof CommandResult) {
@@ -326,42 +1484,118 @@ public class Ganyu {
             try {
                 futureCommandResult = (CompletableFuture<CommandResult>) commandReturnValue;
             } catch (Exception exception) {
-                output.error("An unexpected error occurred while casting command return value to CompletableFuture<CommandResult>!", exception);
+                ctx.getOutput().error("An unexpected error occurred while casting command return value to CompletableFuture<CommandResult>!", exception);
                 handleException(ctx, exception);
-                return;
+                completeInvocation(ctx);
+                return null;
             }
         } else {
-            // Invalid return type, treat as success
-            futureCommandResult = CompletableFuture.completedFuture(CommandResult.success());
+            // Streams, iterators and publishers are drained to the invocation output
+            futureCommandResult = StreamingResults.drain(ctx, commandReturnValue);
+
+            if (futureCommandResult == null) {
+                // Invalid return type, treat as success
+                futureCommandResult = CompletableFuture.completedFuture(CommandResult.success());
+            }
         }
 
-        futureCommandResult.whenCompleteAsync((result, commandException) -> {
-            ctx.setCommandException(commandException);
-            ctx.setCommandResult(result);
+        return futureCommandResult;
+    }
 
-            if (commandException != null) {
-                output.error("An unexpected error occurred while executing command!", commandException);
-                handleException(ctx, (Exception) (commandException instanceof InvocationTargetException ? commandException.getCause() : commandException));
-                return;
+    /**
+     * Returns the cache of the results of the cacheable command, see {@link enterprises.iwakura.ganyu.annotation.Cacheable}.
+     * Caches are kept per Ganyu instance, thus instances sharing a frozen {@link CommandRegistry} never serve each
+     * other's results.
+     *
+     * @param registeredCommand The registered command.
+     * @return The result cache of this instance, or null if the command is not cacheable.
+     */
+    public ResultCache getResultCache(RegisteredCommand registeredCommand) {
+        if (!registeredCommand.isCacheable()) {
+            return null;
+        }
+
+        return resultCaches.computeIfAbsent(registeredCommand, command -> new ResultCache(command.getCacheTtlNanos(), command.getCacheMaxEntries()));
+    }
+
+    /**
+     * Looks up the result of a cacheable command, see {@link enterprises.iwakura.ganyu.annotation.Cacheable}. On a
+     * miss, the result of the invocation is cached by {@link #completeInvocation(CommandInvocationContext)}.
+     *
+     * @param ctx The CommandInvocationContext of the invocation, with parsed arguments.
+     * @return The cached result or the result of the in-flight invocation with equal arguments, or null if the command
+     * must be invoked.
+     */
+    protected CompletableFuture<CommandResult> lookupCachedResult(CommandInvocationContext ctx) {
+        final Object cacheKey = cacheKey(ctx);
+        final CompletableFuture<CommandResult> cached = getResultCache(ctx.getRegisteredCommand()).lookup(cacheKey, ctx.getCompletion());
+
+        if (cached == null) {
+            ctx.setCacheKey(cacheKey);
+        }
+
+        return cached;
+    }
+
+    /**
+     * Returns the cache key of the invocation: the parsed values of its arguments, arrays are compared by their
+     * elements.
+     *
+     * @param ctx The CommandInvocationContext of the invocation, with parsed arguments.
+     * @return The cache key.
+     */
+    protected Object cacheKey(CommandInvocationContext ctx) {
+        final List<Object> cacheKey = new ArrayList<>();
+
+        for (CommandArgumentDefinition argumentDefinition : ctx.getRegisteredCommand().getArgumentDefinitions()) {
+            if (!argumentDefinition.isInjectable()) {
+                cacheKey.add(cacheKeyValue(ctx.getArgumentValue(argumentDefinition)));
             }
+        }
 
-            if (!result.isSuccess()) {
-                if (result.getErrorMessage() != null) {
-                    output.error(result.getErrorMessage(), null);
-                } else {
-                    output.error("Command execution failed (however, no message was given.)", null);
-                }
+        return cacheKey;
+    }
+
+    private static Object cacheKeyValue(Object value) {
+        if (value == null || !value.getClass().isArray()) {
+            return value;
+        }
+
+        final List<Object> elements = new ArrayList<>();
+
+        for (int i = 0; i < Array.getLength(value); i++) {
+            elements.add(cacheKeyValue(Array.get(value, i)));
+        }
+
+        return elements;
+    }
+
+    /**
+     * Completes the command invocation. Closes resources registered with
+     * {@link CommandInvocationContext#registerCloseable(AutoCloseable)}, writes the buffered invocation output,
+     * notifies the output by {@link Output#invocationFinished(CommandInvocationContext)}, caches the result of cacheable
+     * commands and completes {@link CommandInvocationContext#getCompletion()}.
+     *
+     * @param ctx The CommandInvocationContext of the completed invocation.
+     */
+    protected void completeInvocation(CommandInvocationContext ctx) {
+        try {
+            ctx.closeResources();
+            ctx.getOutput().complete();
+            ctx.getSourceOutput().invocationFinished(ctx);
+        } finally {
+            if (ctx.getCacheKey() != null) {
+                getResultCache(ctx.getRegisteredCommand()).complete(ctx.getCacheKey(), ctx.getCompletion(), ctx.getCommandResult());
             }
 
-            if (command.getPostCommandMethod() != null) {
-                try {
-                    command.getPostCommandMethod().invoke(command.getGanyuCommand(), ctx);
-                } catch (Exception exception) {
-                    output.error("An unexpected error occurred while invoking post-command method!", exception);
-                    handleException(ctx, exception);
-                }
+            if (ctx.getCommandResult() != null) {
+                ctx.getCompletion().complete(ctx.getCommandResult());
+            } else if (ctx.getCommandException() != null) {
+                ctx.getCompletion().completeExceptionally(ctx.getCommandException());
+            } else {
+                ctx.getCompletion().complete(CommandResult.error("Command invocation failed"));
             }
-        });
+        }
     }
 
     /**
@@ -377,7 +1611,7 @@ public class Ganyu {
             try {
                 command.getExceptionHandlerMethod().invoke(command.getGanyuCommand(), ctx, exceptionToHandle);
             } catch (Exception exception) {
-                output.error("An unexpected error occurred while invoking exception handler method!", exception);
+                ctx.getOutput().error("An unexpected error occurred while invoking exception handler method!", exception);
             }
         }
     }
@@ -429,16 +1663,67 @@ public class Ganyu {
     }
 
     /**
-     * Retrieves an unmodifiable list of all registered commands.
+     * Retrieves an unmodifiable list of all registered commands. The list is a snapshot, commands registered afterward
+     * are not reflected.
      *
      * @return An unmodifiable list of registered commands.
      */
     public List<RegisteredCommand> getRegisteredCommands() {
-        return Collections.unmodifiableList(registeredCommands);
+        return commandRegistry.getRegisteredCommands();
+    }
+
+    /**
+     * Registers already processed commands, see {@link CommandRegistry#addRegisteredCommands(List)}.
+     *
+     * @param registeredCommands The level-one commands to register.
+     * @throws IllegalStateException if the command registry is frozen.
+     * @deprecated Commands live in the {@link CommandRegistry}, use {@link #registerCommands(GanyuCommand...)}.
+     * Unlike before, the commands are added to the registered commands instead of replacing them.
+     */
+    @Deprecated
+    public void setRegisteredCommands(List<RegisteredCommand> registeredCommands) {
+        commandRegistry.addRegisteredCommands(registeredCommands);
+    }
+
+    /**
+     * Retrieves an unmodifiable map of all registered commands by their fully qualified names, see
+     * {@link CommandRegistry#getRegisteredCommandLookup()}. The map is a snapshot, commands registered afterward are
+     * not reflected.
+     *
+     * @return An unmodifiable map of registered commands.
+     */
+    public Map<String, RegisteredCommand> getRegisteredCommandLookup() {
+        return commandRegistry.getRegisteredCommandLookup();
+    }
+
+    /**
+     * Retrieves an unmodifiable map of all registered argument parsers by their types. The map is a snapshot, parsers
+     * registered afterward are not reflected.
+     *
+     * @return An unmodifiable map of argument parsers.
+     */
+    public Map<Class<?>, ArgumentParser<?>> getArgumentParsers() {
+        return commandRegistry.getArgumentParsers();
+    }
+
+    /**
+     * Registers the argument parsers, see {@link #registerArgumentParser(ArgumentParser)}.
+     *
+     * @param argumentParsers The argument parsers by their types.
+     * @throws IllegalStateException if the command registry is frozen.
+     * @deprecated Argument parsers live in the {@link CommandRegistry}, use
+     * {@link #registerArgumentParser(ArgumentParser)}. Unlike before, the parsers are added to the registered parsers
+     * instead of replacing them, and each parser is registered for {@link ArgumentParser#getType()}.
+     */
+    @Deprecated
+    public void setArgumentParsers(Map<Class<?>, ArgumentParser<?>> argumentParsers) {
+        argumentParsers.values().forEach(this::registerArgumentParser);
     }
 
     /**
-     * Retrieves the argument parser registered for the specified type.
+     * Retrieves the argument parser registered for the specified type. If there's no parser registered, the parser
+     * discovered by {@link DiscoveredArgumentParsers} is used, e.g. for enums or types with a static
+     * <code>valueOf(String)</code> method.
      *
      * @param type The type for which to retrieve the argument parser.
      * @return The ArgumentParser registered for the specified type.
@@ -449,7 +1734,11 @@ public class Ganyu {
             throw new IllegalArgumentException("Type cannot be null!");
         }
 
-        ArgumentParser<?> parser = argumentParsers.get(type);
+        ArgumentParser<?> parser = commandRegistry.getArgumentParser(type);
+
+        if (parser == null) {
+            parser = DiscoveredArgumentParsers.lookup(type);
+        }
 
         if (parser == null) {
             throw new IllegalArgumentException("No argument parser registered for type: " + type.getName());
@@ -457,4 +1746,13 @@ public class Ganyu {
 
         return parser;
     }
+
+    private static class DefaultPipelineExecutor {
+
+        private static final Executor EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "Ganyu-Pipeline-Stage");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
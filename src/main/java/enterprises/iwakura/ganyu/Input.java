@@ -5,7 +5,7 @@ import java.util.NoSuchElementException;
 /**
  * Interface for reading user input. Its method should block until input is available.
  */
-public interface Input {
+public interface Input extends InputSource {
 
     /**
      * Reads the next line of input from the user. This method should block until input is available.
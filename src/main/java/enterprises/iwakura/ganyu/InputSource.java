@@ -0,0 +1,21 @@
+package enterprises.iwakura.ganyu;
+
+/**
+ * Source of command lines an invocation originates from, such as an {@link Input} or a session of
+ * {@link enterprises.iwakura.ganyu.impl.server.GanyuServer}, see {@link CommandInvocationContext#getSourceInput()}.
+ * Unlike {@link Input}, a source does not have to be readable by Ganyu, it may push its lines by
+ * {@link Ganyu#submit(String, InputSource, Output)}.
+ */
+public interface InputSource {
+
+    /**
+     * Whether lines of this source come from a remote client, e.g. a server session. Arguments of remote sources may
+     * be trusted less than those of local sources.
+     *
+     * @return true if the source is remote, false otherwise
+     */
+    default boolean isRemote() {
+        return false;
+    }
+
+}
@@ -0,0 +1,95 @@
+package enterprises.iwakura.ganyu;
+
+import enterprises.iwakura.ganyu.exception.CommandParseException;
+
+import java.util.function.Supplier;
+
+/**
+ * Memoizing handle of a lazily parsed command argument. Command methods may declare parameters as
+ * <code>Lazy&lt;T&gt;</code> or <code>Supplier&lt;T&gt;</code> to defer parsing of the argument until it is first
+ * accessed, e.g. when the command may return early without reading it.
+ * <p>
+ *     Parse errors are reported on access: {@link #get()} throws {@link CommandParseException}, whereas
+ *     {@link #getResult()} returns the errored {@link ParseResult}. Omitted optional arguments are represented by a
+ *     handle holding null.
+ * </p>
+ *
+ * @param <T> the type of the parsed value
+ */
+public final class Lazy<T> implements Supplier<T> {
+
+    private Supplier<ParseResult<T>> parser;
+    private volatile ParseResult<T> result;
+
+    private Lazy(Supplier<ParseResult<T>> parser, ParseResult<T> result) {
+        this.parser = parser;
+        this.result = result;
+    }
+
+    /**
+     * Creates a handle which parses the value on first access.
+     *
+     * @param parser the parser, invoked at most once
+     * @param <T>    the type of the parsed value
+     *
+     * @return Lazy instance
+     */
+    public static <T> Lazy<T> of(Supplier<ParseResult<T>> parser) {
+        return new Lazy<>(parser, null);
+    }
+
+    /**
+     * Creates a handle holding an already known value.
+     *
+     * @param value the value, may be null
+     * @param <T>   the type of the value
+     *
+     * @return Lazy instance
+     */
+    public static <T> Lazy<T> value(T value) {
+        return new Lazy<>(null, ParseResult.success(value));
+    }
+
+    /**
+     * Parses the value on first access and returns it.
+     *
+     * @return the parsed value, may be null
+     * @throws CommandParseException if the argument is invalid
+     */
+    @Override
+    public T get() throws CommandParseException {
+        return getResult().getOrThrow();
+    }
+
+    /**
+     * Parses the value on first access and returns the result without throwing.
+     *
+     * @return the parse result holding either the parsed value or an error message
+     */
+    public ParseResult<T> getResult() {
+        ParseResult<T> result = this.result;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.result;
+
+                if (result == null) {
+                    result = parser.get();
+                    this.result = result;
+                    parser = null;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Whether the value was already parsed.
+     *
+     * @return true if the value was parsed, false otherwise
+     */
+    public boolean isParsed() {
+        return result != null;
+    }
+}
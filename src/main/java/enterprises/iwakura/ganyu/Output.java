@@ -20,4 +20,69 @@ public interface Output {
      */
     void error(String message, Throwable throwable);
 
+    /**
+     * Outputs an informational message of a command invocation. Delegates to {@link #info(String)} by default.
+     *
+     * @param ctx     The command invocation context.
+     * @param message The message to output.
+     */
+    default void info(CommandInvocationContext ctx, String message) {
+        info(message);
+    }
+
+    /**
+     * Outputs an error message of a command invocation. Delegates to {@link #error(String, Throwable)} by default.
+     *
+     * @param ctx       The command invocation context.
+     * @param message   The message to output.
+     * @param throwable The throwable associated with the error (can be null).
+     */
+    default void error(CommandInvocationContext ctx, String message, Throwable throwable) {
+        error(message, throwable);
+    }
+
+    /**
+     * Called once the command of an invocation was found, before its arguments are parsed. Does nothing by default.
+     *
+     * @param ctx The command invocation context.
+     */
+    default void invocationStarted(CommandInvocationContext ctx) {
+    }
+
+    /**
+     * Called once a command invocation completed, after its messages were written and
+     * {@link CommandInvocationContext#getCommandResult()} was set, if there is any. Does nothing by default.
+     *
+     * @param ctx The command invocation context.
+     */
+    default void invocationFinished(CommandInvocationContext ctx) {
+    }
+
+    /**
+     * Flushes messages which may have been buffered by the implementation. Does nothing by default.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Creates a {@link TableWriter} writing an aligned table to this output.
+     *
+     * @param headers The column headers, may be empty.
+     * @return The table writer.
+     */
+    default TableWriter table(String... headers) {
+        return table(TableWriter.Mode.ALIGNED, headers);
+    }
+
+    /**
+     * Creates a {@link TableWriter} writing a table to this output.
+     *
+     * @param mode    The rendering mode.
+     * @param headers The column headers, may be empty.
+     * @return The table writer.
+     */
+    default TableWriter table(TableWriter.Mode mode, String... headers) {
+        return new TableWriter(this, mode, TableWriter.DEFAULT_SAMPLE_SIZE, headers);
+    }
+
 }
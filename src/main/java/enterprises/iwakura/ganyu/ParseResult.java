@@ -0,0 +1,68 @@
+package enterprises.iwakura.ganyu;
+
+import enterprises.iwakura.ganyu.exception.CommandParseException;
+import lombok.Getter;
+
+/**
+ * Represents the result of parsing an argument with {@link ArgumentParser#tryParse(String)}.
+ * Contains either the parsed value or an error message, so that invalid input can be rejected without throwing.
+ *
+ * @param <T> the type of the parsed value
+ */
+@Getter
+public final class ParseResult<T> {
+
+    private final T value;
+    private final String errorMessage;
+
+    private ParseResult(T value, String errorMessage) {
+        this.value = value;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Creates a successful parse result.
+     *
+     * @param value the parsed value, may be null
+     * @param <T>   the type of the parsed value
+     *
+     * @return ParseResult instance holding the value
+     */
+    public static <T> ParseResult<T> success(T value) {
+        return new ParseResult<>(value, null);
+    }
+
+    /**
+     * Creates an errored parse result.
+     *
+     * @param errorMessage the error message to be displayed
+     * @param <T>          the type of the parsed value
+     *
+     * @return ParseResult instance indicating failure
+     */
+    public static <T> ParseResult<T> error(String errorMessage) {
+        return new ParseResult<>(null, errorMessage != null ? errorMessage : "Invalid argument");
+    }
+
+    /**
+     * Whether the argument was parsed successfully.
+     *
+     * @return true if the result holds a value, false if it holds an error message
+     */
+    public boolean isSuccess() {
+        return errorMessage == null;
+    }
+
+    /**
+     * Returns the parsed value or throws {@link CommandParseException} with the error message.
+     *
+     * @return the parsed value
+     * @throws CommandParseException if the result is an error
+     */
+    public T getOrThrow() throws CommandParseException {
+        if (errorMessage != null) {
+            throw new CommandParseException(errorMessage);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,54 @@
+package enterprises.iwakura.ganyu;
+
+import java.nio.channels.ReadableByteChannel;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Interface for {@link Input} implementations that can hand their remaining bytes over to a command as a payload.
+ * <p>
+ *     A command line references the payload with the {@value #PAYLOAD_REFERENCE} argument, e.g.
+ *     <code>import @-</code>, which is then parsed as a stream argument. Everything after such a line belongs to the
+ *     payload, thus {@link #readNextInput()} throws {@link NoSuchElementException} afterward.
+ * </p>
+ */
+public interface PayloadInput extends Input {
+
+    /**
+     * Argument referencing the payload of the input.
+     */
+    String PAYLOAD_REFERENCE = "@-";
+
+    /**
+     * Opens the payload referenced by the last read line. The payload may be opened only once.
+     *
+     * @return Channel reading the bytes remaining after the last read line.
+     * @throws IllegalStateException if the last read line did not reference the payload or it was already opened.
+     */
+    ReadableByteChannel openPayload();
+
+    /**
+     * Sets the filter deciding whether a read line references the payload. By default, every line with the
+     * {@value #PAYLOAD_REFERENCE} argument does. {@link Ganyu} only accepts lines of commands taking a stream argument,
+     * so that {@value #PAYLOAD_REFERENCE} stays an ordinary argument of other commands.
+     *
+     * @param filter Predicate accepting lines that reference the payload.
+     */
+    void setPayloadReferenceFilter(Predicate<String> filter);
+
+    /**
+     * Checks whether the line has the {@value #PAYLOAD_REFERENCE} argument.
+     *
+     * @param line The read line.
+     * @return true if any of the whitespace separated arguments is {@value #PAYLOAD_REFERENCE}, false otherwise.
+     */
+    static boolean hasPayloadReference(String line) {
+        for (String argument : line.split("\\s+")) {
+            if (PAYLOAD_REFERENCE.equals(argument)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -1,5 +1,6 @@
 package enterprises.iwakura.ganyu;
 
+import enterprises.iwakura.ganyu.impl.RateLimiter;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -25,6 +26,20 @@ public class RegisteredCommand {
     private String syntax;
     private boolean namedArgumentHandler;
 
+    // Group of the serialization key, null if invocations are not serialized, see SerializeOn
+    private String serializationGroup;
+    // Argument forming the serialization key, null to serialize per source input
+    private CommandArgumentDefinition serializationArgument;
+    // Name of the executor the command runs on, null for the default executor, see RunOn
+    private String executorName;
+    private CommandPriority priority = CommandPriority.NORMAL;
+    // Limits the rate of invocations, null if the command is not rate limited, see RateLimit
+    private RateLimiter rateLimiter;
+    // Time to live of cached results in nanoseconds, zero if the command is not cacheable, see Cacheable
+    private long cacheTtlNanos;
+    // Maximum number of cached results per Ganyu instance, see Ganyu#getResultCache(RegisteredCommand)
+    private int cacheMaxEntries;
+
     private Method method;
     private Method preCommandMethod;
     private Method postCommandMethod;
@@ -49,6 +64,15 @@ public class RegisteredCommand {
         this.method = method;
     }
 
+    /**
+     * Whether the results of the command are cached, see {@link enterprises.iwakura.ganyu.annotation.Cacheable}.
+     *
+     * @return true if the command is cacheable, false otherwise.
+     */
+    public boolean isCacheable() {
+        return cacheTtlNanos > 0;
+    }
+
     /**
      * Checks if the command has an associated method.
      *
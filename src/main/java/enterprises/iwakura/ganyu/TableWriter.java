@@ -0,0 +1,213 @@
+package enterprises.iwakura.ganyu;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Renders tables to {@link Output} incrementally, one {@link Output#info(String)} call per row, thus large tables are
+ * never fully materialized. Obtain instances by {@link Output#table(String...)} or
+ * {@link CommandInvocationContext#table(String...)}.
+ * <p>
+ *     In {@link Mode#ALIGNED} mode, the first rows up to the sample size are buffered to estimate the column widths.
+ *     Afterward, rows are written as they are added. Cells wider than their column are written in full, shifting the
+ *     rest of the row. In {@link Mode#TSV} mode, rows are written immediately as tab separated values, with tabs,
+ *     line breaks and backslashes escaped as <code>\t</code>, <code>\n</code>, <code>\r</code> and
+ *     <code>\\</code>.
+ * </p>
+ * Call {@link #close()} once all rows are added, so that the buffered rows of small tables are written.
+ */
+public class TableWriter implements AutoCloseable {
+
+    /**
+     * Rendering mode of the table.
+     */
+    public enum Mode {
+        /**
+         * Human-readable table with padded columns.
+         */
+        ALIGNED,
+        /**
+         * Machine-readable tab separated values.
+         */
+        TSV
+    }
+
+    public static final int DEFAULT_SAMPLE_SIZE = 100;
+    private static final String COLUMN_SEPARATOR = "  ";
+
+    @Getter
+    private final Output output;
+    @Getter
+    private final Mode mode;
+    private final String[] headers;
+    private final int sampleSize;
+
+    private final StringBuilder line = new StringBuilder();
+    private List<String[]> sampleRows = new ArrayList<>();
+    private int[] columnWidths;
+    @Getter
+    private long rowCount;
+    private boolean closed;
+
+    /**
+     * Creates a new TableWriter.
+     *
+     * @param output     The output to write rows to.
+     * @param mode       The rendering mode.
+     * @param sampleSize The number of rows buffered to estimate column widths in {@link Mode#ALIGNED} mode.
+     * @param headers    The column headers, may be empty.
+     */
+    public TableWriter(Output output, Mode mode, int sampleSize, String... headers) {
+        this.output = output;
+        this.mode = mode;
+        this.sampleSize = Math.max(sampleSize, 0);
+        this.headers = headers != null ? headers : new String[0];
+
+        if (mode == Mode.TSV && this.headers.length > 0) {
+            writeRow(this.headers);
+        }
+    }
+
+    /**
+     * Adds a row. Cells are converted by {@link String#valueOf(Object)}, null cells are written as empty strings.
+     *
+     * @param cells The cells of the row.
+     * @return This TableWriter.
+     * @throws IllegalStateException if the table was already closed.
+     */
+    public synchronized TableWriter row(Object... cells) {
+        if (closed) {
+            throw new IllegalStateException("Table was already closed!");
+        }
+
+        final String[] row = new String[cells.length];
+
+        for (int i = 0; i < cells.length; i++) {
+            row[i] = cells[i] != null ? String.valueOf(cells[i]) : "";
+        }
+
+        rowCount++;
+
+        if (mode == Mode.TSV || columnWidths != null) {
+            writeRow(row);
+        } else {
+            sampleRows.add(row);
+
+            if (sampleRows.size() >= sampleSize) {
+                writeSample();
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes the buffered rows, if any. Rows cannot be added afterward.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        if (mode == Mode.ALIGNED && columnWidths == null) {
+            writeSample();
+        }
+
+        closed = true;
+    }
+
+    private void writeSample() {
+        int columnCount = headers.length;
+
+        for (String[] row : sampleRows) {
+            columnCount = Math.max(columnCount, row.length);
+        }
+
+        columnWidths = new int[columnCount];
+        updateColumnWidths(headers);
+        sampleRows.forEach(this::updateColumnWidths);
+
+        if (headers.length > 0) {
+            writeRow(headers);
+
+            final String[] separators = new String[columnCount];
+
+            for (int i = 0; i < columnCount; i++) {
+                separators[i] = repeat('-', columnWidths[i]);
+            }
+
+            writeRow(separators);
+        }
+
+        sampleRows.forEach(this::writeRow);
+        sampleRows = null;
+    }
+
+    private void updateColumnWidths(String[] row) {
+        for (int i = 0; i < row.length; i++) {
+            columnWidths[i] = Math.max(columnWidths[i], row[i].length());
+        }
+    }
+
+    private void writeRow(String[] row) {
+        line.setLength(0);
+
+        for (int i = 0; i < row.length; i++) {
+            if (mode == Mode.TSV) {
+                if (i > 0) {
+                    line.append('\t');
+                }
+                appendEscaped(row[i]);
+                continue;
+            }
+
+            if (i > 0) {
+                line.append(COLUMN_SEPARATOR);
+            }
+
+            line.append(row[i]);
+
+            // Pads all but the last column
+            if (i < row.length - 1 && i < columnWidths.length) {
+                for (int padding = row[i].length(); padding < columnWidths[i]; padding++) {
+                    line.append(' ');
+                }
+            }
+        }
+
+        output.info(line.toString());
+    }
+
+    private void appendEscaped(String cell) {
+        for (int i = 0; i < cell.length(); i++) {
+            final char character = cell.charAt(i);
+
+            switch (character) {
+                case '\t':
+                    line.append("\\t");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                default:
+                    line.append(character);
+            }
+        }
+    }
+
+    private static String repeat(char character, int count) {
+        final char[] characters = new char[count];
+        Arrays.fill(characters, character);
+        return new String(characters);
+    }
+}
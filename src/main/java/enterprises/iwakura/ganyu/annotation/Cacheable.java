@@ -0,0 +1,41 @@
+package enterprises.iwakura.ganyu.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the results of a read-only command, keyed by its parsed argument values, e.g.
+ * <code>@Cacheable(ttl = 5)</code> on a <code>status</code> command polled by dashboards. Cache hits skip the command
+ * method, the pre-command and post-command methods still run. Concurrent invocations with equal arguments are coalesced
+ * into a single invocation, see {@link enterprises.iwakura.ganyu.impl.ResultCache}.
+ * <p>
+ *     Only successful {@link enterprises.iwakura.ganyu.CommandResult}s are cached, output written by the command is
+ *     not replayed on cache hits, thus cacheable commands should return their data as the payload of the result.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+
+    /**
+     * Time to live of cached results
+     * @return the time to live in {@link #unit()}
+     */
+    long ttl();
+
+    /**
+     * Unit of the time to live
+     * @return the unit
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * Maximum number of cached results, the least recently used result is evicted once exceeded
+     * @return the maximum number of entries
+     */
+    int maxEntries() default 1000;
+
+}
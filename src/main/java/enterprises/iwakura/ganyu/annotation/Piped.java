@@ -0,0 +1,22 @@
+package enterprises.iwakura.ganyu.annotation;
+
+import java.io.Reader;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Iterator;
+
+/**
+ * Marks a parameter that receives the output of the previous stage of a pipeline, e.g. <code>list | grep foo</code>.
+ * The parameter must be of type {@link Iterator} of strings, yielding one line at a time, or {@link Reader}.
+ * <p>
+ *     Piped parameters are injected, they are not parsed from the arguments. When the command is not invoked as
+ *     a non-first stage of a pipeline, the parameter receives an empty iterator or reader.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER})
+public @interface Piped {
+
+}
@@ -0,0 +1,25 @@
+package enterprises.iwakura.ganyu.annotation;
+
+import enterprises.iwakura.ganyu.CommandPriority;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the priority of a command, e.g. <code>@Priority</code> on an operator's <code>stop</code> or
+ * <code>drain</code> command, so it does not wait behind queued heavy commands. When placed on a command class, it
+ * applies to all its commands.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Priority {
+
+    /**
+     * Priority of the command
+     * @return the priority, high by default
+     */
+    CommandPriority value() default CommandPriority.HIGH;
+
+}
@@ -0,0 +1,64 @@
+package enterprises.iwakura.ganyu.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate of invocations of a command to {@link #permits()} per {@link #per()} {@link #unit()}, e.g.
+ * <code>@RateLimit(permits = 10, per = 1)</code> for ten invocations per second. Up to {@link #permits()} invocations
+ * may run in a burst. Invocations exceeding the limit are rejected with an errored
+ * {@link enterprises.iwakura.ganyu.CommandResult}, or delayed with {@link Policy#DELAY}, see
+ * {@link enterprises.iwakura.ganyu.impl.RateLimiter}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RateLimit {
+
+    /**
+     * Policy applied to invocations exceeding the limit.
+     */
+    enum Policy {
+        /**
+         * Rejects the invocation.
+         */
+        REJECT,
+        /**
+         * Delays the invocation until a permit is available, the dispatching thread waits meanwhile.
+         */
+        DELAY
+    }
+
+    /**
+     * Number of invocations allowed per period
+     * @return the number of permits
+     */
+    int permits();
+
+    /**
+     * Length of the period
+     * @return the period in {@link #unit()}
+     */
+    long per() default 1;
+
+    /**
+     * Unit of the period
+     * @return the unit
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * Policy applied to invocations exceeding the limit
+     * @return the policy
+     */
+    Policy policy() default Policy.REJECT;
+
+    /**
+     * Whether the limit applies to each source input separately, e.g. per server session
+     * @return true to limit per source input, false to limit all invocations together
+     */
+    boolean perSource() default false;
+
+}
@@ -0,0 +1,24 @@
+package enterprises.iwakura.ganyu.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Routes a command to a named executor registered by
+ * {@link enterprises.iwakura.ganyu.Ganyu#registerExecutor(String, java.util.concurrent.Executor)}, e.g.
+ * <code>@RunOn("io")</code> for commands blocking on I/O. When placed on a command class, it applies to all its
+ * commands. Commands without it run on Ganyu's default executor.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RunOn {
+
+    /**
+     * Name of the executor
+     * @return the executor name
+     */
+    String value();
+
+}
@@ -0,0 +1,36 @@
+package enterprises.iwakura.ganyu.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a command whose invocations are serialized by a key, e.g. <code>@SerializeOn("-a")</code> on
+ * <code>account freeze -a 42</code> and <code>account unfreeze -a 42</code>. Invocations with the same key run one
+ * after another in the order they were received, while invocations with different keys run concurrently, see
+ * {@link enterprises.iwakura.ganyu.impl.SerialLanes}. When placed on a command class, it applies to all its commands.
+ * <p>
+ *     The key is formed of the {@link #group()} and the raw value of the argument named by {@link #value()}, which is
+ *     matched against the short and long forms of {@link NamedArg}, with or without leading dashes. Without a value,
+ *     invocations are serialized per source input, e.g. per server session. Invocations missing the key argument are
+ *     not serialized.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface SerializeOn {
+
+    /**
+     * Name of the argument forming the key, e.g. "-a" or "--account"
+     * @return the argument name, empty to serialize per source input
+     */
+    String value() default "";
+
+    /**
+     * Group of the key, commands of different groups never wait for each other
+     * @return the group, empty for the name of the command class
+     */
+    String group() default "";
+
+}
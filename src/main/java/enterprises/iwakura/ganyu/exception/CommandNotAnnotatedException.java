@@ -17,14 +17,14 @@ public class CommandNotAnnotatedException extends CommandParseException {
     protected final Class<? extends Annotation> annotation;
 
     public CommandNotAnnotatedException(GanyuCommand command, Class<? extends Annotation> annotation) {
-        super(String.format("Command %s does not inherit or have valid annotation %s or has empty value", command.getClass(), annotation.getName()));
+        super(String.format("Command %s does not inherit or have valid annotation %s or has empty value", command.getClass(), annotation.getName()), true);
         this.command = command;
         this.method = null;
         this.annotation = annotation;
     }
 
     public CommandNotAnnotatedException(GanyuCommand command, Method method, Class<? extends Annotation> annotation) {
-        super(String.format("Method %s in command %s does not inherit or have valid annotation %s or has empty value", method, command.getClass(), annotation.getName()));
+        super(String.format("Method %s in command %s does not inherit or have valid annotation %s or has empty value", method, command.getClass(), annotation.getName()), true);
         this.command = command;
         this.method = method;
         this.annotation = annotation;
@@ -2,10 +2,25 @@ package enterprises.iwakura.ganyu.exception;
 
 /**
  * Exception thrown when a command cannot be parsed or executed correctly.
+ * <p>
+ *     This exception does not fill in its stack trace by default, since it is thrown for invalid user input and only
+ *     its message is reported. Exceptions signaling programming errors, such as invalid command classes, should use
+ *     {@link #CommandParseException(String, boolean)} to keep their stack trace.
+ * </p>
  */
 public class CommandParseException extends RuntimeException {
 
     public CommandParseException(String message) {
-        super(message);
+        this(message, false);
+    }
+
+    /**
+     * Creates a new CommandParseException.
+     *
+     * @param message            The exception message.
+     * @param writableStackTrace Whether the stack trace should be filled in.
+     */
+    protected CommandParseException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
     }
 }
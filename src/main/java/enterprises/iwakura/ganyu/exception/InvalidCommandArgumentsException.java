@@ -4,7 +4,8 @@ import enterprises.iwakura.ganyu.CommandInvocationContext;
 import lombok.Getter;
 
 /**
- * Exception thrown when command arguments are invalid or missing.
+ * Exception thrown when command arguments are invalid or missing. Does not fill in its stack trace, as any other
+ * {@link CommandParseException} caused by user input.
  */
 @Getter
 public class InvalidCommandArgumentsException extends CommandParseException {
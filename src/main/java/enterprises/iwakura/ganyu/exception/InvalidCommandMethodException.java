@@ -17,7 +17,7 @@ public class InvalidCommandMethodException extends CommandParseException {
     protected final Class<?>[] requiredParameters;
 
     public InvalidCommandMethodException(GanyuCommand command, Method method, Class<?>... requiredParameters) {
-        super(String.format("Method %s in command %s has invalid parameters, expected: %s", method, command, Arrays.toString(requiredParameters)));
+        super(String.format("Method %s in command %s has invalid parameters, expected: %s", method, command, Arrays.toString(requiredParameters)), true);
         this.command = command;
         this.method = method;
         this.requiredParameters = requiredParameters;
@@ -18,7 +18,8 @@ public class MultipleDefaultCommandMethodsException extends CommandParseExceptio
 
     public MultipleDefaultCommandMethodsException(GanyuCommand command, List<Method> methods) {
         super(String.format("There is more than one method annotated with %s annotation in command class %s: %s",
-                DefaultCommand.class.getSimpleName(), command.getClass().getName(), methods)
+                DefaultCommand.class.getSimpleName(), command.getClass().getName(), methods),
+            true
         );
         this.command = command;
         this.methods = methods;
@@ -0,0 +1,384 @@
+package enterprises.iwakura.ganyu.impl;
+
+import enterprises.iwakura.ganyu.CommandInvocationContext;
+import enterprises.iwakura.ganyu.Output;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An implementation of {@link Output} that decorates another {@link Output} and writes to it asynchronously.
+ * <p>
+ *     Messages are enqueued into a bounded ring buffer and drained in batches by a dedicated writer thread, thus slow
+ *     terminals or pipes do not stall command execution. Each message is passed to the decorated output by its own
+ *     call, whereas the decorated output is flushed once per batch rather than once per message. When the buffer is
+ *     full, {@link OverflowPolicy} decides what happens to new messages. Invocation
+ *     contexts and invocation lifecycle calls, such as {@link Output#invocationStarted(CommandInvocationContext)}, are
+ *     passed to the decorated output in order.
+ * </p>
+ * Call {@link #flush()} or {@link #close()} before exiting the application, as the writer thread is a daemon thread.
+ * Exceptions thrown by the decorated output are passed to {@link #getExceptionHandler()}, or to the uncaught exception
+ * handler of the writer thread if none is set. Should the writer thread die nevertheless, e.g. as the exception handler
+ * threw, the output is closed and messages enqueued afterward are dropped.
+ */
+public class AsyncOutput implements Output, AutoCloseable {
+
+    /**
+     * Policy applied to new messages when the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Blocks the calling thread until there is room in the buffer.
+         */
+        BLOCK,
+        /**
+         * Drops new info messages, error messages and invocation lifecycle calls block the calling thread as with
+         * {@link #BLOCK}.
+         */
+        DROP_INFO,
+        /**
+         * Drops the oldest buffered info message to make room for the new one. If no info message is buffered, new info
+         * messages are dropped, error messages and invocation lifecycle calls block the calling thread as with
+         * {@link #BLOCK}.
+         */
+        DROP_OLDEST
+    }
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final byte INFO = 0;
+    private static final byte ERROR = 1;
+    private static final byte INVOCATION_STARTED = 2;
+    private static final byte INVOCATION_FINISHED = 3;
+
+    @Getter
+    private final Output delegate;
+    @Getter
+    private final OverflowPolicy overflowPolicy;
+    // Handles exceptions thrown by the decorated output, null to use the writer thread's uncaught exception handler
+    @Getter
+    @Setter
+    private volatile Thread.UncaughtExceptionHandler exceptionHandler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition processedCondition = lock.newCondition();
+
+    // Ring buffer of pending messages
+    private final byte[] kinds;
+    private final CommandInvocationContext[] contexts;
+    private final String[] messages;
+    private final Throwable[] throwables;
+    private int head;
+    private int size;
+
+    // Batch copied out of the ring buffer, owned by the writer thread
+    private final byte[] batchKinds;
+    private final CommandInvocationContext[] batchContexts;
+    private final String[] batchMessages;
+    private final Throwable[] batchThrowables;
+
+    private long enqueued;
+    private long processed;
+    private long dropped;
+    private boolean closed;
+
+    private final Thread writerThread;
+
+    /**
+     * Creates an AsyncOutput with {@link #DEFAULT_CAPACITY} and {@link OverflowPolicy#BLOCK}.
+     *
+     * @param delegate The output to write to.
+     */
+    public AsyncOutput(Output delegate) {
+        this(delegate, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Creates an AsyncOutput.
+     *
+     * @param delegate       The output to write to.
+     * @param capacity       The maximum number of buffered messages.
+     * @param overflowPolicy The policy applied to new messages when the buffer is full.
+     */
+    public AsyncOutput(Output delegate, int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive!");
+        }
+
+        this.delegate = delegate;
+        this.overflowPolicy = overflowPolicy;
+        this.kinds = new byte[capacity];
+        this.contexts = new CommandInvocationContext[capacity];
+        this.messages = new String[capacity];
+        this.throwables = new Throwable[capacity];
+        this.batchKinds = new byte[capacity];
+        this.batchContexts = new CommandInvocationContext[capacity];
+        this.batchMessages = new String[capacity];
+        this.batchThrowables = new Throwable[capacity];
+
+        this.writerThread = new Thread(this::drain, "Ganyu-Async-Output");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void info(String message) {
+        enqueue(INFO, null, message, null);
+    }
+
+    @Override
+    public void error(String message, Throwable throwable) {
+        enqueue(ERROR, null, message, throwable);
+    }
+
+    @Override
+    public void info(CommandInvocationContext ctx, String message) {
+        enqueue(INFO, ctx, message, null);
+    }
+
+    @Override
+    public void error(CommandInvocationContext ctx, String message, Throwable throwable) {
+        enqueue(ERROR, ctx, message, throwable);
+    }
+
+    @Override
+    public void invocationStarted(CommandInvocationContext ctx) {
+        enqueue(INVOCATION_STARTED, ctx, null, null);
+    }
+
+    @Override
+    public void invocationFinished(CommandInvocationContext ctx) {
+        enqueue(INVOCATION_FINISHED, ctx, null, null);
+    }
+
+    /**
+     * Blocks until all messages enqueued before this call are written to the decorated output.
+     */
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            final long target = enqueued;
+
+            while (processed < target && writerThread.isAlive()) {
+                processedCondition.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the remaining messages and stops the writer thread. Messages enqueued afterward are dropped.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        flush();
+    }
+
+    /**
+     * Returns the number of messages dropped due to {@link OverflowPolicy} or due to being enqueued after
+     * {@link #close()}.
+     *
+     * @return The number of dropped messages.
+     */
+    public long getDroppedMessages() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(byte kind, CommandInvocationContext ctx, String message, Throwable throwable) {
+        lock.lock();
+        try {
+            while (size == messages.length && !closed) {
+                if (overflowPolicy == OverflowPolicy.DROP_OLDEST && removeOldestInfo()) {
+                    processed++;
+                    dropped++;
+                } else if (overflowPolicy != OverflowPolicy.BLOCK && kind == INFO) {
+                    dropped++;
+                    return;
+                } else {
+                    notFull.awaitUninterruptibly();
+                }
+            }
+
+            if (closed) {
+                dropped++;
+                return;
+            }
+
+            final int tail = (head + size) % messages.length;
+            kinds[tail] = kind;
+            contexts[tail] = ctx;
+            messages[tail] = message;
+            throwables[tail] = throwable;
+            size++;
+            enqueued++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest buffered info message, keeping the order of the other messages.
+     *
+     * @return Whether an info message was buffered.
+     */
+    private boolean removeOldestInfo() {
+        for (int i = 0; i < size; i++) {
+            if (kinds[(head + i) % messages.length] != INFO) {
+                continue;
+            }
+
+            // Shifts the messages buffered before it by one
+            for (int j = i; j > 0; j--) {
+                final int to = (head + j) % messages.length;
+                final int from = (head + j - 1) % messages.length;
+                kinds[to] = kinds[from];
+                contexts[to] = contexts[from];
+                messages[to] = messages[from];
+                throwables[to] = throwables[from];
+            }
+
+            contexts[head] = null;
+            messages[head] = null;
+            throwables[head] = null;
+            head = (head + 1) % messages.length;
+            size--;
+            return true;
+        }
+
+        return false;
+    }
+
+    private void drain() {
+        try {
+            drainBatches();
+        } finally {
+            // Unblocks callers waiting for room, nothing will drain the buffer anymore
+            lock.lock();
+            try {
+                closed = true;
+                notFull.signalAll();
+                processedCondition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void drainBatches() {
+        while (true) {
+            final int count;
+
+            lock.lock();
+            try {
+                while (size == 0) {
+                    if (closed) {
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+
+                count = size;
+
+                for (int i = 0; i < count; i++) {
+                    final int index = (head + i) % messages.length;
+                    batchKinds[i] = kinds[index];
+                    batchContexts[i] = contexts[index];
+                    batchMessages[i] = messages[index];
+                    batchThrowables[i] = throwables[index];
+                    contexts[index] = null;
+                    messages[index] = null;
+                    throwables[index] = null;
+                }
+
+                head = (head + count) % messages.length;
+                size = 0;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            write(count);
+
+            lock.lock();
+            try {
+                processed += count;
+                processedCondition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void write(int count) {
+        for (int i = 0; i < count; i++) {
+            final byte kind = batchKinds[i];
+            final CommandInvocationContext ctx = batchContexts[i];
+            final String message = batchMessages[i];
+            final Throwable throwable = batchThrowables[i];
+            batchContexts[i] = null;
+            batchMessages[i] = null;
+            batchThrowables[i] = null;
+
+            try {
+                switch (kind) {
+                    case INFO:
+                        if (ctx != null) {
+                            delegate.info(ctx, message);
+                        } else {
+                            delegate.info(message);
+                        }
+                        break;
+                    case ERROR:
+                        if (ctx != null) {
+                            delegate.error(ctx, message, throwable);
+                        } else {
+                            delegate.error(message, throwable);
+                        }
+                        break;
+                    case INVOCATION_STARTED:
+                        delegate.invocationStarted(ctx);
+                        break;
+                    default:
+                        delegate.invocationFinished(ctx);
+                }
+            } catch (Throwable exception) {
+                handleException(exception);
+            }
+        }
+
+        try {
+            delegate.flush();
+        } catch (Throwable exception) {
+            handleException(exception);
+        }
+    }
+
+    private void handleException(Throwable exception) {
+        final Thread.UncaughtExceptionHandler handler = exceptionHandler;
+        (handler != null ? handler : writerThread.getUncaughtExceptionHandler()).uncaughtException(writerThread, exception);
+    }
+}
@@ -0,0 +1,144 @@
+package enterprises.iwakura.ganyu.impl;
+
+import enterprises.iwakura.ganyu.PayloadInput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * An implementation of {@link PayloadInput} that reads lines from a {@link ReadableByteChannel}, e.g. a socket or
+ * standard input piped from a file. The charset must encode line feeds as a single byte, as UTF-8 does.
+ * <p>
+ *     Once a line referencing the payload ({@value PayloadInput#PAYLOAD_REFERENCE}) is read, the remaining bytes of the
+ *     channel are handed over to the command by {@link #openPayload()} and no more lines are read.
+ * </p>
+ */
+public class ChannelInput implements PayloadInput {
+
+    protected final ReadableByteChannel channel;
+    protected final Charset charset;
+    protected final ByteBuffer buffer;
+
+    private Predicate<String> payloadReferenceFilter = PayloadInput::hasPayloadReference;
+    private boolean payloadReferenced;
+    private boolean payloadOpened;
+
+    public ChannelInput(ReadableByteChannel channel) {
+        this(channel, StandardCharsets.UTF_8);
+    }
+
+    public ChannelInput(ReadableByteChannel channel, Charset charset) {
+        this.channel = channel;
+        this.charset = charset;
+        this.buffer = ByteBuffer.allocate(8192);
+        this.buffer.flip();
+    }
+
+    @Override
+    public synchronized String readNextInput() {
+        if (payloadReferenced) {
+            throw new NoSuchElementException("The remaining input is the payload of the previous command");
+        }
+
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        while (true) {
+            while (buffer.hasRemaining()) {
+                final byte character = buffer.get();
+
+                if (character == '\n') {
+                    return finishLine(line);
+                }
+
+                line.write(character);
+            }
+
+            if (fillBuffer() < 0) {
+                if (line.size() == 0) {
+                    throw new NoSuchElementException("End of input");
+                }
+
+                return finishLine(line);
+            }
+        }
+    }
+
+    @Override
+    public synchronized ReadableByteChannel openPayload() {
+        if (!payloadReferenced) {
+            throw new IllegalStateException("No payload was referenced by the last read line");
+        } else if (payloadOpened) {
+            throw new IllegalStateException("Payload was already opened");
+        }
+
+        payloadOpened = true;
+        return new PayloadChannel();
+    }
+
+    @Override
+    public synchronized void setPayloadReferenceFilter(Predicate<String> filter) {
+        this.payloadReferenceFilter = filter;
+    }
+
+    private String finishLine(ByteArrayOutputStream line) {
+        String string = new String(line.toByteArray(), charset);
+
+        if (string.endsWith("\r")) {
+            string = string.substring(0, string.length() - 1);
+        }
+
+        payloadReferenced = payloadReferenceFilter.test(string);
+        return string;
+    }
+
+    private int fillBuffer() {
+        buffer.clear();
+
+        try {
+            return channel.read(buffer);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to read input channel", exception);
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    /**
+     * Channel reading the bytes left in the buffer, followed by the rest of the underlying channel.
+     */
+    private class PayloadChannel implements ReadableByteChannel {
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            synchronized (ChannelInput.this) {
+                if (!buffer.hasRemaining()) {
+                    return channel.read(destination);
+                }
+
+                final int length = Math.min(buffer.remaining(), destination.remaining());
+                final ByteBuffer slice = buffer.slice();
+                slice.limit(length);
+                destination.put(slice);
+                buffer.position(buffer.position() + length);
+                return length;
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -4,17 +4,24 @@ import enterprises.iwakura.ganyu.CommandArgumentDefinition;
 import enterprises.iwakura.ganyu.CommandInvocationContext;
 import enterprises.iwakura.ganyu.InjectableArgumentResolver;
 import enterprises.iwakura.ganyu.annotation.InjectableArgument;
+import enterprises.iwakura.ganyu.annotation.Piped;
 
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 /**
  * An implementation of {@link InjectableArgumentResolver} that allows registering
- * resolver functions for classes annotated with {@link InjectableArgument}.
+ * resolver functions for classes annotated with {@link InjectableArgument}. Parameters annotated with {@link Piped}
+ * are resolved to the output of the previous pipeline stage.
  */
 public class ClassInjectableArgumentResolver implements InjectableArgumentResolver {
 
-    protected Map<Class<?>, BiFunction<CommandArgumentDefinition, CommandInvocationContext, Object>> resolvers;
+    protected Map<Class<?>, BiFunction<CommandArgumentDefinition, CommandInvocationContext, Object>> resolvers = new ConcurrentHashMap<>();
 
     @Override
     public <T> void register(Class<T> clazz, BiFunction<CommandArgumentDefinition, CommandInvocationContext, T> resolverFunction) {
@@ -28,10 +35,35 @@ public class ClassInjectableArgumentResolver implements InjectableArgumentResolv
 
     @Override
     public Object resolve(CommandArgumentDefinition commandArgumentDefinition, CommandInvocationContext ctx) {
+        if (commandArgumentDefinition.isPiped()) {
+            return resolvePiped(commandArgumentDefinition, ctx);
+        }
+
         if (commandArgumentDefinition.getType() == CommandInvocationContext.class) {
             return ctx; // Directly return the context if the type is CommandInvocationContext
         }
 
-        return resolvers.getOrDefault(commandArgumentDefinition.getType(), (def, ctx2) -> null);
+        final BiFunction<CommandArgumentDefinition, CommandInvocationContext, Object> resolver = resolvers.get(commandArgumentDefinition.getType());
+        return resolver != null ? resolver.apply(commandArgumentDefinition, ctx) : null;
+    }
+
+    /**
+     * Resolves a {@link Piped} parameter to an {@link Iterator} or a {@link Reader} of the previous stage's output.
+     *
+     * @param commandArgumentDefinition the definition of the piped argument
+     * @param ctx                       the command invocation context
+     *
+     * @return the piped input, empty if the invocation is not a pipeline stage, or null if the type is not supported
+     */
+    protected Object resolvePiped(CommandArgumentDefinition commandArgumentDefinition, CommandInvocationContext ctx) {
+        final Pipe pipe = ctx.getPipedInput();
+
+        if (commandArgumentDefinition.getType() == Iterator.class) {
+            return pipe != null ? pipe.iterator() : Collections.emptyIterator();
+        } else if (commandArgumentDefinition.getType() == Reader.class) {
+            return pipe != null ? pipe.reader() : new StringReader("");
+        }
+
+        return null;
     }
 }
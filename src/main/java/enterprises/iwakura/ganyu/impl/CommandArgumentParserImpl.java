@@ -6,7 +6,9 @@ import enterprises.iwakura.ganyu.exception.InvalidCommandArgumentsException;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Default implementation of {@link CommandArgumentParser}.
@@ -34,6 +36,19 @@ public class CommandArgumentParserImpl implements CommandArgumentParser {
                 continue;
             }
 
+            // Handle multi-valued arguments, the last one consumes all remaining input
+            if (argumentDefinition.isMultiValued() && argumentIndex < args.length) {
+                if (lastArgumentDefinition == argumentDefinition) {
+                    final String remainingArgs = unprocessedArgsWithoutDoubleSpaces.substring(getArgumentOffset(args, argumentIndex));
+                    ctx.addArgumentValue(argumentDefinition, parseMultiValuedArgument(ctx, argumentDefinition, remainingArgs));
+                    argumentIndex = args.length; // Move index to the end
+                } else {
+                    ctx.addArgumentValue(argumentDefinition, parseMultiValuedArgument(ctx, argumentDefinition, args[argumentIndex]));
+                    argumentIndex++;
+                }
+                continue;
+            }
+
             // Handle greedy arguments
             if (lastArgumentDefinition == argumentDefinition && argumentDefinition.isGreedy() && args.length > 0) {
                 final StringBuilder greedyArgs = new StringBuilder();
@@ -72,6 +87,9 @@ public class CommandArgumentParserImpl implements CommandArgumentParser {
         // Parse the raw input into a list of tokens
         List<String> tokens = tokenizeArguments(rawArgs);
 
+        // Values of repeated multi-valued flags, e.g. "-id 1 -id 2,3"
+        final Map<CommandArgumentDefinition, StringBuilder> multiValues = new LinkedHashMap<>();
+
         int i = 0;
         while (i < tokens.size()) {
             final String token = tokens.get(i);
@@ -110,9 +128,18 @@ public class CommandArgumentParserImpl implements CommandArgumentParser {
                 }
             }
 
+            if (argDef.isMultiValued()) {
+                multiValues.computeIfAbsent(argDef, def -> new StringBuilder()).append(value).append(',');
+                continue;
+            }
+
             ctx.addArgumentValue(argDef, parseSingleArgument(ctx, argDef, value));
         }
 
+        for (Map.Entry<CommandArgumentDefinition, StringBuilder> entry : multiValues.entrySet()) {
+            ctx.addArgumentValue(entry.getKey(), parseMultiValuedArgument(ctx, entry.getKey(), entry.getValue().toString()));
+        }
+
         // Handle injectable arguments
         for (CommandArgumentDefinition argumentDefinition : argumentDefinitions) {
             if (argumentDefinition.isInjectable()) {
@@ -123,6 +150,14 @@ public class CommandArgumentParserImpl implements CommandArgumentParser {
         return ctx;
     }
 
+    protected static int getArgumentOffset(String[] args, int argumentIndex) {
+        int offset = 0;
+        for (int i = 0; i < argumentIndex; i++) {
+            offset += args[i].length() + 1;
+        }
+        return offset;
+    }
+
     protected static CommandArgumentDefinition getCommandArgumentDefinition(String token, List<CommandArgumentDefinition> argumentDefinitions) {
         final boolean isLongFlag = token.startsWith("--");
         final String flagName = isLongFlag ? token.substring(2) : token.substring(1);
@@ -0,0 +1,162 @@
+package enterprises.iwakura.ganyu.impl;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Utility class to split command lines into the commands they are composed of, such as the elements of a chain
+ * (<code>build ; test &amp;&amp; deploy</code>) or the stages of a pipeline (<code>list | grep foo</code>). Chains bind
+ * looser than pipelines, i.e. elements of a chain may be pipelines.
+ * <p>
+ *     Separators inside double quotes are not split on, quotes are kept in the split commands, thus the arguments are
+ *     parsed as if each command was entered alone. As with arguments, quotes preceded by a backslash are not
+ *     considered.
+ * </p>
+ */
+@UtilityClass
+public class CommandLines {
+
+    public static final char PIPE = '|';
+    public static final char SEQUENCE = ';';
+    public static final char AND = '&';
+
+    /**
+     * Splits the command line into the elements of a chain, separated by <code>;</code> (always run) and
+     * <code>&amp;&amp;</code> (run if the previous element succeeded). A single <code>&amp;</code> is not a separator.
+     *
+     * @param commandLine The command line.
+     *
+     * @return The elements with trimmed command lines, a single element holding the whole command line if it is not
+     * a chain. Elements may be empty, e.g. for <code>build ;</code>.
+     */
+    public static List<ChainedCommand> splitChain(String commandLine) {
+        if (commandLine.indexOf(SEQUENCE) < 0 && commandLine.indexOf(AND) < 0) {
+            return Collections.singletonList(new ChainedCommand(commandLine, false));
+        }
+
+        final List<ChainedCommand> chain = new ArrayList<>();
+        boolean inQuotes = false;
+        boolean conditional = false;
+        int start = 0;
+
+        for (int i = 0; i < commandLine.length(); i++) {
+            final char c = commandLine.charAt(i);
+
+            if (c == '"' && (i == 0 || commandLine.charAt(i - 1) != '\\')) {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes && (c == SEQUENCE || (c == AND && i + 1 < commandLine.length() && commandLine.charAt(i + 1) == AND))) {
+                chain.add(new ChainedCommand(commandLine.substring(start, i).trim(), conditional));
+                conditional = c == AND;
+
+                if (conditional) {
+                    i++;
+                }
+
+                start = i + 1;
+            }
+        }
+
+        if (chain.isEmpty()) {
+            return Collections.singletonList(new ChainedCommand(commandLine, false));
+        }
+
+        chain.add(new ChainedCommand(commandLine.substring(start).trim(), conditional));
+        return chain;
+    }
+
+    /**
+     * Splits the command line into the stages of a pipeline.
+     *
+     * @param commandLine The command line.
+     *
+     * @return The trimmed stages, a single stage holding the whole command line if it is not a pipeline. Stages may
+     * be empty, e.g. for <code>list |</code>.
+     */
+    public static List<String> splitPipeline(String commandLine) {
+        if (commandLine.indexOf(PIPE) < 0) {
+            return Collections.singletonList(commandLine);
+        }
+
+        final List<String> stages = new ArrayList<>();
+        boolean inQuotes = false;
+        int start = 0;
+
+        for (int i = 0; i < commandLine.length(); i++) {
+            final char c = commandLine.charAt(i);
+
+            if (c == '"' && (i == 0 || commandLine.charAt(i - 1) != '\\')) {
+                inQuotes = !inQuotes;
+            } else if (c == PIPE && !inQuotes) {
+                stages.add(commandLine.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+
+        stages.add(commandLine.substring(start).trim());
+        return stages;
+    }
+
+    /**
+     * Whether the command line holds a single command, i.e. neither a chain nor a pipeline.
+     *
+     * @param commandLine The command line.
+     *
+     * @return true if the command line holds a single command, false otherwise
+     */
+    public static boolean isSingleCommand(String commandLine) {
+        return splitChain(commandLine).size() == 1 && splitPipeline(commandLine).size() == 1;
+    }
+
+    /**
+     * Splits arguments into whitespace separated tokens. Whitespace inside double quotes does not separate tokens, the
+     * quotes are removed.
+     *
+     * @param arguments The arguments.
+     *
+     * @return The tokens.
+     */
+    public static List<String> tokenize(String arguments) {
+        final List<String> tokens = new ArrayList<>();
+        final StringBuilder token = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < arguments.length(); i++) {
+            final char c = arguments.charAt(i);
+
+            if (c == '"' && (i == 0 || arguments.charAt(i - 1) != '\\')) {
+                inQuotes = !inQuotes;
+            } else if (Character.isWhitespace(c) && !inQuotes) {
+                if (token.length() > 0) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                }
+            } else {
+                token.append(c);
+            }
+        }
+
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+
+        return tokens;
+    }
+
+    /**
+     * An element of a chain of commands, see {@link #splitChain(String)}.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class ChainedCommand {
+
+        // Command or pipeline, along with the arguments
+        private final String commandLine;
+        // Whether joined to the previous element by &&, i.e. run only if it succeeded
+        private final boolean conditional;
+    }
+}
@@ -9,12 +9,9 @@ import lombok.NonNull;
 import lombok.SneakyThrows;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Default implementation of {@link CommandRegisterProcessor}.
@@ -127,20 +124,127 @@ public class CommandRegisterProcessorImpl implements CommandRegisterProcessor {
             readNamedArg(parameter, argumentDefinition);
             argumentDefinition.setParameterName(parameter.getName());
             argumentDefinition.setDescription(readValue(parameter, Description.class).orElse(null));
-            argumentDefinition.setInjectable(parameter.isAnnotationPresent(InjectableArgument.class) || parameter.getType().isAnnotationPresent(InjectableArgument.class));
+            argumentDefinition.setPiped(parameter.isAnnotationPresent(Piped.class));
+            argumentDefinition.setInjectable(argumentDefinition.isPiped() || parameter.isAnnotationPresent(InjectableArgument.class) || parameter.getType().isAnnotationPresent(InjectableArgument.class));
             argumentDefinition.setMandatory(!parameter.isAnnotationPresent(OptionalArg.class));
             argumentDefinition.setType(parameter.getType());
+
+            final Type lazyValueType = resolveLazyValueType(parameter);
+
+            if (lazyValueType != null) {
+                argumentDefinition.setLazyValueType(toClass(lazyValueType));
+                argumentDefinition.setElementType(resolveElementType(toClass(lazyValueType), lazyValueType));
+            } else {
+                argumentDefinition.setElementType(resolveElementType(parameter.getType(), parameter.getParameterizedType()));
+            }
+
             argumentDefinition.setIndex(i);
 
             registeredCommand.addArgumentDefinition(argumentDefinition);
         }
 
+        readSerialization(registeredCommand, method);
+
+        final RunOn runOn = method.isAnnotationPresent(RunOn.class) ? method.getAnnotation(RunOn.class) : registeredCommand.getGanyuCommand().getClass().getAnnotation(RunOn.class);
+        registeredCommand.setExecutorName(runOn != null ? runOn.value() : null);
+
+        final Priority priority = method.isAnnotationPresent(Priority.class) ? method.getAnnotation(Priority.class) : registeredCommand.getGanyuCommand().getClass().getAnnotation(Priority.class);
+        registeredCommand.setPriority(priority != null ? priority.value() : CommandPriority.NORMAL);
+
+        final RateLimit rateLimit = method.getAnnotation(RateLimit.class);
+        if (rateLimit != null) {
+            if (rateLimit.permits() <= 0 || rateLimit.per() <= 0) {
+                throw new IllegalArgumentException("Method " + method + " has a rate limit with non-positive permits or period");
+            }
+            registeredCommand.setRateLimiter(new RateLimiter(rateLimit.permits(), rateLimit.unit().toNanos(rateLimit.per()), rateLimit.policy(), rateLimit.perSource()));
+        }
+
+        final Cacheable cacheable = method.getAnnotation(Cacheable.class);
+        if (cacheable != null) {
+            if (cacheable.ttl() <= 0 || cacheable.maxEntries() <= 0) {
+                throw new IllegalArgumentException("Method " + method + " is cacheable with non-positive time to live or maximum number of entries");
+            }
+            if (registeredCommand.getArgumentDefinitions().stream().anyMatch(CommandArgumentDefinition::isPiped)) {
+                throw new IllegalArgumentException("Method " + method + " is cacheable but has a piped argument");
+            }
+            if (StreamingResults.isStreamingResultType(method.getReturnType())) {
+                throw new IllegalArgumentException("Method " + method + " is cacheable but returns a streaming result");
+            }
+            registeredCommand.setCacheTtlNanos(cacheable.unit().toNanos(cacheable.ttl()));
+            registeredCommand.setCacheMaxEntries(cacheable.maxEntries());
+        }
+
         // Generate syntax based on arguments if no syntax was provided
         if (registeredCommand.getSyntax() == null) {
             registeredCommand.setSyntax(syntaxGenerator.generate(registeredCommand));
         }
     }
 
+    /**
+     * Resolves the type of the value parsed lazily for {@link Lazy} and {@link Supplier} parameters. Handles without
+     * a resolvable type argument hold strings.
+     *
+     * @param parameter the parameter
+     *
+     * @return the generic type of the value, or null if the parameter is not lazy
+     */
+    protected Type resolveLazyValueType(Parameter parameter) {
+        if (parameter.getType() != Lazy.class && parameter.getType() != Supplier.class) {
+            return null;
+        }
+
+        final Type typeArgument = resolveTypeArgument(parameter.getParameterizedType());
+        return typeArgument != null ? typeArgument : String.class;
+    }
+
+    /**
+     * Resolves the element type of multi-valued types, which are arrays, {@link List}, {@link Set} and
+     * {@link Collection}. Collections without a resolvable type argument hold strings.
+     *
+     * @param type        the type
+     * @param genericType the generic type
+     *
+     * @return the element type, or null if the type is not multi-valued
+     */
+    protected Class<?> resolveElementType(Class<?> type, Type genericType) {
+        if (type.isArray()) {
+            return type.getComponentType();
+        }
+
+        if (type != List.class && type != Set.class && type != Collection.class) {
+            return null;
+        }
+
+        final Class<?> elementType = toClass(resolveTypeArgument(genericType));
+        return elementType != null ? elementType : String.class;
+    }
+
+    private static Type resolveTypeArgument(Type genericType) {
+        if (!(genericType instanceof ParameterizedType)) {
+            return null;
+        }
+
+        Type typeArgument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+
+        if (typeArgument instanceof WildcardType) {
+            typeArgument = ((WildcardType) typeArgument).getUpperBounds()[0];
+        }
+
+        return toClass(typeArgument) != null ? typeArgument : null;
+    }
+
+    private static Class<?> toClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        } else if (type instanceof GenericArrayType) {
+            final Class<?> componentType = toClass(((GenericArrayType) type).getGenericComponentType());
+            return componentType != null ? Array.newInstance(componentType, 0).getClass() : null;
+        }
+        return null;
+    }
+
     protected Optional<Command> readCommandAnnotation(GanyuCommand command) {
         return Optional.ofNullable(command.getClass().getAnnotation(Command.class));
     }
@@ -163,6 +267,39 @@ public class CommandRegisterProcessorImpl implements CommandRegisterProcessor {
                 .filter(value -> !value.isEmpty());
     }
 
+    /**
+     * Reads the {@link SerializeOn} annotation of the method, or of its command class, and resolves the argument
+     * forming the serialization key.
+     *
+     * @param registeredCommand the registered command with its argument definitions
+     * @param method            the command method
+     *
+     * @throws IllegalArgumentException if the annotation names an argument the method does not have
+     */
+    protected void readSerialization(RegisteredCommand registeredCommand, Method method) {
+        final Class<?> commandClass = registeredCommand.getGanyuCommand().getClass();
+        final SerializeOn serializeOn = method.isAnnotationPresent(SerializeOn.class) ? method.getAnnotation(SerializeOn.class) : commandClass.getAnnotation(SerializeOn.class);
+
+        if (serializeOn == null) {
+            return;
+        }
+
+        registeredCommand.setSerializationGroup(serializeOn.group().isEmpty() ? commandClass.getName() : serializeOn.group());
+
+        if (serializeOn.value().isEmpty()) {
+            return;
+        }
+
+        final String argumentName = serializeOn.value().replaceFirst("^-{1,2}", "");
+        final CommandArgumentDefinition serializationArgument = registeredCommand.getArgumentDefinitions().stream()
+            .filter(argumentDefinition -> !argumentDefinition.isInjectable())
+            .filter(argumentDefinition -> argumentName.equals(argumentDefinition.getName()) || argumentName.equals(argumentDefinition.getLongName()))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Method " + method + " is serialized on unknown argument: " + serializeOn.value()));
+
+        registeredCommand.setSerializationArgument(serializationArgument);
+    }
+
     private void readNamedArg(Parameter parameter, CommandArgumentDefinition argumentDefinition) {
         Optional.ofNullable(parameter.getAnnotation(NamedArg.class))
                 .ifPresent(namedArg -> {
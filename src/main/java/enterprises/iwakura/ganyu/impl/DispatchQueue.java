@@ -0,0 +1,268 @@
+package enterprises.iwakura.ganyu.impl;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Queue of tasks from multiple sources, such as the inputs attached to a Ganyu instance, which are handed to an
+ * {@link Executor} with fair round-robin scheduling.
+ * <p>
+ *     Tasks of each source are kept in their own FIFO queue. Workers take one task from each source with pending tasks
+ *     in turn, thus a source submitting many tasks cannot starve the others. At most {@link #getMaxRunning()} workers
+ *     run at once; once they are busy, further tasks wait in the queue. With an executor running tasks on the calling
+ *     thread, the submitting thread becomes a worker and runs queued tasks of all sources until the queue is empty.
+ * </p>
+ * <p>
+ *     Priority tasks, see {@link #submitPriority(Runnable)}, jump the queue: workers take them before the tasks of any
+ *     source. With a reserved executor, a priority task does not have to wait for a worker to become free, a reserved
+ *     worker is started on the reserved executor unless one is already running.
+ * </p>
+ * Exceptions thrown by tasks are passed to {@link #getExceptionHandler()}, or to the uncaught exception handler of the
+ * worker thread if none is set, and the worker continues with the next task.
+ */
+public class DispatchQueue {
+
+    @Getter
+    private final Executor executor;
+    @Getter
+    private final int maxRunning;
+    // Runs the reserved worker taking only priority tasks, null if there is none
+    @Getter
+    private final Executor reservedExecutor;
+    // Handles exceptions thrown by tasks, null to use the worker thread's uncaught exception handler
+    @Getter
+    @Setter
+    private volatile Thread.UncaughtExceptionHandler exceptionHandler;
+
+    private final Map<Object, ArrayDeque<Runnable>> queues = new HashMap<>();
+    // Sources with pending tasks, in round-robin order
+    private final ArrayDeque<Object> readySources = new ArrayDeque<>();
+    private final ArrayDeque<Runnable> priorityTasks = new ArrayDeque<>();
+    private int running;
+    private boolean reservedRunning;
+
+    /**
+     * Creates a DispatchQueue, which does not limit the number of running workers.
+     *
+     * @param executor The executor to run the workers on.
+     */
+    public DispatchQueue(Executor executor) {
+        this(executor, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a DispatchQueue.
+     *
+     * @param executor   The executor to run the workers on.
+     * @param maxRunning The maximum number of workers running at once.
+     */
+    public DispatchQueue(Executor executor, int maxRunning) {
+        this(executor, maxRunning, null);
+    }
+
+    /**
+     * Creates a DispatchQueue with a reserved executor for priority tasks.
+     *
+     * @param executor         The executor to run the workers on.
+     * @param maxRunning       The maximum number of workers running at once, not counting the reserved worker.
+     * @param reservedExecutor The executor to run the reserved worker on, e.g. a single thread executor, may be null.
+     */
+    public DispatchQueue(Executor executor, int maxRunning, Executor reservedExecutor) {
+        if (maxRunning <= 0) {
+            throw new IllegalArgumentException("Maximum number of running workers must be positive!");
+        }
+
+        this.executor = executor;
+        this.maxRunning = maxRunning;
+        this.reservedExecutor = reservedExecutor;
+    }
+
+    /**
+     * Submits a task of the source. If the executor rejects the worker started for the task, the task is removed from
+     * the queue before the exception is rethrown, thus a rejected task never runs.
+     *
+     * @param source The source of the task, compared by {@link Object#equals(Object)}.
+     * @param task   The task.
+     * @throws java.util.concurrent.RejectedExecutionException if the executor rejects the worker.
+     */
+    public void submit(Object source, Runnable task) {
+        synchronized (this) {
+            final ArrayDeque<Runnable> queue = queues.computeIfAbsent(source, ignored -> new ArrayDeque<>());
+
+            if (queue.isEmpty()) {
+                readySources.add(source);
+            }
+
+            queue.add(task);
+
+            if (running >= maxRunning) {
+                return;
+            }
+
+            running++;
+        }
+
+        try {
+            startWorker();
+        } catch (RuntimeException exception) {
+            if (removeQueued(source, task)) {
+                throw exception;
+            }
+            // A running worker took the task already
+        }
+    }
+
+    /**
+     * Submits a priority task, which is run before the queued tasks of all sources. Rejected tasks are removed as by
+     * {@link #submit(Object, Runnable)}.
+     *
+     * @param task The task.
+     * @throws java.util.concurrent.RejectedExecutionException if the executor rejects the worker.
+     */
+    public void submitPriority(Runnable task) {
+        final boolean reserved;
+
+        synchronized (this) {
+            priorityTasks.add(task);
+
+            if (reservedExecutor != null && !reservedRunning) {
+                reservedRunning = true;
+                reserved = true;
+            } else if (running < maxRunning) {
+                running++;
+                reserved = false;
+            } else {
+                return;
+            }
+        }
+
+        try {
+            if (reserved) {
+                startReservedWorker();
+            } else {
+                startWorker();
+            }
+        } catch (RuntimeException exception) {
+            synchronized (this) {
+                if (!priorityTasks.removeLastOccurrence(task)) {
+                    // A running worker took the task already
+                    return;
+                }
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Returns the number of tasks waiting to be run.
+     *
+     * @return The number of queued tasks.
+     */
+    public synchronized int getQueuedTasks() {
+        return priorityTasks.size() + queues.values().stream().mapToInt(ArrayDeque::size).sum();
+    }
+
+    private void startWorker() {
+        try {
+            executor.execute(this::work);
+        } catch (RuntimeException exception) {
+            synchronized (this) {
+                running--;
+            }
+            throw exception;
+        }
+    }
+
+    private void startReservedWorker() {
+        try {
+            reservedExecutor.execute(this::workReserved);
+        } catch (RuntimeException exception) {
+            synchronized (this) {
+                reservedRunning = false;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Removes the queued task of the source, unless a worker took it already.
+     *
+     * @return true if the task was removed, false otherwise.
+     */
+    private synchronized boolean removeQueued(Object source, Runnable task) {
+        final ArrayDeque<Runnable> queue = queues.get(source);
+
+        if (queue == null || !queue.removeLastOccurrence(task)) {
+            return false;
+        }
+
+        if (queue.isEmpty()) {
+            queues.remove(source);
+            readySources.remove(source);
+        }
+
+        return true;
+    }
+
+    private void work() {
+        while (true) {
+            Runnable task;
+
+            synchronized (this) {
+                task = priorityTasks.poll();
+
+                if (task == null) {
+                    final Object source = readySources.poll();
+
+                    if (source == null) {
+                        running--;
+                        return;
+                    }
+
+                    final ArrayDeque<Runnable> queue = queues.get(source);
+                    task = queue.poll();
+
+                    if (queue.isEmpty()) {
+                        queues.remove(source);
+                    } else {
+                        readySources.add(source);
+                    }
+                }
+            }
+
+            run(task);
+        }
+    }
+
+    private void workReserved() {
+        while (true) {
+            final Runnable task;
+
+            synchronized (this) {
+                task = priorityTasks.poll();
+
+                if (task == null) {
+                    reservedRunning = false;
+                    return;
+                }
+            }
+
+            run(task);
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException exception) {
+            final Thread thread = Thread.currentThread();
+            final Thread.UncaughtExceptionHandler handler = exceptionHandler;
+            (handler != null ? handler : thread.getUncaughtExceptionHandler()).uncaughtException(thread, exception);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package enterprises.iwakura.ganyu.impl;
+
+import enterprises.iwakura.ganyu.Ganyu;
+import enterprises.iwakura.ganyu.GanyuCommand;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point for AppCDS training runs, used by the <code>cdsClassList</code> and <code>cdsBenchmark</code> Gradle
+ * tasks.
+ * <p>
+ *     Arguments are fully qualified class names of {@link GanyuCommand} implementations with a no-args constructor,
+ *     which will be registered before {@link Ganyu#trainingRun(String...)} is called. Arguments prefixed with
+ *     <code>:</code> are treated as warm-up inputs instead, e.g. <code>":status --verbose"</code>.
+ * </p>
+ * Once the training run finishes, the time since the JVM start is printed.
+ */
+public class GanyuTrainingRun {
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        Ganyu ganyu = Ganyu.standard(new WritableInput(), new ReadableOutput());
+        List<String> warmUpInputs = new ArrayList<>();
+
+        for (String argument : args) {
+            if (argument.startsWith(":")) {
+                warmUpInputs.add(argument.substring(1));
+            } else {
+                ganyu.registerCommands((GanyuCommand) Class.forName(argument).getDeclaredConstructor().newInstance());
+            }
+        }
+
+        ganyu.trainingRun(warmUpInputs.toArray(new String[0]));
+
+        System.out.println("Training run completed " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms after JVM start");
+    }
+}
@@ -0,0 +1,148 @@
+package enterprises.iwakura.ganyu.impl;
+
+import enterprises.iwakura.ganyu.CommandInvocationContext;
+import enterprises.iwakura.ganyu.Output;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An implementation of {@link Output} scoped to a single command invocation, see
+ * {@link CommandInvocationContext#getOutput()}.
+ * <p>
+ *     Messages are buffered and written to the parent output at once when the invocation completes, thus the output of
+ *     concurrently running commands does not interleave. The parent output is locked (synchronized on) while the
+ *     buffered messages are written. Once the buffered messages exceed the buffer limit, they are written and the
+ *     following messages stream through to the parent output directly.
+ * </p>
+ */
+public class InvocationOutput implements Output {
+
+    @Getter
+    private final Output parent;
+    @Getter
+    private final int bufferLimit;
+    @Getter
+    private final CommandInvocationContext context;
+
+    private final List<String> messages = new ArrayList<>();
+    private final List<Throwable> throwables = new ArrayList<>();
+    private final List<Boolean> errors = new ArrayList<>();
+    private int bufferedLength;
+    private boolean streaming;
+
+    /**
+     * Creates a new InvocationOutput.
+     *
+     * @param parent      The output to write to.
+     * @param bufferLimit The maximum number of buffered characters before streaming through. Zero or less disables
+     *                    buffering.
+     */
+    public InvocationOutput(Output parent, int bufferLimit) {
+        this(parent, bufferLimit, null);
+    }
+
+    /**
+     * Creates a new InvocationOutput, which writes the messages to the parent output along with the command
+     * invocation context, see {@link Output#info(CommandInvocationContext, String)}.
+     *
+     * @param parent      The output to write to.
+     * @param bufferLimit The maximum number of buffered characters before streaming through. Zero or less disables
+     *                    buffering.
+     * @param context     The command invocation context, may be null.
+     */
+    public InvocationOutput(Output parent, int bufferLimit, CommandInvocationContext context) {
+        this.parent = parent;
+        this.bufferLimit = bufferLimit;
+        this.context = context;
+        this.streaming = bufferLimit <= 0;
+    }
+
+    @Override
+    public void info(String message) {
+        write(message, null, false);
+    }
+
+    @Override
+    public void error(String message, Throwable throwable) {
+        write(message, throwable, true);
+    }
+
+    /**
+     * Writes the buffered messages to the parent output and flushes it.
+     */
+    @Override
+    public synchronized void flush() {
+        writeBuffered();
+        parent.flush();
+    }
+
+    /**
+     * Writes the buffered messages to the parent output and streams the following messages through, as the invocation
+     * has completed.
+     */
+    public synchronized void complete() {
+        flush();
+        streaming = true;
+    }
+
+    /**
+     * Whether the messages are streamed through to the parent output instead of being buffered.
+     *
+     * @return true if streaming, false otherwise
+     */
+    public synchronized boolean isStreaming() {
+        return streaming;
+    }
+
+    private synchronized void write(String message, Throwable throwable, boolean error) {
+        if (!streaming) {
+            messages.add(message);
+            throwables.add(throwable);
+            errors.add(error);
+            bufferedLength += message != null ? message.length() : 0;
+
+            if (bufferedLength > bufferLimit) {
+                writeBuffered();
+                streaming = true;
+            }
+            return;
+        }
+
+        synchronized (parent) {
+            writeToParent(message, throwable, error);
+        }
+    }
+
+    private void writeBuffered() {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        synchronized (parent) {
+            for (int i = 0; i < messages.size(); i++) {
+                writeToParent(messages.get(i), throwables.get(i), errors.get(i));
+            }
+        }
+
+        messages.clear();
+        throwables.clear();
+        errors.clear();
+        bufferedLength = 0;
+    }
+
+    private void writeToParent(String message, Throwable throwable, boolean error) {
+        if (context == null) {
+            if (error) {
+                parent.error(message, throwable);
+            } else {
+                parent.info(message);
+            }
+        } else if (error) {
+            parent.error(context, message, throwable);
+        } else {
+            parent.info(context, message);
+        }
+    }
+}
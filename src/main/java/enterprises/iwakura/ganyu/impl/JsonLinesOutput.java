@@ -0,0 +1,258 @@
+package enterprises.iwakura.ganyu.impl;
+
+import enterprises.iwakura.ganyu.CommandInvocationContext;
+import enterprises.iwakura.ganyu.CommandResult;
+import enterprises.iwakura.ganyu.Output;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * An implementation of {@link Output} that writes structured JSON Lines records for machine consumers, one JSON object
+ * per line. No JSON library is needed.
+ * <p>
+ *     Records of command invocations hold the <code>invocation</code> id, the <code>phase</code> and the
+ *     <code>command</code> name:
+ * </p>
+ * <ul>
+ *     <li><code>started</code> records hold the <code>arguments</code> and the <code>time</code> in epoch milliseconds</li>
+ *     <li><code>info</code> and <code>error</code> records hold the <code>message</code>, error records also the
+ *     <code>exception</code>, if any</li>
+ *     <li><code>finished</code> records hold <code>success</code>, the <code>error</code> message, the
+ *     <code>payload</code> of {@link CommandResult} and the <code>durationMicros</code></li>
+ * </ul>
+ * Messages written outside of command invocations produce <code>info</code> and <code>error</code> records without
+ * the invocation id and command name. Payloads are written as JSON values: maps as objects, iterables and arrays as
+ * arrays, numbers and booleans as is and anything else as strings. Records are flushed once an invocation finishes
+ * and by {@link #flush()}.
+ */
+public class JsonLinesOutput implements Output {
+
+    private static final int MAX_PAYLOAD_DEPTH = 32;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    protected final Writer writer;
+
+    // Reused for every record, guarded by this
+    private final StringBuilder record = new StringBuilder(256);
+
+    /**
+     * Creates a JsonLinesOutput writing UTF-8 encoded records to the output stream.
+     *
+     * @param outputStream The output stream.
+     */
+    public JsonLinesOutput(OutputStream outputStream) {
+        this(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Creates a JsonLinesOutput writing records to the writer.
+     *
+     * @param writer The writer.
+     */
+    public JsonLinesOutput(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void info(String message) {
+        info(null, message);
+    }
+
+    @Override
+    public void error(String message, Throwable throwable) {
+        error(null, message, throwable);
+    }
+
+    @Override
+    public synchronized void info(CommandInvocationContext ctx, String message) {
+        beginRecord(ctx, "info");
+        appendStringField("message", message);
+        endRecord(false);
+    }
+
+    @Override
+    public synchronized void error(CommandInvocationContext ctx, String message, Throwable throwable) {
+        beginRecord(ctx, "error");
+        appendStringField("message", message);
+
+        if (throwable != null) {
+            appendStringField("exception", throwable.toString());
+        }
+
+        endRecord(false);
+    }
+
+    @Override
+    public synchronized void invocationStarted(CommandInvocationContext ctx) {
+        beginRecord(ctx, "started");
+        appendStringField("arguments", ctx.getUnprocessedArguments());
+        record.append(",\"time\":").append(ctx.getStartedAtMillis());
+        endRecord(false);
+    }
+
+    @Override
+    public synchronized void invocationFinished(CommandInvocationContext ctx) {
+        final CommandResult result = ctx.getCommandResult();
+
+        beginRecord(ctx, "finished");
+
+        if (result != null) {
+            record.append(",\"success\":").append(result.isSuccess());
+            appendStringField("error", result.getErrorMessage());
+            record.append(",\"payload\":");
+            appendValue(result.getPayload(), 0);
+        } else {
+            record.append(",\"success\":false");
+            appendStringField("error", ctx.getCommandException() != null ? ctx.getCommandException().toString() : null);
+        }
+
+        record.append(",\"durationMicros\":").append(ctx.getElapsedNanos() / 1000);
+        endRecord(true);
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            writer.flush();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to flush JSON Lines output", exception);
+        }
+    }
+
+    private void beginRecord(CommandInvocationContext ctx, String phase) {
+        record.setLength(0);
+        record.append('{');
+
+        if (ctx != null) {
+            record.append("\"invocation\":").append(ctx.getInvocationId()).append(',');
+        }
+
+        record.append("\"phase\":\"").append(phase).append('"');
+
+        if (ctx != null) {
+            appendStringField("command", ctx.getRegisteredCommand().getFullyQualifiedName());
+        }
+    }
+
+    private void endRecord(boolean flush) {
+        record.append("}\n");
+
+        try {
+            writer.append(record);
+
+            if (flush) {
+                writer.flush();
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to write JSON Lines output", exception);
+        }
+    }
+
+    private void appendStringField(String name, String value) {
+        record.append(",\"").append(name).append("\":");
+        appendString(value);
+    }
+
+    private void appendValue(Object value, int depth) {
+        if (value == null) {
+            record.append("null");
+        } else if (depth >= MAX_PAYLOAD_DEPTH) {
+            appendString("...");
+        } else if (value instanceof Boolean) {
+            record.append(((Boolean) value).booleanValue());
+        } else if (value instanceof Number && isFinite((Number) value)) {
+            record.append(value);
+        } else if (value instanceof Map) {
+            record.append('{');
+            boolean first = true;
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    record.append(',');
+                }
+                first = false;
+                appendString(String.valueOf(entry.getKey()));
+                record.append(':');
+                appendValue(entry.getValue(), depth + 1);
+            }
+
+            record.append('}');
+        } else if (value instanceof Iterable) {
+            record.append('[');
+            boolean first = true;
+
+            for (Object element : (Iterable<?>) value) {
+                if (!first) {
+                    record.append(',');
+                }
+                first = false;
+                appendValue(element, depth + 1);
+            }
+
+            record.append(']');
+        } else if (value.getClass().isArray()) {
+            record.append('[');
+
+            for (int i = 0; i < Array.getLength(value); i++) {
+                if (i > 0) {
+                    record.append(',');
+                }
+                appendValue(Array.get(value, i), depth + 1);
+            }
+
+            record.append(']');
+        } else {
+            appendString(String.valueOf(value));
+        }
+    }
+
+    private void appendString(String value) {
+        if (value == null) {
+            record.append("null");
+            return;
+        }
+
+        record.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            final char character = value.charAt(i);
+
+            switch (character) {
+                case '"':
+                    record.append("\\\"");
+                    break;
+                case '\\':
+                    record.append("\\\\");
+                    break;
+                case '\n':
+                    record.append("\\n");
+                    break;
+                case '\r':
+                    record.append("\\r");
+                    break;
+                case '\t':
+                    record.append("\\t");
+                    break;
+                default:
+                    if (character < 0x20) {
+                        record.append("\\u00").append(HEX_DIGITS[character >> 4]).append(HEX_DIGITS[character & 0xF]);
+                    } else {
+                        record.append(character);
+                    }
+            }
+        }
+
+        record.append('"');
+    }
+
+    private static boolean isFinite(Number number) {
+        if (number instanceof Double || number instanceof Float) {
+            final double value = number.doubleValue();
+            return !Double.isNaN(value) && !Double.isInfinite(value);
+        }
+        return true;
+    }
+}
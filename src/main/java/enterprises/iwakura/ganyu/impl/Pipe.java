@@ -0,0 +1,265 @@
+package enterprises.iwakura.ganyu.impl;
+
+import enterprises.iwakura.ganyu.CommandInvocationContext;
+import enterprises.iwakura.ganyu.Output;
+import enterprises.iwakura.ganyu.annotation.Piped;
+import lombok.Getter;
+
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded buffer of lines between two stages of a pipeline, serving as the {@link Output} of the writing stage and
+ * the {@link Piped} input of the reading stage.
+ * <p>
+ *     Info messages are split into lines and buffered, the writing stage blocks while the buffer is full. Errors and
+ *     invocation lifecycle calls are not piped, they are passed to the sink output, i.e. the output of the whole
+ *     pipeline. Once the writing stage completes, {@link #close()} ends the input of the reading stage. Once the
+ *     reading stage completes, {@link #closeReader()} discards the lines written afterward, so that the writing stage
+ *     does not block forever.
+ * </p>
+ */
+public class Pipe implements Output, AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    @Getter
+    private final Output sink;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // Ring buffer of buffered lines
+    private final String[] lines;
+    private int head;
+    private int size;
+
+    private boolean closed;
+    private boolean readerClosed;
+
+    /**
+     * Creates a Pipe with {@link #DEFAULT_CAPACITY}.
+     *
+     * @param sink The output to write errors and invocation lifecycle calls to.
+     */
+    public Pipe(Output sink) {
+        this(sink, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a Pipe.
+     *
+     * @param sink     The output to write errors and invocation lifecycle calls to.
+     * @param capacity The maximum number of buffered lines.
+     */
+    public Pipe(Output sink, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive!");
+        }
+
+        this.sink = sink;
+        this.lines = new String[capacity];
+    }
+
+    @Override
+    public void info(String message) {
+        if (message == null) {
+            return;
+        }
+
+        int start = 0;
+
+        for (int i = 0; i <= message.length(); i++) {
+            if (i == message.length() || message.charAt(i) == '\n') {
+                final int end = i > start && message.charAt(i - 1) == '\r' ? i - 1 : i;
+
+                // A trailing line separator does not start another line
+                if (i < message.length() || start < message.length() || start == 0) {
+                    write(message.substring(start, end));
+                }
+
+                start = i + 1;
+            }
+        }
+    }
+
+    @Override
+    public void error(String message, Throwable throwable) {
+        sink.error(message, throwable);
+    }
+
+    @Override
+    public void error(CommandInvocationContext ctx, String message, Throwable throwable) {
+        sink.error(ctx, message, throwable);
+    }
+
+    @Override
+    public void invocationStarted(CommandInvocationContext ctx) {
+        sink.invocationStarted(ctx);
+    }
+
+    @Override
+    public void invocationFinished(CommandInvocationContext ctx) {
+        sink.invocationFinished(ctx);
+    }
+
+    /**
+     * Ends the input of the reading stage once the buffered lines are read.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discards the buffered lines and the lines written afterward, as the reading stage does not read anymore.
+     */
+    public void closeReader() {
+        lock.lock();
+        try {
+            readerClosed = true;
+
+            for (int i = 0; i < size; i++) {
+                lines[(head + i) % lines.length] = null;
+            }
+
+            size = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over the piped lines. {@link Iterator#hasNext()} blocks until a line is written or the pipe
+     * is closed.
+     *
+     * @return The iterator.
+     */
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private String next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = take();
+                }
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                final String line = next;
+                next = null;
+                return line;
+            }
+        };
+    }
+
+    /**
+     * Returns a reader of the piped lines, each line terminated by <code>\n</code>. Closing the reader closes the
+     * reading side of the pipe, see {@link #closeReader()}.
+     *
+     * @return The reader.
+     */
+    public Reader reader() {
+        return new Reader() {
+            private String line;
+            private int position;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                if (length == 0) {
+                    return 0;
+                }
+
+                if (line == null || position > line.length()) {
+                    line = take();
+                    position = 0;
+
+                    if (line == null) {
+                        return -1;
+                    }
+                }
+
+                int count = 0;
+
+                while (count < length && position < line.length()) {
+                    buffer[offset + count++] = line.charAt(position++);
+                }
+
+                if (count < length && position == line.length()) {
+                    buffer[offset + count++] = '\n';
+                    position++;
+                }
+
+                return count;
+            }
+
+            @Override
+            public void close() {
+                closeReader();
+            }
+        };
+    }
+
+    /**
+     * Blocks until a line is available and takes it.
+     *
+     * @return The line, or null if the pipe was closed and all lines were read.
+     */
+    private String take() {
+        lock.lock();
+        try {
+            while (size == 0) {
+                if (closed || readerClosed) {
+                    return null;
+                }
+                notEmpty.awaitUninterruptibly();
+            }
+
+            final String line = lines[head];
+            lines[head] = null;
+            head = (head + 1) % lines.length;
+            size--;
+            notFull.signal();
+            return line;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(String line) {
+        lock.lock();
+        try {
+            while (size == lines.length && !readerClosed) {
+                notFull.awaitUninterruptibly();
+            }
+
+            if (readerClosed) {
+                return;
+            }
+
+            lines[(head + size) % lines.length] = line;
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -26,4 +26,10 @@ public class PrintStreamOutput implements Output {
             throwable.printStackTrace(errorStream);
         }
     }
+
+    @Override
+    public void flush() {
+        infoStream.flush();
+        errorStream.flush();
+    }
 }
@@ -0,0 +1,47 @@
+package enterprises.iwakura.ganyu.impl;
+
+import enterprises.iwakura.ganyu.CommandInvocationContext;
+import enterprises.iwakura.ganyu.CommandResult;
+import lombok.experimental.UtilityClass;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Utility class to drain <code>java.util.concurrent.Flow.Publisher</code> command results, see
+ * {@link StreamingResults}.
+ * <p>
+ *     Flow is only available on Java 9 and newer, thus this class is replaced by its Java 9 version in the
+ *     multi-release JAR. On Java 8, there are no publishers to drain.
+ * </p>
+ */
+@UtilityClass
+public class PublisherResults {
+
+    /**
+     * Number of elements requested from the publisher at once.
+     */
+    public static final int REQUEST_BATCH_SIZE = 64;
+
+    /**
+     * Checks whether the type is a publisher drained by {@link #drain(CommandInvocationContext, Object)}.
+     *
+     * @param type The type, e.g. the return type of a command method.
+     *
+     * @return true if the type is a publisher, false otherwise.
+     */
+    public static boolean isPublisherType(Class<?> type) {
+        return false;
+    }
+
+    /**
+     * Subscribes to the command return value if it is a publisher and drains it to the invocation output.
+     *
+     * @param ctx         The command invocation context.
+     * @param returnValue The value returned by the command method.
+     *
+     * @return Future completed once the publisher completes, or null if the return value is not a publisher.
+     */
+    public static CompletableFuture<CommandResult> drain(CommandInvocationContext ctx, Object returnValue) {
+        return null;
+    }
+}
@@ -0,0 +1,88 @@
+package enterprises.iwakura.ganyu.impl;
+
+import enterprises.iwakura.ganyu.AsyncInput;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * An implementation of {@link AsyncInput} that is fed by pushing lines, e.g. from an event loop, without a thread
+ * waiting for them.
+ * <p>
+ *     A line pushed while Ganyu waits for input is handed over on the pushing thread, thus with an executor running
+ *     tasks on the calling thread, the command is executed by {@link #push(String)}. Lines pushed in the meantime are
+ *     queued.
+ * </p>
+ */
+public class PushInput implements AsyncInput {
+
+    private final Queue<String> lines = new ArrayDeque<>();
+    private CompletableFuture<String> pendingRead;
+    private boolean closed;
+
+    @Override
+    public CompletionStage<String> readNextInputAsync() {
+        synchronized (this) {
+            if (!lines.isEmpty()) {
+                return CompletableFuture.completedFuture(lines.poll());
+            }
+
+            if (!closed) {
+                if (pendingRead == null) {
+                    pendingRead = new CompletableFuture<>();
+                }
+                return pendingRead;
+            }
+        }
+
+        final CompletableFuture<String> endOfInput = new CompletableFuture<>();
+        endOfInput.completeExceptionally(new NoSuchElementException("Input was closed"));
+        return endOfInput;
+    }
+
+    /**
+     * Pushes a line of input.
+     *
+     * @param line The line.
+     * @throws IllegalStateException if the input was closed.
+     */
+    public void push(String line) {
+        final CompletableFuture<String> read;
+
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Input was closed!");
+            }
+
+            if (pendingRead == null) {
+                lines.add(line);
+                return;
+            }
+
+            read = pendingRead;
+            pendingRead = null;
+        }
+
+        read.complete(line);
+    }
+
+    /**
+     * Ends the input once the queued lines are read. Lines cannot be pushed afterward.
+     */
+    public void close() {
+        final CompletableFuture<String> read;
+
+        synchronized (this) {
+            closed = true;
+            read = pendingRead;
+            pendingRead = null;
+        }
+
+        if (read != null) {
+            read.completeExceptionally(new NoSuchElementException("Input was closed"));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package enterprises.iwakura.ganyu.impl;
+
+import enterprises.iwakura.ganyu.annotation.RateLimit;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Enforces the {@link RateLimit} of a command with {@link TokenBucket}s, either a single bucket shared by all
+ * invocations or a bucket per source input. Counts the rejected and delayed invocations.
+ * <p>
+ *     Buckets of source inputs are created on their first invocation. Once there are {@link #SOURCE_PRUNE_THRESHOLD}
+ *     of them, full buckets are removed, as a full bucket behaves as a new one.
+ * </p>
+ */
+public class RateLimiter {
+
+    public static final int SOURCE_PRUNE_THRESHOLD = 1024;
+
+    @Getter
+    private final int permits;
+    @Getter
+    private final long periodNanos;
+    @Getter
+    private final RateLimit.Policy policy;
+    @Getter
+    private final boolean perSource;
+
+    // Bucket shared by all invocations, also used for invocations without a source input
+    private final TokenBucket bucket;
+    private final Map<Object, TokenBucket> sourceBuckets = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+
+    /**
+     * Creates a RateLimiter.
+     *
+     * @param permits     The number of invocations allowed per period.
+     * @param periodNanos The period in nanoseconds.
+     * @param policy      The policy applied to invocations exceeding the limit.
+     * @param perSource   Whether the limit applies to each source input separately.
+     */
+    public RateLimiter(int permits, long periodNanos, RateLimit.Policy policy, boolean perSource) {
+        this.permits = permits;
+        this.periodNanos = periodNanos;
+        this.policy = policy;
+        this.perSource = perSource;
+        this.bucket = new TokenBucket(permits, periodNanos);
+    }
+
+    /**
+     * Acquires a permit for an invocation. With {@link RateLimit.Policy#DELAY}, waits on the current thread until the
+     * permit is available. If the thread is interrupted while waiting, the invocation is rejected and the interrupt
+     * status is kept; the permit it reserved is not returned to the bucket.
+     *
+     * @param source The source input of the invocation, may be null.
+     * @return true if the invocation may run, false if it is rejected
+     */
+    public boolean acquire(Object source) {
+        final long delay = getBucket(source).acquire(policy == RateLimit.Policy.DELAY ? Long.MAX_VALUE : 0);
+
+        if (delay < 0) {
+            rejected.increment();
+            return false;
+        }
+
+        if (delay > 0) {
+            delayed.increment();
+            final long deadline = System.nanoTime() + delay;
+
+            for (long remaining = delay; remaining > 0; remaining = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(this, remaining);
+
+                if (Thread.currentThread().isInterrupted()) {
+                    // parkNanos returns right away while interrupted, thus waiting on would spin
+                    rejected.increment();
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the number of rejected invocations.
+     *
+     * @return The number of rejected invocations.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the number of delayed invocations.
+     *
+     * @return The number of delayed invocations.
+     */
+    public long getDelayedCount() {
+        return delayed.sum();
+    }
+
+    private TokenBucket getBucket(Object source) {
+        if (!perSource || source == null) {
+            return bucket;
+        }
+
+        final TokenBucket sourceBucket = sourceBuckets.get(source);
+
+        if (sourceBucket != null) {
+            return sourceBucket;
+        }
+
+        if (sourceBuckets.size() >= SOURCE_PRUNE_THRESHOLD) {
+            sourceBuckets.values().removeIf(TokenBucket::isFull);
+        }
+
+        return sourceBuckets.computeIfAbsent(source, ignored -> new TokenBucket(permits, periodNanos));
+    }
+}
@@ -0,0 +1,152 @@
+package enterprises.iwakura.ganyu.impl;
+
+import enterprises.iwakura.ganyu.CommandResult;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of command results, see {@link enterprises.iwakura.ganyu.annotation.Cacheable}. Results expire after the time
+ * to live, the least recently used result is evicted once there are more than {@link #getMaxEntries()} results.
+ * <p>
+ *     Invocations missing the cache become in-flight: further invocations with the same key wait for the result of the
+ *     in-flight invocation instead of invoking the command again, see {@link #lookup(Object, CompletableFuture)}.
+ * </p>
+ */
+public class ResultCache {
+
+    @Getter
+    private final long ttlNanos;
+    @Getter
+    private final int maxEntries;
+
+    private final Map<Object, CachedResult> entries;
+    private final Map<Object, CompletableFuture<CommandResult>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a ResultCache.
+     *
+     * @param ttlNanos   The time to live of results in nanoseconds.
+     * @param maxEntries The maximum number of cached results.
+     */
+    public ResultCache(long ttlNanos, int maxEntries) {
+        if (ttlNanos <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("Time to live and maximum number of entries must be positive!");
+        }
+
+        this.ttlNanos = ttlNanos;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Object, CachedResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, CachedResult> eldest) {
+                return size() > ResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Looks up the result of the key. On a miss, the future of the caller becomes in-flight, the caller must invoke the
+     * command and then call {@link #complete(Object, CompletableFuture, CommandResult)} before completing the future.
+     *
+     * @param key        The key, i.e. the argument values of the invocation.
+     * @param completion The future completed with the result of the caller's invocation.
+     * @return A completed future of the cached result, the future of the in-flight invocation with the same key, or
+     * null if the caller must invoke the command.
+     */
+    public CompletableFuture<CommandResult> lookup(Object key, CompletableFuture<CommandResult> completion) {
+        synchronized (entries) {
+            final CachedResult entry = entries.get(key);
+
+            if (entry != null) {
+                if (System.nanoTime() - entry.expiresAtNanos < 0) {
+                    hits.increment();
+                    return CompletableFuture.completedFuture(entry.result);
+                }
+
+                entries.remove(key);
+            }
+        }
+
+        final CompletableFuture<CommandResult> existing = inFlight.putIfAbsent(key, completion);
+
+        if (existing != null) {
+            hits.increment();
+            return existing;
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Ends the in-flight invocation of the key, caching its result if it succeeded.
+     *
+     * @param key        The key.
+     * @param completion The future passed to {@link #lookup(Object, CompletableFuture)}.
+     * @param result     The result of the invocation, null if it completed exceptionally.
+     */
+    public void complete(Object key, CompletableFuture<CommandResult> completion, CommandResult result) {
+        if (result != null && result.isSuccess()) {
+            synchronized (entries) {
+                entries.put(key, new CachedResult(result, System.nanoTime() + ttlNanos));
+            }
+        }
+
+        inFlight.remove(key, completion);
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns the number of cached results, including expired results that were not looked up since.
+     *
+     * @return The number of cached results.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the number of invocations served by a cached result or a coalesced in-flight invocation.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of invocations that invoked the command.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private static final class CachedResult {
+
+        private final CommandResult result;
+        private final long expiresAtNanos;
+
+        private CachedResult(CommandResult result, long expiresAtNanos) {
+            this.result = result;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package enterprises.iwakura.ganyu.impl;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks keyed by a serialization key on striped lanes, see
+ * {@link enterprises.iwakura.ganyu.annotation.SerializeOn}.
+ * <p>
+ *     Each key maps to one of a fixed number of lanes by its hash. Tasks of a lane run one after another in the order
+ *     they were submitted, a task is considered running until the stage it returns completes. Lanes are handed to the
+ *     {@link Executor} independently, thus tasks of different lanes run concurrently. Keys sharing a lane wait for
+ *     each other, more stripes make that less likely at the cost of a few bytes per stripe.
+ * </p>
+ * Tasks completing synchronously are run in a loop on the same thread, without handing each of them to the executor.
+ * Exceptions thrown by tasks are passed to {@link #getExceptionHandler()}, or to the uncaught exception handler of the
+ * running thread if none is set, and the lane continues with the next task.
+ */
+public class SerialLanes {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    @Getter
+    private final Executor executor;
+    private final Lane[] lanes;
+    // Handles exceptions thrown by tasks, null to use the running thread's uncaught exception handler
+    @Getter
+    @Setter
+    private volatile Thread.UncaughtExceptionHandler exceptionHandler;
+
+    /**
+     * Creates SerialLanes with {@link #DEFAULT_STRIPES} lanes.
+     *
+     * @param executor The executor to run the lanes on.
+     */
+    public SerialLanes(Executor executor) {
+        this(executor, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates SerialLanes.
+     *
+     * @param executor The executor to run the lanes on.
+     * @param stripes  The number of lanes.
+     */
+    public SerialLanes(Executor executor, int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Number of stripes must be positive!");
+        }
+
+        this.executor = executor;
+        this.lanes = new Lane[stripes];
+
+        for (int i = 0; i < stripes; i++) {
+            lanes[i] = new Lane();
+        }
+    }
+
+    /**
+     * Submits a task to the lane of the key. If the executor rejects the lane, the task is removed from it before the
+     * exception is rethrown, thus a rejected task never runs.
+     *
+     * @param key  The serialization key, compared by {@link Object#hashCode()}.
+     * @param task The task, returning a stage completed once the task completes, may return null.
+     * @throws java.util.concurrent.RejectedExecutionException if the executor rejects the lane.
+     */
+    public void submit(Object key, Supplier<? extends CompletionStage<?>> task) {
+        final int hash = key.hashCode();
+        final Lane lane = lanes[Math.floorMod(hash ^ (hash >>> 16), lanes.length)];
+
+        synchronized (lane) {
+            lane.tasks.add(task);
+
+            if (lane.running) {
+                return;
+            }
+
+            lane.running = true;
+        }
+
+        try {
+            execute(lane);
+        } catch (RuntimeException exception) {
+            synchronized (lane) {
+                lane.tasks.removeLastOccurrence(task);
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Returns the number of tasks waiting for their lane.
+     *
+     * @return The number of queued tasks.
+     */
+    public int getQueuedTasks() {
+        int queued = 0;
+
+        for (Lane lane : lanes) {
+            synchronized (lane) {
+                queued += lane.tasks.size();
+            }
+        }
+
+        return queued;
+    }
+
+    private void execute(Lane lane) {
+        try {
+            executor.execute(() -> drain(lane));
+        } catch (RuntimeException exception) {
+            synchronized (lane) {
+                // The queued tasks run once the next task of the lane is submitted
+                lane.running = false;
+            }
+            throw exception;
+        }
+    }
+
+    private void drain(Lane lane) {
+        while (true) {
+            final Supplier<? extends CompletionStage<?>> task;
+
+            synchronized (lane) {
+                task = lane.tasks.poll();
+
+                if (task == null) {
+                    lane.running = false;
+                    return;
+                }
+            }
+
+            CompletionStage<?> stage = null;
+
+            try {
+                stage = task.get();
+            } catch (RuntimeException exception) {
+                final Thread thread = Thread.currentThread();
+                final Thread.UncaughtExceptionHandler handler = exceptionHandler;
+                (handler != null ? handler : thread.getUncaughtExceptionHandler()).uncaughtException(thread, exception);
+            }
+
+            if (stage != null && !stage.toCompletableFuture().isDone()) {
+                // Continues once the task completes, keeping the lane busy meanwhile
+                stage.whenComplete((result, exception) -> execute(lane));
+                return;
+            }
+        }
+    }
+
+    private static final class Lane {
+
+        private final ArrayDeque<Supplier<? extends CompletionStage<?>>> tasks = new ArrayDeque<>();
+        private boolean running;
+    }
+}
@@ -0,0 +1,76 @@
+package enterprises.iwakura.ganyu.impl;
+
+import enterprises.iwakura.ganyu.CommandInvocationContext;
+import enterprises.iwakura.ganyu.CommandResult;
+import enterprises.iwakura.ganyu.Output;
+import lombok.experimental.UtilityClass;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Utility class to drain streaming command results to the invocation output, see
+ * {@link CommandInvocationContext#getOutput()}.
+ * <p>
+ *     Commands may return {@link Stream}, {@link Iterator} or, on Java 9 and newer, <code>Flow.Publisher</code>
+ *     (see {@link PublisherResults}). Elements are pulled one at a time and written by {@link Output#info(String)},
+ *     thus the next element is not produced until the output accepted the previous one. Streams are closed once
+ *     drained. Exceptions thrown while draining complete the command result exceptionally.
+ * </p>
+ */
+@UtilityClass
+public class StreamingResults {
+
+    /**
+     * Drains the command return value if it is a streaming result.
+     *
+     * @param ctx         The command invocation context.
+     * @param returnValue The value returned by the command method.
+     *
+     * @return Future completed once the result is drained, or null if the return value is not a streaming result.
+     */
+    public static CompletableFuture<CommandResult> drain(CommandInvocationContext ctx, Object returnValue) {
+        if (returnValue instanceof Stream) {
+            try (Stream<?> stream = (Stream<?>) returnValue) {
+                return drain(ctx.getOutput(), stream.iterator());
+            } catch (RuntimeException exception) {
+                return failed(exception);
+            }
+        } else if (returnValue instanceof Iterator) {
+            return drain(ctx.getOutput(), (Iterator<?>) returnValue);
+        }
+
+        return PublisherResults.drain(ctx, returnValue);
+    }
+
+    /**
+     * Checks whether methods returning the type return streaming results, i.e. the type is a {@link Stream}, an
+     * {@link Iterator} or a publisher.
+     *
+     * @param type The return type of the command method.
+     *
+     * @return true if the type is a streaming result type, false otherwise.
+     */
+    public static boolean isStreamingResultType(Class<?> type) {
+        return Stream.class.isAssignableFrom(type) || Iterator.class.isAssignableFrom(type) || PublisherResults.isPublisherType(type);
+    }
+
+    private static CompletableFuture<CommandResult> drain(Output output, Iterator<?> iterator) {
+        try {
+            while (iterator.hasNext()) {
+                output.info(String.valueOf(iterator.next()));
+            }
+        } catch (RuntimeException exception) {
+            return failed(exception);
+        }
+
+        return CompletableFuture.completedFuture(CommandResult.success());
+    }
+
+    private static CompletableFuture<CommandResult> failed(Throwable throwable) {
+        final CompletableFuture<CommandResult> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+}
@@ -0,0 +1,79 @@
+package enterprises.iwakura.ganyu.impl;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@link #getPermits()} permits, refilled at a rate of {@link #getPermits()} per
+ * {@link #getPeriodNanos()}.
+ * <p>
+ *     Rather than the number of tokens, the bucket keeps the theoretical arrival time of the next permit in a single
+ *     {@link AtomicLong}, which is advanced by compare-and-set. Thus acquiring a permit costs a few arithmetic operations
+ *     and no refill timer is needed.
+ * </p>
+ */
+public class TokenBucket {
+
+    @Getter
+    private final int permits;
+    @Getter
+    private final long periodNanos;
+
+    // Nanoseconds between two permits
+    private final long intervalNanos;
+    // How far the arrival time may run ahead of the clock, allowing a burst of all permits
+    private final long toleranceNanos;
+    private final AtomicLong arrivalTime;
+
+    /**
+     * Creates a full TokenBucket.
+     *
+     * @param permits     The maximum number of permits, i.e. the burst size.
+     * @param periodNanos The period in which all permits are refilled, in nanoseconds.
+     */
+    public TokenBucket(int permits, long periodNanos) {
+        if (permits <= 0 || periodNanos <= 0) {
+            throw new IllegalArgumentException("Permits and period must be positive!");
+        }
+
+        this.permits = permits;
+        this.periodNanos = periodNanos;
+        this.intervalNanos = Math.max(1, periodNanos / permits);
+        this.toleranceNanos = periodNanos - intervalNanos;
+        this.arrivalTime = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Acquires a permit, which becomes available within the maximum delay.
+     *
+     * @param maxDelayNanos The maximum delay the caller is willing to wait, 0 to acquire only an available permit.
+     * @return The delay in nanoseconds after which the acquired permit may be used, 0 if it is available right away,
+     * or -1 if no permit becomes available within the maximum delay, in which case none is acquired.
+     */
+    public long acquire(long maxDelayNanos) {
+        while (true) {
+            final long now = System.nanoTime();
+            final long current = arrivalTime.get();
+            final long start = current - now > 0 ? current : now;
+            final long delay = Math.max(0, start - now - toleranceNanos);
+
+            if (delay > maxDelayNanos) {
+                return -1;
+            }
+
+            if (arrivalTime.compareAndSet(current, start + intervalNanos)) {
+                return delay;
+            }
+        }
+    }
+
+    /**
+     * Whether the bucket is full, i.e. all acquired permits have been refilled.
+     *
+     * @return true if the bucket is full, false otherwise
+     */
+    public boolean isFull() {
+        return arrivalTime.get() - System.nanoTime() <= 0;
+    }
+}
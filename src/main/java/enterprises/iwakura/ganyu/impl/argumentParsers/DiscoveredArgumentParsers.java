@@ -0,0 +1,117 @@
+package enterprises.iwakura.ganyu.impl.argumentParsers;
+
+import enterprises.iwakura.ganyu.ArgumentParser;
+import enterprises.iwakura.ganyu.Ganyu;
+import enterprises.iwakura.ganyu.ParseResult;
+import enterprises.iwakura.ganyu.exception.CommandParseException;
+import lombok.experimental.UtilityClass;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.Optional;
+
+/**
+ * Utility class to discover argument parsers for types that do not have a parser registered in {@link Ganyu}.
+ * <p>
+ *     Enums of any visibility are parsed by {@link PrimitiveArgumentParsers.EnumArgumentParser}. Other public types
+ *     are parsed by their public static <code>valueOf</code>, <code>of</code> or <code>parse</code> method accepting
+ *     a single {@link String} or {@link CharSequence}, or by their public constructor accepting a single
+ *     {@link String}, in this order.
+ * </p>
+ * Discovery is done once per type and cached in a {@link ClassValue}, thus subsequent lookups do not allocate.
+ */
+@UtilityClass
+public class DiscoveredArgumentParsers {
+
+    private static final String[] FACTORY_METHOD_NAMES = {"valueOf", "of", "parse"};
+    private static final MethodType PARSER_METHOD_TYPE = MethodType.methodType(Object.class, String.class);
+
+    private static final ClassValue<Optional<ArgumentParser<?>>> DISCOVERED_PARSERS = new ClassValue<Optional<ArgumentParser<?>>>() {
+        @Override
+        protected Optional<ArgumentParser<?>> computeValue(Class<?> type) {
+            return Optional.ofNullable(discover(type));
+        }
+    };
+
+    /**
+     * Looks up the discovered argument parser for the specified type.
+     *
+     * @param type The type to look up the parser for.
+     * @return The discovered argument parser, or null if the type cannot be parsed from a string.
+     */
+    public static ArgumentParser<?> lookup(Class<?> type) {
+        return DISCOVERED_PARSERS.get(type).orElse(null);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ArgumentParser<?> discover(Class<?> type) {
+        // Enum constants are accessible regardless of the visibility of the enum
+        if (type.isEnum()) {
+            return new PrimitiveArgumentParsers.EnumArgumentParser(type);
+        }
+
+        if (type.isPrimitive() || type.isArray() || !Modifier.isPublic(type.getModifiers())) {
+            return null;
+        }
+
+        final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        for (String methodName : FACTORY_METHOD_NAMES) {
+            for (Class<?> parameterType : new Class<?>[] {String.class, CharSequence.class}) {
+                try {
+                    MethodHandle handle = lookup.findStatic(type, methodName, MethodType.methodType(type, parameterType));
+                    return new MethodHandleArgumentParser<>(type, handle);
+                } catch (NoSuchMethodException | IllegalAccessException ignored) {
+                    // Try next candidate
+                }
+            }
+        }
+
+        if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+            try {
+                MethodHandle handle = lookup.findConstructor(type, MethodType.methodType(void.class, String.class));
+                return new MethodHandleArgumentParser<>(type, handle);
+            } catch (NoSuchMethodException | IllegalAccessException ignored) {
+                // No suitable constructor
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Argument parser that invokes a factory method or constructor bound as a {@link MethodHandle}.
+     *
+     * @param <T> the type of the argument to be parsed
+     */
+    public static class MethodHandleArgumentParser<T> extends ArgumentParser<T> {
+
+        private final MethodHandle handle;
+
+        public MethodHandleArgumentParser(Class<T> type, MethodHandle handle) {
+            super(type);
+            this.handle = handle.asType(PARSER_METHOD_TYPE);
+        }
+
+        @Override
+        public T parse(String argument) throws CommandParseException {
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public ParseResult<T> tryParse(String argument) {
+            try {
+                return ParseResult.success((T) handle.invokeExact(argument));
+            } catch (CommandParseException exception) {
+                return ParseResult.error(exception.getMessage());
+            } catch (Error error) {
+                throw error;
+            } catch (Throwable throwable) {
+                return ParseResult.error(String.format("Invalid %s value: %s", getType().getSimpleName(), argument));
+            }
+        }
+    }
+}
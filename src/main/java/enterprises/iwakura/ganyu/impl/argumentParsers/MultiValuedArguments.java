@@ -0,0 +1,200 @@
+package enterprises.iwakura.ganyu.impl.argumentParsers;
+
+import enterprises.iwakura.ganyu.ArgumentParser;
+import enterprises.iwakura.ganyu.CommandArgumentDefinition;
+import enterprises.iwakura.ganyu.CommandInvocationContext;
+import enterprises.iwakura.ganyu.Ganyu;
+import enterprises.iwakura.ganyu.ParseResult;
+import enterprises.iwakura.ganyu.exception.CommandParseException;
+import lombok.experimental.UtilityClass;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Utility class to parse multi-valued arguments, see {@link CommandArgumentDefinition#isMultiValued()}.
+ * <p>
+ *     Values are separated by whitespace or commas, e.g. <code>1,2,3</code> or <code>1 2 3</code>. Each value is parsed
+ *     by the {@link ArgumentParser} of the element type. Values of <code>int[]</code> and <code>long[]</code> arguments
+ *     are parsed directly into the array, without boxing or creating a string per value.
+ * </p>
+ */
+@UtilityClass
+public class MultiValuedArguments {
+
+    /**
+     * Parses the multi-valued argument. Creates a {@link LinkedHashSet} for {@link Set} types, an array for array
+     * types and an {@link ArrayList} otherwise.
+     *
+     * @param ganyu              The Ganyu instance to look up argument parsers in.
+     * @param argumentDefinition The multi-valued argument definition.
+     * @param argument           The values to parse.
+     *
+     * @return The parsed collection or array.
+     * @throws CommandParseException if any of the values is invalid.
+     */
+    public static Object parse(Ganyu ganyu, CommandArgumentDefinition argumentDefinition, String argument) throws CommandParseException {
+        return parse(ganyu, null, argumentDefinition, argument);
+    }
+
+    /**
+     * Parses the multi-valued argument of a command invocation, see
+     * {@link #parse(Ganyu, CommandArgumentDefinition, String)}. Values are parsed by
+     * {@link ArgumentParser#tryParse(CommandInvocationContext, String)}, thus resources opened by the parsers, such as
+     * streams, are closed once the invocation completes.
+     *
+     * @param ctx                The command invocation context.
+     * @param argumentDefinition The multi-valued argument definition.
+     * @param argument           The values to parse.
+     *
+     * @return The parsed collection or array.
+     * @throws CommandParseException if any of the values is invalid.
+     */
+    public static Object parse(CommandInvocationContext ctx, CommandArgumentDefinition argumentDefinition, String argument) throws CommandParseException {
+        return parse(ctx.getGanyu(), ctx, argumentDefinition, argument);
+    }
+
+    private static Object parse(Ganyu ganyu, CommandInvocationContext ctx, CommandArgumentDefinition argumentDefinition, String argument) throws CommandParseException {
+        final Class<?> elementType = argumentDefinition.getElementType();
+
+        if (elementType == int.class) {
+            return parseIntArray(argument);
+        } else if (elementType == long.class) {
+            return parseLongArray(argument);
+        }
+
+        final ArgumentParser<?> parser = ganyu.getArgumentParser(PrimitiveArgumentParsers.wrap(elementType));
+        final Collection<Object> values = argumentDefinition.getParsedType() == Set.class ? new LinkedHashSet<>() : new ArrayList<>();
+        final int length = argument.length();
+        int index = skipSeparators(argument, 0);
+
+        while (index < length) {
+            final int end = nextSeparator(argument, index);
+            final String value = argument.substring(index, end);
+            final ParseResult<?> result = ctx != null ? parser.tryParse(ctx, value) : parser.tryParse(value);
+
+            if (!result.isSuccess()) {
+                throw new CommandParseException(result.getErrorMessage());
+            }
+
+            values.add(result.getValue());
+            index = skipSeparators(argument, end);
+        }
+
+        if (!argumentDefinition.getParsedType().isArray()) {
+            return values;
+        }
+
+        final Object array = Array.newInstance(elementType, values.size());
+        int arrayIndex = 0;
+
+        for (Object value : values) {
+            Array.set(array, arrayIndex++, value);
+        }
+
+        return array;
+    }
+
+    /**
+     * Parses whitespace or comma separated integers into an array.
+     *
+     * @param argument The values to parse.
+     *
+     * @return The parsed values.
+     * @throws CommandParseException if any of the values is not a valid integer.
+     */
+    public static int[] parseIntArray(CharSequence argument) throws CommandParseException {
+        final int[] values = new int[countValues(argument)];
+        final int length = argument.length();
+        int index = skipSeparators(argument, 0);
+        int valueIndex = 0;
+
+        while (index < length) {
+            final int end = nextSeparator(argument, index);
+
+            if (!PrimitiveArgumentParsers.isIntegral(argument, index, end, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+                throw new CommandParseException("Invalid integer value: " + argument.subSequence(index, end));
+            }
+
+            values[valueIndex++] = (int) parseValidatedIntegral(argument, index, end);
+            index = skipSeparators(argument, end);
+        }
+
+        return values;
+    }
+
+    /**
+     * Parses whitespace or comma separated longs into an array.
+     *
+     * @param argument The values to parse.
+     *
+     * @return The parsed values.
+     * @throws CommandParseException if any of the values is not a valid long.
+     */
+    public static long[] parseLongArray(CharSequence argument) throws CommandParseException {
+        final long[] values = new long[countValues(argument)];
+        final int length = argument.length();
+        int index = skipSeparators(argument, 0);
+        int valueIndex = 0;
+
+        while (index < length) {
+            final int end = nextSeparator(argument, index);
+
+            if (!PrimitiveArgumentParsers.isIntegral(argument, index, end, Long.MIN_VALUE, Long.MAX_VALUE)) {
+                throw new CommandParseException("Invalid long value: " + argument.subSequence(index, end));
+            }
+
+            values[valueIndex++] = parseValidatedIntegral(argument, index, end);
+            index = skipSeparators(argument, end);
+        }
+
+        return values;
+    }
+
+    private static long parseValidatedIntegral(CharSequence argument, int from, int to) {
+        final char first = argument.charAt(from);
+        final boolean negative = first == '-';
+        long result = 0;
+
+        for (int index = first == '-' || first == '+' ? from + 1 : from; index < to; index++) {
+            // Accumulates negatively, as the negative range is larger
+            result = result * 10 - (argument.charAt(index) - '0');
+        }
+
+        return negative ? result : -result;
+    }
+
+    private static int countValues(CharSequence argument) {
+        final int length = argument.length();
+        int count = 0;
+        int index = skipSeparators(argument, 0);
+
+        while (index < length) {
+            count++;
+            index = skipSeparators(argument, nextSeparator(argument, index));
+        }
+
+        return count;
+    }
+
+    private static int skipSeparators(CharSequence argument, int index) {
+        while (index < argument.length() && isSeparator(argument.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int nextSeparator(CharSequence argument, int index) {
+        while (index < argument.length() && !isSeparator(argument.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isSeparator(char character) {
+        return character == ',' || Character.isWhitespace(character);
+    }
+}
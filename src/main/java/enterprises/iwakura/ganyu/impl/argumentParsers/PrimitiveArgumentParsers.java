@@ -1,7 +1,9 @@
 package enterprises.iwakura.ganyu.impl.argumentParsers;
 
 import enterprises.iwakura.ganyu.ArgumentParser;
+import enterprises.iwakura.ganyu.CommandRegistry;
 import enterprises.iwakura.ganyu.Ganyu;
+import enterprises.iwakura.ganyu.ParseResult;
 import enterprises.iwakura.ganyu.exception.CommandParseException;
 import lombok.experimental.UtilityClass;
 
@@ -10,8 +12,14 @@ import java.math.BigInteger;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.text.ParsePosition;
 import java.time.*;
-import java.time.format.DateTimeParseException;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalQuery;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
 import java.util.UUID;
 
 /**
@@ -22,30 +30,69 @@ import java.util.UUID;
 @UtilityClass
 public class PrimitiveArgumentParsers {
 
+    private static final ParseResult<Boolean> TRUE = ParseResult.success(true);
+    private static final ParseResult<Boolean> FALSE = ParseResult.success(false);
+    // Maximum number of hexadecimal digits of each UUID group
+    private static final int[] UUID_GROUP_LENGTHS = {8, 4, 4, 4, 12};
+
     public static void register(Ganyu ganyu) {
-        ganyu.registerArgumentParser(new IntegerArgumentParser());
-        ganyu.registerArgumentParser(new DoubleArgumentParser());
-        ganyu.registerArgumentParser(new BooleanArgumentParser());
-        ganyu.registerArgumentParser(new StringArgumentParser());
-        ganyu.registerArgumentParser(new LongArgumentParser());
-        ganyu.registerArgumentParser(new UUIDArgumentParser());
-        ganyu.registerArgumentParser(new FloatArgumentParser());
-        ganyu.registerArgumentParser(new ShortArgumentParser());
-        ganyu.registerArgumentParser(new ByteArgumentParser());
-        ganyu.registerArgumentParser(new CharacterArgumentParser());
-        ganyu.registerArgumentParser(new LocalDateParser());
-        ganyu.registerArgumentParser(new LocalDateTimeParser());
-        ganyu.registerArgumentParser(new LocalTimeParser());
-        ganyu.registerArgumentParser(new InstantParser());
-        ganyu.registerArgumentParser(new OffsetDateTimeParser());
-        ganyu.registerArgumentParser(new ZoneIdParser());
-        ganyu.registerArgumentParser(new ZoneOffsetParser());
-        ganyu.registerArgumentParser(new DurationParser());
-        ganyu.registerArgumentParser(new PeriodParser());
-        ganyu.registerArgumentParser(new BigDecimalParser());
-        ganyu.registerArgumentParser(new BigIntegerParser());
-        ganyu.registerArgumentParser(new URLParser());
-        ganyu.registerArgumentParser(new URIParser());
+        register(ganyu.getCommandRegistry());
+    }
+
+    public static void register(CommandRegistry registry) {
+        registry.registerArgumentParser(new IntegerArgumentParser());
+        registry.registerArgumentParser(new DoubleArgumentParser());
+        registry.registerArgumentParser(new BooleanArgumentParser());
+        registry.registerArgumentParser(new StringArgumentParser());
+        registry.registerArgumentParser(new LongArgumentParser());
+        registry.registerArgumentParser(new UUIDArgumentParser());
+        registry.registerArgumentParser(new FloatArgumentParser());
+        registry.registerArgumentParser(new ShortArgumentParser());
+        registry.registerArgumentParser(new ByteArgumentParser());
+        registry.registerArgumentParser(new CharacterArgumentParser());
+        registry.registerArgumentParser(new LocalDateParser());
+        registry.registerArgumentParser(new LocalDateTimeParser());
+        registry.registerArgumentParser(new LocalTimeParser());
+        registry.registerArgumentParser(new InstantParser());
+        registry.registerArgumentParser(new OffsetDateTimeParser());
+        registry.registerArgumentParser(new ZoneIdParser());
+        registry.registerArgumentParser(new ZoneOffsetParser());
+        registry.registerArgumentParser(new DurationParser());
+        registry.registerArgumentParser(new PeriodParser());
+        registry.registerArgumentParser(new BigDecimalParser());
+        registry.registerArgumentParser(new BigIntegerParser());
+        registry.registerArgumentParser(new URLParser());
+        registry.registerArgumentParser(new URIParser());
+    }
+
+    /**
+     * Returns the wrapper class of the specified primitive type, or the type itself if it is not primitive.
+     *
+     * @param type The type.
+     *
+     * @return The wrapper class or the type itself.
+     */
+    public static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == char.class) {
+            return Character.class;
+        }
+        return type;
     }
 
     public static class IntegerArgumentParser extends ArgumentParser<Integer> {
@@ -56,7 +103,15 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public Integer parse(String argument) throws CommandParseException {
-            return Integer.valueOf(argument);
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<Integer> tryParse(String argument) {
+            if (!isIntegral(argument, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+                return ParseResult.error("Invalid integer value: " + argument);
+            }
+            return ParseResult.success(Integer.valueOf(argument));
         }
     }
 
@@ -68,7 +123,18 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public Double parse(String argument) throws CommandParseException {
-            return Double.valueOf(argument);
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<Double> tryParse(String argument) {
+            if (isDecimal(argument, true)) {
+                return ParseResult.success(Double.valueOf(argument));
+            }
+            if (isHexadecimalFloatingPoint(argument)) {
+                return ParseResult.success(Double.valueOf(argument));
+            }
+            return ParseResult.error("Invalid decimal value: " + argument);
         }
     }
 
@@ -80,12 +146,17 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public Boolean parse(String argument) throws CommandParseException {
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<Boolean> tryParse(String argument) {
             if ("true".equalsIgnoreCase(argument) || "1".equals(argument)) {
-                return true;
+                return TRUE;
             } else if ("false".equalsIgnoreCase(argument) || "0".equals(argument)) {
-                return false;
+                return FALSE;
             } else {
-                throw new CommandParseException("Invalid boolean value: " + argument);
+                return ParseResult.error("Invalid boolean value: " + argument);
             }
         }
     }
@@ -110,7 +181,15 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public Long parse(String argument) throws CommandParseException {
-            return Long.valueOf(argument);
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<Long> tryParse(String argument) {
+            if (!isIntegral(argument, Long.MIN_VALUE, Long.MAX_VALUE)) {
+                return ParseResult.error("Invalid long value: " + argument);
+            }
+            return ParseResult.success(Long.valueOf(argument));
         }
     }
 
@@ -122,11 +201,15 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public UUID parse(String argument) throws CommandParseException {
-            try {
-                return UUID.fromString(argument);
-            } catch (IllegalArgumentException e) {
-                throw new CommandParseException("Invalid UUID format: " + argument);
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<UUID> tryParse(String argument) {
+            if (!isUUID(argument)) {
+                return ParseResult.error("Invalid UUID format: " + argument);
             }
+            return ParseResult.success(UUID.fromString(argument));
         }
     }
 
@@ -138,7 +221,18 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public Float parse(String argument) throws CommandParseException {
-            return Float.valueOf(argument);
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<Float> tryParse(String argument) {
+            if (isDecimal(argument, true)) {
+                return ParseResult.success(Float.valueOf(argument));
+            }
+            if (isHexadecimalFloatingPoint(argument)) {
+                return ParseResult.success(Float.valueOf(argument));
+            }
+            return ParseResult.error("Invalid decimal value: " + argument);
         }
     }
 
@@ -150,7 +244,15 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public Short parse(String argument) throws CommandParseException {
-            return Short.valueOf(argument);
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<Short> tryParse(String argument) {
+            if (!isIntegral(argument, Short.MIN_VALUE, Short.MAX_VALUE)) {
+                return ParseResult.error("Invalid short value: " + argument);
+            }
+            return ParseResult.success(Short.valueOf(argument));
         }
     }
 
@@ -162,7 +264,15 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public Byte parse(String argument) throws CommandParseException {
-            return Byte.valueOf(argument);
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<Byte> tryParse(String argument) {
+            if (!isIntegral(argument, Byte.MIN_VALUE, Byte.MAX_VALUE)) {
+                return ParseResult.error("Invalid byte value: " + argument);
+            }
+            return ParseResult.success(Byte.valueOf(argument));
         }
     }
 
@@ -174,29 +284,61 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public Character parse(String argument) throws CommandParseException {
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<Character> tryParse(String argument) {
             if (argument.length() != 1) {
-                throw new CommandParseException("Invalid character value: " + argument);
+                return ParseResult.error("Invalid character value: " + argument);
             }
-            return argument.charAt(0);
+            return ParseResult.success(argument.charAt(0));
         }
     }
 
+    /**
+     * Parses enum constants by their name, case-insensitively. The constants are looked up in maps precomputed on
+     * construction.
+     *
+     * @param <T> the enum type
+     */
     public static class EnumArgumentParser<T extends Enum<T>> extends ArgumentParser<T> {
 
-        private final Class<T> enumClass;
+        private final Map<String, T> constants = new HashMap<>();
+        private final Map<String, T> caseInsensitiveConstants = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final String constantNames;
 
         public EnumArgumentParser(Class<T> enumClass) {
             super(enumClass);
-            this.enumClass = enumClass;
+            StringJoiner constantNames = new StringJoiner(", ");
+
+            for (T constant : enumClass.getEnumConstants()) {
+                constants.put(constant.name(), constant);
+                caseInsensitiveConstants.putIfAbsent(constant.name(), constant);
+                constantNames.add(constant.name());
+            }
+
+            this.constantNames = constantNames.toString();
         }
 
         @Override
         public T parse(String argument) throws CommandParseException {
-            try {
-                return Enum.valueOf(enumClass, argument.toUpperCase());
-            } catch (IllegalArgumentException e) {
-                throw new CommandParseException("Invalid enum value: " + argument);
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<T> tryParse(String argument) {
+            T constant = constants.get(argument);
+
+            if (constant == null) {
+                constant = caseInsensitiveConstants.get(argument);
+            }
+
+            if (constant == null) {
+                return ParseResult.error("Invalid enum value: " + argument + " (expected one of: " + constantNames + ")");
             }
+
+            return ParseResult.success(constant);
         }
     }
     
@@ -208,11 +350,12 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public LocalDate parse(String argument) throws CommandParseException {
-            try {
-                return LocalDate.parse(argument);
-            } catch (DateTimeParseException e) {
-                throw new CommandParseException("Invalid date format: " + argument);
-            }
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<LocalDate> tryParse(String argument) {
+            return parseTemporal(argument, DateTimeFormatter.ISO_LOCAL_DATE, LocalDate::from, "Invalid date format: ");
         }
     }
     
@@ -224,11 +367,12 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public LocalDateTime parse(String argument) throws CommandParseException {
-            try {
-                return LocalDateTime.parse(argument);
-            } catch (DateTimeParseException e) {
-                throw new CommandParseException("Invalid date-time format: " + argument);
-            }
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<LocalDateTime> tryParse(String argument) {
+            return parseTemporal(argument, DateTimeFormatter.ISO_LOCAL_DATE_TIME, LocalDateTime::from, "Invalid date-time format: ");
         }
     }
     
@@ -240,11 +384,12 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public LocalTime parse(String argument) throws CommandParseException {
-            try {
-                return LocalTime.parse(argument);
-            } catch (DateTimeParseException e) {
-                throw new CommandParseException("Invalid time format: " + argument);
-            }
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<LocalTime> tryParse(String argument) {
+            return parseTemporal(argument, DateTimeFormatter.ISO_LOCAL_TIME, LocalTime::from, "Invalid time format: ");
         }
     }
     
@@ -256,11 +401,12 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public Instant parse(String argument) throws CommandParseException {
-            try {
-                return Instant.parse(argument);
-            } catch (DateTimeParseException e) {
-                throw new CommandParseException("Invalid instant format: " + argument);
-            }
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<Instant> tryParse(String argument) {
+            return parseTemporal(argument, DateTimeFormatter.ISO_INSTANT, Instant::from, "Invalid instant format: ");
         }
     }
 
@@ -272,11 +418,12 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public OffsetDateTime parse(String argument) throws CommandParseException {
-            try {
-                return OffsetDateTime.parse(argument);
-            } catch (DateTimeParseException e) {
-                throw new CommandParseException("Invalid offset date-time format: " + argument);
-            }
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<OffsetDateTime> tryParse(String argument) {
+            return parseTemporal(argument, DateTimeFormatter.ISO_OFFSET_DATE_TIME, OffsetDateTime::from, "Invalid offset date-time format: ");
         }
     }
     
@@ -352,10 +499,18 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public BigDecimal parse(String argument) throws CommandParseException {
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<BigDecimal> tryParse(String argument) {
+            if (!isDecimal(argument, false)) {
+                return ParseResult.error("Invalid decimal format: " + argument);
+            }
             try {
-                return new BigDecimal(argument);
+                return ParseResult.success(new BigDecimal(argument));
             } catch (NumberFormatException e) {
-                throw new CommandParseException("Invalid decimal format: " + argument);
+                return ParseResult.error("Invalid decimal format: " + argument);
             }
         }
     }
@@ -368,10 +523,18 @@ public class PrimitiveArgumentParsers {
 
         @Override
         public BigInteger parse(String argument) throws CommandParseException {
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<BigInteger> tryParse(String argument) {
+            if (!isDigits(argument)) {
+                return ParseResult.error("Invalid big integer format: " + argument);
+            }
             try {
-                return new BigInteger(argument);
+                return ParseResult.success(new BigInteger(argument));
             } catch (NumberFormatException e) {
-                throw new CommandParseException("Invalid big integer format: " + argument);
+                return ParseResult.error("Invalid big integer format: " + argument);
             }
         }
     }
@@ -407,4 +570,266 @@ public class PrimitiveArgumentParsers {
             }
         }
     }
+
+    /**
+     * Checks whether the string is a decimal integer within the specified range, without throwing.
+     *
+     * @param argument the string to check
+     * @param min      the minimal value
+     * @param max      the maximal value
+     *
+     * @return true if the string can be parsed as an integer within the range
+     */
+    static boolean isIntegral(CharSequence argument, long min, long max) {
+        return isIntegral(argument, 0, argument.length(), min, max);
+    }
+
+    /**
+     * Checks whether the specified region of the string is a decimal integer within the specified range,
+     * without throwing.
+     *
+     * @param argument the string to check
+     * @param from     the start index, inclusive
+     * @param to       the end index, exclusive
+     * @param min      the minimal value
+     * @param max      the maximal value
+     *
+     * @return true if the region can be parsed as an integer within the range
+     */
+    static boolean isIntegral(CharSequence argument, int from, int to, long min, long max) {
+        if (from >= to) {
+            return false;
+        }
+
+        int index = from;
+        boolean negative = false;
+        char first = argument.charAt(index);
+
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++index == to) {
+                return false;
+            }
+        }
+
+        // Accumulates negatively, as the negative range is larger
+        final long limit = negative ? min : -max;
+        final long multiplyMin = limit / 10;
+        long result = 0;
+
+        for (; index < to; index++) {
+            int digit = argument.charAt(index) - '0';
+
+            if (digit < 0 || digit > 9 || result < multiplyMin) {
+                return false;
+            }
+
+            result *= 10;
+
+            if (result < limit + digit) {
+                return false;
+            }
+
+            result -= digit;
+        }
+
+        return true;
+    }
+
+    private static boolean isDigits(String argument) {
+        int index = argument.startsWith("-") || argument.startsWith("+") ? 1 : 0;
+
+        if (index == argument.length()) {
+            return false;
+        }
+
+        for (; index < argument.length(); index++) {
+            if (!isDigit(argument.charAt(index))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether the string is a decimal floating point number, e.g. <code>-1.5e3</code>, without throwing.
+     *
+     * @param argument       the string to check
+     * @param allowSpecial   whether to allow <code>NaN</code>, <code>Infinity</code> and type suffixes (<code>1.5f</code>)
+     *
+     * @return true if the string is a decimal number
+     */
+    static boolean isDecimal(String argument, boolean allowSpecial) {
+        final int length = argument.length();
+        int index = 0;
+
+        if (length > 0 && (argument.charAt(0) == '-' || argument.charAt(0) == '+')) {
+            index++;
+        }
+
+        if (allowSpecial && (argument.startsWith("NaN", index) || argument.startsWith("Infinity", index))) {
+            return length == index + (argument.charAt(index) == 'N' ? 3 : 8);
+        }
+
+        int digits = 0;
+
+        while (index < length && isDigit(argument.charAt(index))) {
+            index++;
+            digits++;
+        }
+
+        if (index < length && argument.charAt(index) == '.') {
+            index++;
+            while (index < length && isDigit(argument.charAt(index))) {
+                index++;
+                digits++;
+            }
+        }
+
+        if (digits == 0) {
+            return false;
+        }
+
+        if (index < length && (argument.charAt(index) == 'e' || argument.charAt(index) == 'E')) {
+            index++;
+
+            if (index < length && (argument.charAt(index) == '-' || argument.charAt(index) == '+')) {
+                index++;
+            }
+
+            int exponentDigits = 0;
+
+            while (index < length && isDigit(argument.charAt(index))) {
+                index++;
+                exponentDigits++;
+            }
+
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+
+        if (allowSpecial && index == length - 1 && "fFdD".indexOf(argument.charAt(index)) >= 0) {
+            index++;
+        }
+
+        return index == length;
+    }
+
+    /**
+     * Checks whether the string is a hexadecimal floating point number, e.g. <code>0x1.8p1</code>, without throwing.
+     *
+     * @param argument the string to check
+     *
+     * @return true if the string is a hexadecimal floating point number
+     */
+    static boolean isHexadecimalFloatingPoint(String argument) {
+        final int length = argument.length();
+        int index = 0;
+
+        if (length > 0 && (argument.charAt(0) == '-' || argument.charAt(0) == '+')) {
+            index++;
+        }
+
+        if (!argument.startsWith("0x", index) && !argument.startsWith("0X", index)) {
+            return false;
+        }
+
+        index += 2;
+        int digits = 0;
+
+        while (index < length && Character.digit(argument.charAt(index), 16) != -1) {
+            index++;
+            digits++;
+        }
+
+        if (index < length && argument.charAt(index) == '.') {
+            index++;
+            while (index < length && Character.digit(argument.charAt(index), 16) != -1) {
+                index++;
+                digits++;
+            }
+        }
+
+        // The binary exponent is mandatory
+        if (digits == 0 || index == length || (argument.charAt(index) != 'p' && argument.charAt(index) != 'P')) {
+            return false;
+        }
+
+        index++;
+
+        if (index < length && (argument.charAt(index) == '-' || argument.charAt(index) == '+')) {
+            index++;
+        }
+
+        int exponentDigits = 0;
+
+        while (index < length && isDigit(argument.charAt(index))) {
+            index++;
+            exponentDigits++;
+        }
+
+        if (exponentDigits == 0) {
+            return false;
+        }
+
+        if (index == length - 1 && "fFdD".indexOf(argument.charAt(index)) >= 0) {
+            index++;
+        }
+
+        return index == length;
+    }
+
+    /**
+     * Checks whether the string is a UUID accepted by {@link UUID#fromString(String)}: five groups of hexadecimal
+     * digits separated by dashes, of at most 8, 4, 4, 4 and 12 digits.
+     *
+     * @param argument the string to check
+     *
+     * @return true if the string is a UUID
+     */
+    static boolean isUUID(String argument) {
+        if (argument.isEmpty() || argument.length() > 36) {
+            return false;
+        }
+
+        int group = 0;
+        int groupLength = 0;
+
+        for (int index = 0; index < argument.length(); index++) {
+            char character = argument.charAt(index);
+
+            if (character == '-') {
+                if (groupLength == 0 || ++group >= UUID_GROUP_LENGTHS.length) {
+                    return false;
+                }
+                groupLength = 0;
+            } else if (Character.digit(character, 16) == -1 || ++groupLength > UUID_GROUP_LENGTHS[group]) {
+                return false;
+            }
+        }
+
+        return group == UUID_GROUP_LENGTHS.length - 1 && groupLength > 0;
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static <T> ParseResult<T> parseTemporal(String argument, DateTimeFormatter formatter, TemporalQuery<T> query, String errorMessage) {
+        ParsePosition position = new ParsePosition(0);
+
+        // Parses without resolving first, which reports errors through the position instead of throwing
+        if (formatter.parseUnresolved(argument, position) == null || position.getIndex() != argument.length()) {
+            return ParseResult.error(errorMessage + argument);
+        }
+
+        try {
+            return ParseResult.success(formatter.parse(argument, query));
+        } catch (DateTimeException e) {
+            // Semantically invalid values, e.g. 2024-02-30
+            return ParseResult.error(errorMessage + argument);
+        }
+    }
 }
@@ -0,0 +1,284 @@
+package enterprises.iwakura.ganyu.impl.argumentParsers;
+
+import enterprises.iwakura.ganyu.*;
+import enterprises.iwakura.ganyu.exception.CommandParseException;
+import lombok.experimental.UtilityClass;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Utility class to register argument parsers of streaming payloads: {@link InputStream}, {@link Reader} and
+ * {@link ReadableByteChannel}. Payloads are read lazily by the command, thus they are never held in memory as a whole.
+ * <p>
+ *     Arguments are interpreted as follows:
+ * </p>
+ * <ul>
+ *     <li><code>@path</code> streams the file at the path from disk, if allowed by the {@link FileAccess} of the
+ *     parser. File references are disabled by default.</li>
+ *     <li><code>@-</code> streams the remaining bytes of {@link PayloadInput}, see {@link PayloadInput#PAYLOAD_REFERENCE}</li>
+ *     <li><code>@@text</code> streams the literal <code>@text</code></li>
+ *     <li>anything else streams the argument itself, encoded in UTF-8</li>
+ * </ul>
+ * Streams opened while parsing arguments of a command invocation are closed once the invocation completes, see
+ * {@link CommandInvocationContext#registerCloseable(AutoCloseable)}. Readers decode the payload as UTF-8.
+ */
+@UtilityClass
+public class StreamArgumentParsers {
+
+    public static void register(Ganyu ganyu) {
+        register(ganyu.getCommandRegistry());
+    }
+
+    public static void register(CommandRegistry registry) {
+        register(registry, FileAccess.DISABLED);
+    }
+
+    /**
+     * Registers the stream argument parsers with the file access, replacing the parsers registered by default, e.g.
+     * <code>StreamArgumentParsers.register(ganyu, FileAccess.within(Paths.get("/srv/imports")))</code>.
+     *
+     * @param ganyu      the Ganyu instance
+     * @param fileAccess the access of file references
+     */
+    public static void register(Ganyu ganyu, FileAccess fileAccess) {
+        register(ganyu.getCommandRegistry(), fileAccess);
+    }
+
+    public static void register(CommandRegistry registry, FileAccess fileAccess) {
+        registry.registerArgumentParser(new ReadableByteChannelArgumentParser(fileAccess));
+        registry.registerArgumentParser(new InputStreamArgumentParser(fileAccess));
+        registry.registerArgumentParser(new ReaderArgumentParser(fileAccess));
+    }
+
+    /**
+     * Access of file references (<code>@path</code>). File references may only be resolved within a base directory,
+     * symbolic links included, and are not allowed for remote sources, see {@link InputSource#isRemote()}, unless
+     * explicitly allowed.
+     */
+    public static class FileAccess {
+
+        /**
+         * File references are rejected.
+         */
+        public static final FileAccess DISABLED = new FileAccess(null, false);
+
+        private final Path baseDirectory;
+        private final boolean remoteSourcesAllowed;
+
+        private FileAccess(Path baseDirectory, boolean remoteSourcesAllowed) {
+            this.baseDirectory = baseDirectory;
+            this.remoteSourcesAllowed = remoteSourcesAllowed;
+        }
+
+        /**
+         * Allows local sources to reference files within the base directory. Relative paths are resolved against it.
+         *
+         * @param baseDirectory the base directory
+         *
+         * @return the file access
+         */
+        public static FileAccess within(Path baseDirectory) {
+            return new FileAccess(baseDirectory.toAbsolutePath().normalize(), false);
+        }
+
+        /**
+         * Returns a copy of this file access that also allows remote sources, e.g. server sessions, to reference files.
+         *
+         * @return the file access
+         */
+        public FileAccess allowingRemoteSources() {
+            return new FileAccess(baseDirectory, true);
+        }
+
+        /**
+         * Returns the directory file references are resolved against and must be located in.
+         *
+         * @return the base directory, null if file references are disabled
+         */
+        public Path getBaseDirectory() {
+            return baseDirectory;
+        }
+
+        /**
+         * Whether remote sources, see {@link InputSource#isRemote()}, may reference files.
+         *
+         * @return true if remote sources may reference files, false otherwise
+         */
+        public boolean isRemoteSourcesAllowed() {
+            return remoteSourcesAllowed;
+        }
+    }
+
+    /**
+     * Base class for streaming payload argument parsers.
+     *
+     * @param <T> the type of the stream
+     */
+    public abstract static class StreamArgumentParser<T extends Closeable> extends ArgumentParser<T> {
+
+        private final FileAccess fileAccess;
+
+        public StreamArgumentParser(Class<T> type) {
+            this(type, FileAccess.DISABLED);
+        }
+
+        public StreamArgumentParser(Class<T> type, FileAccess fileAccess) {
+            super(type);
+            this.fileAccess = fileAccess;
+        }
+
+        /**
+         * Returns the access of file references of this parser.
+         *
+         * @return the file access
+         */
+        public FileAccess getFileAccess() {
+            return fileAccess;
+        }
+
+        /**
+         * Wraps the opened channel in the stream type.
+         *
+         * @param channel the opened channel
+         *
+         * @return the stream
+         */
+        protected abstract T wrap(ReadableByteChannel channel);
+
+        /**
+         * Opens the stream. The caller is responsible for closing it. The payload of {@link PayloadInput} and files
+         * can only be opened within a command invocation, which closes them once it completes.
+         *
+         * @param argument the argument string to parse
+         *
+         * @return the opened stream
+         * @throws CommandParseException if the stream cannot be opened
+         */
+        @Override
+        public T parse(String argument) throws CommandParseException {
+            return tryParse(argument).getOrThrow();
+        }
+
+        @Override
+        public ParseResult<T> tryParse(String argument) {
+            return open(null, argument);
+        }
+
+        @Override
+        public ParseResult<T> tryParse(CommandInvocationContext ctx, String argument) {
+            final ParseResult<T> result = open(ctx, argument);
+
+            if (result.isSuccess()) {
+                ctx.registerCloseable(result.getValue());
+            }
+
+            return result;
+        }
+
+        private ParseResult<T> open(CommandInvocationContext ctx, String argument) {
+            if (argument.equals(PayloadInput.PAYLOAD_REFERENCE)) {
+                final InputSource input = ctx != null ? ctx.getSourceInput() : null;
+
+                if (!(input instanceof PayloadInput)) {
+                    return ParseResult.error("Input does not provide a payload: " + argument);
+                }
+
+                try {
+                    return ParseResult.success(wrap(((PayloadInput) input).openPayload()));
+                } catch (IllegalStateException exception) {
+                    return ParseResult.error(exception.getMessage());
+                }
+            } else if (argument.startsWith("@@")) {
+                return ParseResult.success(wrap(openInline(argument.substring(1))));
+            } else if (argument.startsWith("@")) {
+                return openFile(ctx, argument.substring(1));
+            }
+
+            return ParseResult.success(wrap(openInline(argument)));
+        }
+
+        private ParseResult<T> openFile(CommandInvocationContext ctx, String pathString) {
+            final Path baseDirectory = fileAccess.getBaseDirectory();
+            final InputSource input = ctx != null ? ctx.getSourceInput() : null;
+
+            if (baseDirectory == null) {
+                return ParseResult.error("File references are disabled: @" + pathString);
+            } else if (ctx == null) {
+                return ParseResult.error("Files can only be opened within a command invocation: @" + pathString);
+            } else if (input != null && input.isRemote() && !fileAccess.isRemoteSourcesAllowed()) {
+                return ParseResult.error("File references are not allowed for remote sources: @" + pathString);
+            }
+
+            try {
+                final Path path = baseDirectory.resolve(pathString).toRealPath();
+
+                if (!path.startsWith(baseDirectory.toRealPath())) {
+                    return ParseResult.error("Cannot read file outside of " + baseDirectory + ": " + pathString);
+                }
+
+                return ParseResult.success(wrap(FileChannel.open(path, StandardOpenOption.READ)));
+            } catch (IOException | InvalidPathException | SecurityException exception) {
+                return ParseResult.error("Cannot read file: " + pathString);
+            }
+        }
+
+        private static ReadableByteChannel openInline(String argument) {
+            return Channels.newChannel(new ByteArrayInputStream(argument.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    public static class ReadableByteChannelArgumentParser extends StreamArgumentParser<ReadableByteChannel> {
+
+        public ReadableByteChannelArgumentParser() {
+            super(ReadableByteChannel.class);
+        }
+
+        public ReadableByteChannelArgumentParser(FileAccess fileAccess) {
+            super(ReadableByteChannel.class, fileAccess);
+        }
+
+        @Override
+        protected ReadableByteChannel wrap(ReadableByteChannel channel) {
+            return channel;
+        }
+    }
+
+    public static class InputStreamArgumentParser extends StreamArgumentParser<InputStream> {
+
+        public InputStreamArgumentParser() {
+            super(InputStream.class);
+        }
+
+        public InputStreamArgumentParser(FileAccess fileAccess) {
+            super(InputStream.class, fileAccess);
+        }
+
+        @Override
+        protected InputStream wrap(ReadableByteChannel channel) {
+            return new BufferedInputStream(Channels.newInputStream(channel));
+        }
+    }
+
+    public static class ReaderArgumentParser extends StreamArgumentParser<Reader> {
+
+        public ReaderArgumentParser() {
+            super(Reader.class);
+        }
+
+        public ReaderArgumentParser(FileAccess fileAccess) {
+            super(Reader.class, fileAccess);
+        }
+
+        @Override
+        protected Reader wrap(ReadableByteChannel channel) {
+            return new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1));
+        }
+    }
+}
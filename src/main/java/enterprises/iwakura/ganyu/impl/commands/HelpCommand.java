@@ -21,7 +21,7 @@ public class HelpCommand implements GanyuCommand {
         @OptionalArg @Description("Command name to see help for") String commandName
     ) {
         Ganyu ganyu = ctx.getGanyu();
-        Output output = ganyu.getOutput();
+        Output output = ctx.getOutput();
         List<RegisteredCommand> commands = ganyu.getRegisteredCommands();
 
         if (commandName != null) {
@@ -82,7 +82,9 @@ public class HelpCommand implements GanyuCommand {
 
                 argLine.append(outputPrefix).append("   - ");
 
-                if (argDef.isInjectable()) {
+                if (argDef.isPiped()) {
+                    argLine.append("[Piped] ");
+                } else if (argDef.isInjectable()) {
                     argLine.append("[Injected] ");
                 } else if (argDef.isMandatory()) {
                     argLine.append("[Mandatory] ");
@@ -91,9 +93,9 @@ public class HelpCommand implements GanyuCommand {
                 }
 
                 if (argumentName.isEmpty()) {
-                    argLine.append(argDef.getType().getSimpleName());
+                    argLine.append(argDef.getParsedType().getSimpleName());
                 } else {
-                    argLine.append(argumentName).append(" (").append(argDef.getType().getSimpleName()).append(")");
+                    argLine.append(argumentName).append(" (").append(argDef.getParsedType().getSimpleName()).append(")");
                 }
                 if (argDef.getDescription() != null && !argDef.getDescription().isEmpty()) {
                     argLine.append(": ").append(argDef.getDescription());
@@ -113,7 +115,7 @@ public class HelpCommand implements GanyuCommand {
     @Description("Lists the command lookups used by Ganyu.")
     public CommandResult listLookups(CommandInvocationContext ctx) {
         Ganyu ganyu = ctx.getGanyu();
-        Output output = ganyu.getOutput();
+        Output output = ctx.getOutput();
         Map<String, RegisteredCommand> commandLookupMap = ganyu.getRegisteredCommandLookup();
 
         output.info("There is a total of " + commandLookupMap.size() + " command lookups:");
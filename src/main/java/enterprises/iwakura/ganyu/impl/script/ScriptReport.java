@@ -0,0 +1,115 @@
+package enterprises.iwakura.ganyu.impl.script;
+
+import enterprises.iwakura.ganyu.CommandResult;
+import enterprises.iwakura.ganyu.Output;
+import enterprises.iwakura.ganyu.TableWriter;
+import lombok.Data;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Report of a script run by {@link ScriptRunner}, holding the result of every command line and block header of the
+ * script in the order of their line numbers.
+ */
+public class ScriptReport {
+
+    /**
+     * Status of a script line.
+     */
+    public enum Status {
+        /**
+         * The command succeeded.
+         */
+        SUCCEEDED,
+        /**
+         * The command failed or completed exceptionally, or the block header is invalid.
+         */
+        FAILED,
+        /**
+         * The command did not run, as the script was stopped or its block header is invalid.
+         */
+        SKIPPED
+    }
+
+    /**
+     * Result of a single script line.
+     */
+    @Data
+    public static class LineResult {
+
+        private final int lineNumber;
+        private final String block;
+        private final String line;
+        private final Status status;
+        // Result of the command, null if it did not run or completed exceptionally
+        private final CommandResult commandResult;
+        private final Throwable exception;
+        private final String message;
+        private final long durationNanos;
+    }
+
+    @Getter
+    private final List<LineResult> lines;
+
+    /**
+     * Creates a ScriptReport.
+     *
+     * @param lines The results of the script lines, in any order.
+     */
+    public ScriptReport(List<LineResult> lines) {
+        final List<LineResult> sortedLines = new ArrayList<>(lines);
+        sortedLines.sort(Comparator.comparingInt(LineResult::getLineNumber));
+        this.lines = Collections.unmodifiableList(sortedLines);
+    }
+
+    /**
+     * Whether all lines of the script succeeded.
+     *
+     * @return true if no line failed or was skipped, false otherwise
+     */
+    public boolean isSuccess() {
+        return lines.stream().allMatch(line -> line.getStatus() == Status.SUCCEEDED);
+    }
+
+    /**
+     * Returns the number of lines with the status.
+     *
+     * @param status The status.
+     * @return The number of lines.
+     */
+    public long count(Status status) {
+        return lines.stream().filter(line -> line.getStatus() == status).count();
+    }
+
+    /**
+     * Returns the failed lines.
+     *
+     * @return The failed lines, ordered by line numbers.
+     */
+    public List<LineResult> getFailures() {
+        return lines.stream().filter(line -> line.getStatus() == Status.FAILED).collect(Collectors.toList());
+    }
+
+    /**
+     * Writes the report to the output as a table with a row per line, followed by a summary.
+     *
+     * @param output The output to write to.
+     */
+    public void writeTo(Output output) {
+        try (TableWriter table = output.table("Line", "Block", "Status", "Time (ms)", "Command", "Message")) {
+            for (LineResult line : lines) {
+                table.row(line.getLineNumber(), line.getBlock(), line.getStatus(), TimeUnit.NANOSECONDS.toMillis(line.getDurationNanos()),
+                    line.getLine(), line.getMessage() != null ? line.getMessage() : "");
+            }
+        }
+
+        output.info(String.format("%d succeeded, %d failed, %d skipped",
+            count(Status.SUCCEEDED), count(Status.FAILED), count(Status.SKIPPED)));
+    }
+}
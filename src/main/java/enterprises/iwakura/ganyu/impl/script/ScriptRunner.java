@@ -0,0 +1,241 @@
+package enterprises.iwakura.ganyu.impl.script;
+
+import enterprises.iwakura.ganyu.CommandResult;
+import enterprises.iwakura.ganyu.Ganyu;
+import enterprises.iwakura.ganyu.Output;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs scripts of Ganyu commands, one command per line, and reports the result of every line, see
+ * {@link ScriptReport}.
+ * <p>
+ *     Scripts are read in streaming fashion: lines start running while the rest of the script is still being read.
+ *     Empty lines and lines starting with <code>#</code> are ignored. Lines are grouped into blocks by headers:
+ *     <code>[name]</code> starts a block, <code>[name after setup, build]</code> starts a block that runs once the
+ *     blocks <code>setup</code> and <code>build</code>, which must be declared earlier in the script, completed.
+ *     Lines before the first header form the block <code>main</code>. Lines of a block run one after another, whereas
+ *     blocks run in parallel on a {@link ForkJoinPool} as soon as their dependencies complete, thus a script without
+ *     headers runs serially.
+ * </p>
+ * With {@link FailurePolicy#STOP}, no further lines start once a line failed, the remaining lines are reported as
+ * skipped. Lines are submitted by {@link Ganyu#submit(String, enterprises.iwakura.ganyu.InputSource, Output)}.
+ */
+public class ScriptRunner {
+
+    /**
+     * Policy applied once a line of the script failed.
+     */
+    public enum FailurePolicy {
+        /**
+         * Skips all lines that did not start yet, in all blocks.
+         */
+        STOP,
+        /**
+         * Runs the remaining lines regardless of the failure.
+         */
+        CONTINUE
+    }
+
+    public static final String MAIN_BLOCK = "main";
+
+    private static final Pattern BLOCK_HEADER = Pattern.compile("\\[\\s*([^\\s\\],]+)(?:\\s+after\\s+([^\\]]*))?\\s*]");
+
+    @Getter
+    private final Ganyu ganyu;
+    @Getter
+    private final ForkJoinPool pool;
+
+    @Getter
+    @Setter
+    private FailurePolicy failurePolicy = FailurePolicy.STOP;
+    // Output the commands write to, null for Ganyu's output
+    @Setter
+    private Output output;
+
+    /**
+     * Creates a ScriptRunner running blocks on the common fork-join pool.
+     *
+     * @param ganyu The Ganyu instance to run the commands with.
+     */
+    public ScriptRunner(Ganyu ganyu) {
+        this(ganyu, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a ScriptRunner.
+     *
+     * @param ganyu The Ganyu instance to run the commands with.
+     * @param pool  The pool to run blocks on.
+     */
+    public ScriptRunner(Ganyu ganyu, ForkJoinPool pool) {
+        this.ganyu = ganyu;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the output the commands write to. Defaults to {@link Ganyu}'s output.
+     *
+     * @return The output.
+     */
+    public Output getOutput() {
+        return output != null ? output : ganyu.getOutput();
+    }
+
+    /**
+     * Runs the UTF-8 encoded script file and waits until all its lines completed.
+     *
+     * @param script The path of the script.
+     * @return The report of the script.
+     * @throws IOException if the script cannot be read.
+     */
+    public ScriptReport run(Path script) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(script, StandardCharsets.UTF_8)) {
+            return run(reader);
+        }
+    }
+
+    /**
+     * Runs the script read from the reader and waits until all its lines completed. The reader is not closed.
+     *
+     * @param script The reader of the script.
+     * @return The report of the script.
+     * @throws IOException if the script cannot be read. Lines that already started still complete.
+     */
+    public ScriptReport run(Reader script) throws IOException {
+        final BufferedReader reader = script instanceof BufferedReader ? (BufferedReader) script : new BufferedReader(script);
+        final Queue<ScriptReport.LineResult> results = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean stopped = new AtomicBoolean();
+
+        // Tails of the blocks, completed once the last line of the block completes
+        final Map<String, CompletableFuture<Void>> blocks = new HashMap<>();
+        String block = MAIN_BLOCK;
+        CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        String invalidHeader = null;
+        int lineNumber = 0;
+
+        try {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                final String trimmedLine = line.trim();
+
+                if (trimmedLine.isEmpty() || trimmedLine.startsWith("#")) {
+                    continue;
+                }
+
+                if (trimmedLine.startsWith("[")) {
+                    if (invalidHeader == null) {
+                        blocks.put(block, tail);
+                    }
+
+                    final Matcher matcher = BLOCK_HEADER.matcher(trimmedLine);
+                    final List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+                    block = matcher.matches() ? matcher.group(1) : null;
+                    invalidHeader = block == null ? "Invalid block header" : null;
+
+                    if (invalidHeader == null) {
+                        invalidHeader = blocks.containsKey(block) ? "Duplicate block: " + block : null;
+
+                        if (invalidHeader == null && matcher.group(2) != null) {
+                            for (String dependency : matcher.group(2).split(",")) {
+                                final CompletableFuture<Void> dependencyTail = blocks.get(dependency.trim());
+
+                                if (dependencyTail == null) {
+                                    invalidHeader = "Unknown block: " + dependency.trim();
+                                    break;
+                                }
+
+                                dependencies.add(dependencyTail);
+                            }
+                        }
+                    }
+
+                    if (invalidHeader != null) {
+                        results.add(new ScriptReport.LineResult(lineNumber, block, trimmedLine, ScriptReport.Status.FAILED, null, null, invalidHeader, 0));
+                        lineFailed(stopped);
+                    }
+
+                    tail = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0]));
+                    continue;
+                }
+
+                if (invalidHeader != null) {
+                    results.add(new ScriptReport.LineResult(lineNumber, block, trimmedLine, ScriptReport.Status.SKIPPED, null, null, invalidHeader, 0));
+                    continue;
+                }
+
+                final int number = lineNumber;
+                final String lineBlock = block;
+                tail = tail.thenComposeAsync(ignored -> runLine(number, lineBlock, trimmedLine, results, stopped), pool);
+            }
+        } finally {
+            if (invalidHeader == null) {
+                blocks.put(block, tail);
+            }
+            CompletableFuture.allOf(blocks.values().toArray(new CompletableFuture[0])).join();
+        }
+
+        return new ScriptReport(new ArrayList<>(results));
+    }
+
+    private CompletableFuture<Void> runLine(int lineNumber, String block, String line, Queue<ScriptReport.LineResult> results, AtomicBoolean stopped) {
+        if (stopped.get()) {
+            results.add(new ScriptReport.LineResult(lineNumber, block, line, ScriptReport.Status.SKIPPED, null, null, "Script stopped", 0));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final long startedAtNanos = System.nanoTime();
+        CompletableFuture<CommandResult> future;
+
+        try {
+            future = ganyu.submit(line, ganyu.getInput(), getOutput());
+        } catch (RuntimeException exception) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(exception);
+        }
+
+        return future.handle((result, exception) -> {
+            final long durationNanos = System.nanoTime() - startedAtNanos;
+
+            if (exception != null) {
+                final Throwable cause = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+                results.add(new ScriptReport.LineResult(lineNumber, block, line, ScriptReport.Status.FAILED, null, cause, cause.toString(), durationNanos));
+                lineFailed(stopped);
+            } else if (!result.isSuccess()) {
+                results.add(new ScriptReport.LineResult(lineNumber, block, line, ScriptReport.Status.FAILED, result, null, result.getErrorMessage(), durationNanos));
+                lineFailed(stopped);
+            } else {
+                results.add(new ScriptReport.LineResult(lineNumber, block, line, ScriptReport.Status.SUCCEEDED, result, null, null, durationNanos));
+            }
+
+            return null;
+        });
+    }
+
+    private void lineFailed(AtomicBoolean stopped) {
+        if (failurePolicy == FailurePolicy.STOP) {
+            stopped.set(true);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package enterprises.iwakura.ganyu.impl.server;
+
+import enterprises.iwakura.ganyu.Ganyu;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Accepts connections over loopback TCP and Unix domain sockets and dispatches the lines received from them into
+ * a shared {@link Ganyu} instance and its command registry.
+ * <p>
+ *     Each connection is a {@link ServerSession} with its own input and output. Commands of a session are executed one
+ *     after another in the order their lines were received, while commands of different sessions run concurrently.
+ *     All connections are served by a single selector thread, idle connections hold no thread and no read buffer.
+ *     Sessions stop being read from while {@link #getMaxPendingCommands()} of their commands are pending, and
+ *     commands writing to a session block while more than {@link #getMaxPendingOutputBytes()} bytes wait to be sent.
+ * </p>
+ * Lines are submitted by {@link Ganyu#submit(String, enterprises.iwakura.ganyu.InputSource, enterprises.iwakura.ganyu.Output)}
+ * on the server's executor, which must not run tasks on the calling thread, as that would be the selector thread.
+ * Once a client shuts down its output, its pending commands are completed, their output is sent and the connection is
+ * closed.
+ */
+public class GanyuServer implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_LINE_LENGTH = 64 * 1024;
+    public static final int DEFAULT_MAX_PENDING_COMMANDS = 16;
+    public static final int DEFAULT_MAX_PENDING_OUTPUT_BYTES = 1024 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    @Getter
+    private final Ganyu ganyu;
+    @Getter
+    private final Executor executor;
+
+    @Getter
+    @Setter
+    private int maxLineLength = DEFAULT_MAX_LINE_LENGTH;
+    @Getter
+    @Setter
+    private int maxPendingCommands = DEFAULT_MAX_PENDING_COMMANDS;
+    @Getter
+    @Setter
+    private int maxPendingOutputBytes = DEFAULT_MAX_PENDING_OUTPUT_BYTES;
+
+    private final Selector selector;
+    private final Thread selectorThread;
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private final List<ServerSocketChannel> serverChannels = new CopyOnWriteArrayList<>();
+    private final List<Path> socketPaths = new CopyOnWriteArrayList<>();
+    private final Set<ServerSession> sessions = ConcurrentHashMap.newKeySet();
+
+    // Shared by all sessions, only used by the selector thread
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+    private volatile boolean running;
+    private boolean started;
+
+    /**
+     * Creates a GanyuServer, which executes commands on a cached thread pool of daemon threads.
+     *
+     * @param ganyu The Ganyu instance to dispatch commands into.
+     */
+    public GanyuServer(Ganyu ganyu) {
+        this(ganyu, Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "Ganyu-Server-Command");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Creates a GanyuServer.
+     *
+     * @param ganyu    The Ganyu instance to dispatch commands into.
+     * @param executor The executor to submit the received lines on. Must not run tasks on the calling thread.
+     */
+    public GanyuServer(Ganyu ganyu, Executor executor) {
+        this.ganyu = ganyu;
+        this.executor = executor;
+
+        try {
+            this.selector = Selector.open();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to open selector", exception);
+        }
+
+        this.selectorThread = new Thread(this::select, "Ganyu-Server");
+    }
+
+    /**
+     * Accepts connections on the loopback address.
+     *
+     * @param port The port, zero for an ephemeral port.
+     * @return The bound address.
+     * @throws IOException if the port cannot be bound.
+     */
+    public InetSocketAddress bindLoopback(int port) throws IOException {
+        final ServerSocketChannel channel = ServerSocketChannel.open();
+
+        try {
+            channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+
+        bind(channel);
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    /**
+     * Accepts connections on a Unix domain socket. The socket file is deleted when the server is closed.
+     *
+     * @param path The path of the socket file, which must not exist.
+     * @throws IOException                   if the socket cannot be bound.
+     * @throws UnsupportedOperationException if running on Java older than 16.
+     */
+    public void bindUnixDomainSocket(Path path) throws IOException {
+        final ServerSocketChannel channel = UnixDomainSockets.open(path);
+        socketPaths.add(path);
+        bind(channel);
+    }
+
+    /**
+     * Accepts connections on an already bound server channel. The channel is closed when the server is closed.
+     *
+     * @param channel The bound server channel.
+     * @throws IOException if the channel cannot be switched to non-blocking mode.
+     */
+    public void bind(ServerSocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        serverChannels.add(channel);
+
+        runOnSelector(() -> {
+            try {
+                channel.register(selector, SelectionKey.OP_ACCEPT);
+            } catch (ClosedChannelException exception) {
+                ganyu.getOutput().error("Failed to register server channel!", exception);
+            }
+        });
+    }
+
+    /**
+     * Starts the selector thread, which accepts connections and reads lines from them.
+     *
+     * @throws IllegalStateException if the server was already started.
+     */
+    public synchronized void start() {
+        if (started) {
+            throw new IllegalStateException("Server was already started!");
+        }
+
+        started = true;
+        running = true;
+        selectorThread.start();
+    }
+
+    /**
+     * Stops accepting connections and closes all sessions. Commands already submitted still run, but their output is
+     * discarded.
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+
+        if (started) {
+            selector.wakeup();
+        } else {
+            closeChannels();
+        }
+    }
+
+    /**
+     * Returns the number of connected sessions.
+     *
+     * @return The number of sessions.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Runs the task on the selector thread.
+     *
+     * @param task The task.
+     */
+    void runOnSelector(Runnable task) {
+        selectorTasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Whether the current thread is the selector thread.
+     *
+     * @return true if called from the selector thread, false otherwise
+     */
+    boolean isSelectorThread() {
+        return Thread.currentThread() == selectorThread;
+    }
+
+    void removeSession(ServerSession session) {
+        sessions.remove(session);
+    }
+
+    private void select() {
+        try {
+            while (running) {
+                selector.select();
+
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) {
+                    task.run();
+                }
+
+                final Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+
+                while (selectedKeys.hasNext()) {
+                    final SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept((ServerSocketChannel) key.channel());
+                    } else if (key.attachment() instanceof ServerSession) {
+                        handle(key, (ServerSession) key.attachment());
+                    }
+                }
+            }
+        } catch (IOException exception) {
+            ganyu.getOutput().error("Server selector failed!", exception);
+        } finally {
+            closeChannels();
+        }
+    }
+
+    private void accept(ServerSocketChannel serverChannel) {
+        SocketChannel channel;
+
+        try {
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+
+                final ServerSession session = new ServerSession(this, channel);
+                session.setKey(channel.register(selector, SelectionKey.OP_READ, session));
+                sessions.add(session);
+            }
+        } catch (IOException exception) {
+            ganyu.getOutput().error("Failed to accept connection!", exception);
+        }
+    }
+
+    private void handle(SelectionKey key, ServerSession session) {
+        try {
+            if (key.isValid() && key.isReadable()) {
+                session.read(readBuffer);
+            }
+
+            if (key.isValid() && key.isWritable()) {
+                session.write();
+            }
+        } catch (IOException | CancelledKeyException exception) {
+            session.close();
+        }
+    }
+
+    private void closeChannels() {
+        sessions.forEach(ServerSession::close);
+
+        for (ServerSocketChannel channel : serverChannels) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Closing anyway
+            }
+        }
+
+        for (Path path : socketPaths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // Best effort, the socket file may have been removed already
+            }
+        }
+
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package enterprises.iwakura.ganyu.impl.server;
+
+import enterprises.iwakura.ganyu.InputSource;
+import enterprises.iwakura.ganyu.Output;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A connection accepted by {@link GanyuServer}, serving as the {@link InputSource} and {@link Output} of the commands
+ * it submits.
+ * <p>
+ *     Lines are read by the server's selector thread and submitted to Ganyu, the session is a remote source, see
+ *     {@link InputSource#isRemote()}. Messages are encoded as UTF-8 lines and sent by the selector thread, errors are
+ *     followed by the exception, if any. Threads writing to the session block while too many bytes are waiting to be
+ *     sent.
+ * </p>
+ */
+public class ServerSession implements InputSource, Output {
+
+    @Getter
+    private final GanyuServer server;
+    @Getter
+    private final SocketChannel channel;
+    @Setter(AccessLevel.PACKAGE)
+    private SelectionKey key;
+
+    // Line being read, allocated on first use so that idle sessions hold no buffer
+    private byte[] lineBuffer;
+    private int lineLength;
+
+    private final Queue<ByteBuffer> pendingWrites = new ArrayDeque<>();
+    private long pendingOutputBytes;
+
+    // Chain of submitted commands, keeps the commands of this session in order
+    private CompletableFuture<?> lastCommand = CompletableFuture.completedFuture(null);
+    private final AtomicInteger pendingCommands = new AtomicInteger();
+
+    private volatile boolean inputClosed;
+    private boolean closeWhenFlushed;
+    @Getter
+    private volatile boolean closed;
+
+    ServerSession(GanyuServer server, SocketChannel channel) {
+        this.server = server;
+        this.channel = channel;
+    }
+
+    @Override
+    public boolean isRemote() {
+        return true;
+    }
+
+    @Override
+    public void info(String message) {
+        send(message);
+    }
+
+    @Override
+    public void error(String message, Throwable throwable) {
+        send(throwable != null ? message + System.lineSeparator() + throwable : message);
+    }
+
+    /**
+     * Returns the number of commands of this session that were received but did not complete yet.
+     *
+     * @return The number of pending commands.
+     */
+    public int getPendingCommands() {
+        return pendingCommands.get();
+    }
+
+    /**
+     * Reads the available bytes and submits the complete lines. Called by the selector thread.
+     *
+     * @param readBuffer The read buffer shared by all sessions.
+     * @throws IOException if reading fails.
+     */
+    void read(ByteBuffer readBuffer) throws IOException {
+        readBuffer.clear();
+
+        if (channel.read(readBuffer) < 0) {
+            endOfInput();
+            return;
+        }
+
+        readBuffer.flip();
+
+        while (readBuffer.hasRemaining()) {
+            final byte value = readBuffer.get();
+
+            if (value == '\n') {
+                submitLine();
+                continue;
+            }
+
+            if (lineLength == server.getMaxLineLength()) {
+                send("Line exceeds " + server.getMaxLineLength() + " bytes, closing the session.");
+                lineBuffer = null;
+                lineLength = 0;
+                endOfInput();
+                return;
+            }
+
+            if (lineBuffer == null) {
+                lineBuffer = new byte[Math.min(256, server.getMaxLineLength())];
+            } else if (lineLength == lineBuffer.length) {
+                lineBuffer = Arrays.copyOf(lineBuffer, Math.min(lineBuffer.length * 2, server.getMaxLineLength()));
+            }
+
+            lineBuffer[lineLength++] = value;
+        }
+    }
+
+    /**
+     * Sends as many pending bytes as the channel accepts. Called by the selector thread.
+     *
+     * @throws IOException if writing fails.
+     */
+    synchronized void write() throws IOException {
+        ByteBuffer buffer;
+
+        while ((buffer = pendingWrites.peek()) != null) {
+            pendingOutputBytes -= channel.write(buffer);
+
+            if (buffer.hasRemaining()) {
+                break;
+            }
+
+            pendingWrites.poll();
+        }
+
+        notifyAll();
+
+        if (!key.isValid()) {
+            return;
+        }
+
+        if (pendingWrites.isEmpty()) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+
+            if (closeWhenFlushed) {
+                close();
+            }
+        } else {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Closes the connection. Pending output is discarded.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            pendingWrites.clear();
+            pendingOutputBytes = 0;
+            notifyAll();
+        }
+
+        if (key != null) {
+            key.cancel();
+        }
+
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+
+        server.removeSession(this);
+    }
+
+    private void submitLine() {
+        int length = lineLength;
+        lineLength = 0;
+
+        if (length > 0 && lineBuffer[length - 1] == '\r') {
+            length--;
+        }
+
+        if (length == 0) {
+            return;
+        }
+
+        final String line = new String(lineBuffer, 0, length, StandardCharsets.UTF_8);
+
+        if (pendingCommands.incrementAndGet() >= server.getMaxPendingCommands()) {
+            // Stops reading until some of the pending commands complete
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+
+        lastCommand = lastCommand
+            .handle((result, exception) -> null)
+            .thenComposeAsync(ignored -> server.getGanyu().submit(line, this, this), server.getExecutor())
+            .whenComplete((result, exception) -> commandCompleted());
+    }
+
+    private void commandCompleted() {
+        final int remaining = pendingCommands.decrementAndGet();
+
+        if (inputClosed) {
+            if (remaining == 0) {
+                server.runOnSelector(this::closeWhenFlushed);
+            }
+        } else if (remaining == server.getMaxPendingCommands() - 1) {
+            server.runOnSelector(this::resumeReading);
+        }
+    }
+
+    private void endOfInput() {
+        inputClosed = true;
+
+        if (key.isValid()) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+
+        if (pendingCommands.get() == 0) {
+            closeWhenFlushed();
+        }
+    }
+
+    private void resumeReading() {
+        if (key.isValid() && !inputClosed) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        }
+    }
+
+    private synchronized void closeWhenFlushed() {
+        if (pendingWrites.isEmpty()) {
+            close();
+        } else {
+            closeWhenFlushed = true;
+        }
+    }
+
+    private void send(String message) {
+        final ByteBuffer bytes = ByteBuffer.wrap((message + "\n").getBytes(StandardCharsets.UTF_8));
+
+        synchronized (this) {
+            try {
+                while (!closed && pendingOutputBytes > server.getMaxPendingOutputBytes() && !server.isSelectorThread()) {
+                    wait();
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (closed) {
+                return;
+            }
+
+            final boolean idle = pendingWrites.isEmpty();
+            pendingWrites.add(bytes);
+            pendingOutputBytes += bytes.remaining();
+
+            if (idle) {
+                server.runOnSelector(this::flushPendingWrites);
+            }
+        }
+    }
+
+    private void flushPendingWrites() {
+        try {
+            write();
+        } catch (IOException exception) {
+            close();
+        }
+    }
+}
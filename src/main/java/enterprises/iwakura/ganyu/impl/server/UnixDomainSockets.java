@@ -0,0 +1,28 @@
+package enterprises.iwakura.ganyu.impl.server;
+
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Opens Unix domain socket server channels. Unix domain socket channels are available on Java 16 and newer, thus this
+ * class is replaced by the multi-release layer in <code>META-INF/versions/16</code>.
+ */
+final class UnixDomainSockets {
+
+    private UnixDomainSockets() {
+    }
+
+    /**
+     * Opens a server channel bound to the path.
+     *
+     * @param path the path of the socket file
+     *
+     * @return the bound server channel
+     * @throws IOException                   if the channel cannot be opened or bound
+     * @throws UnsupportedOperationException if the runtime does not support Unix domain sockets
+     */
+    static ServerSocketChannel open(Path path) throws IOException {
+        throw new UnsupportedOperationException("Unix domain sockets require Java 16 or newer!");
+    }
+}
@@ -0,0 +1,37 @@
+package enterprises.iwakura.ganyu.impl.server;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Opens Unix domain socket server channels, Java 16+ counterpart of the Java 8 class.
+ */
+final class UnixDomainSockets {
+
+    private UnixDomainSockets() {
+    }
+
+    /**
+     * Opens a server channel bound to the path.
+     *
+     * @param path the path of the socket file
+     *
+     * @return the bound server channel
+     * @throws IOException if the channel cannot be opened or bound
+     */
+    static ServerSocketChannel open(Path path) throws IOException {
+        final ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+
+        try {
+            channel.bind(UnixDomainSocketAddress.of(path));
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+
+        return channel;
+    }
+}
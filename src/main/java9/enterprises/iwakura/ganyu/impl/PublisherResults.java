@@ -0,0 +1,113 @@
+package enterprises.iwakura.ganyu.impl;
+
+import enterprises.iwakura.ganyu.CommandInvocationContext;
+import enterprises.iwakura.ganyu.CommandResult;
+import enterprises.iwakura.ganyu.Output;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.UtilityClass;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Utility class to drain {@link Flow.Publisher} command results, see {@link StreamingResults}.
+ * <p>
+ *     Elements are requested in batches of {@link #REQUEST_BATCH_SIZE} and written by {@link Output#info(String)}.
+ *     The next batch is requested once the current one was written, thus the publisher never produces more elements
+ *     than the output has accepted plus one batch.
+ * </p>
+ */
+@UtilityClass
+public class PublisherResults {
+
+    /**
+     * Number of elements requested from the publisher at once.
+     */
+    public static final int REQUEST_BATCH_SIZE = 64;
+
+    /**
+     * Checks whether the type is a publisher drained by {@link #drain(CommandInvocationContext, Object)}.
+     *
+     * @param type The type, e.g. the return type of a command method.
+     *
+     * @return true if the type is a publisher, false otherwise.
+     */
+    public static boolean isPublisherType(Class<?> type) {
+        return Flow.Publisher.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Subscribes to the command return value if it is a publisher and drains it to the invocation output.
+     *
+     * @param ctx         The command invocation context.
+     * @param returnValue The value returned by the command method.
+     *
+     * @return Future completed once the publisher completes, or null if the return value is not a publisher.
+     */
+    public static CompletableFuture<CommandResult> drain(CommandInvocationContext ctx, Object returnValue) {
+        if (!(returnValue instanceof Flow.Publisher)) {
+            return null;
+        }
+
+        final CompletableFuture<CommandResult> future = new CompletableFuture<>();
+
+        try {
+            ((Flow.Publisher<?>) returnValue).subscribe(new OutputSubscriber(ctx.getOutput(), future));
+        } catch (RuntimeException exception) {
+            future.completeExceptionally(exception);
+        }
+
+        return future;
+    }
+
+    /**
+     * Subscriber writing the elements to an output.
+     */
+    @RequiredArgsConstructor
+    private static class OutputSubscriber implements Flow.Subscriber<Object> {
+
+        private final Output output;
+        private final CompletableFuture<CommandResult> future;
+
+        private Flow.Subscription subscription;
+        private int remaining;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            if (this.subscription != null) {
+                subscription.cancel();
+                return;
+            }
+
+            this.subscription = subscription;
+            this.remaining = REQUEST_BATCH_SIZE;
+            subscription.request(REQUEST_BATCH_SIZE);
+        }
+
+        @Override
+        public void onNext(Object item) {
+            try {
+                output.info(String.valueOf(item));
+            } catch (RuntimeException exception) {
+                subscription.cancel();
+                future.completeExceptionally(exception);
+                return;
+            }
+
+            if (--remaining == 0) {
+                remaining = REQUEST_BATCH_SIZE;
+                subscription.request(REQUEST_BATCH_SIZE);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            future.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            future.complete(CommandResult.success());
+        }
+    }
+}
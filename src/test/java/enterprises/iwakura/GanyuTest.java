@@ -1,17 +1,66 @@
 package enterprises.iwakura;
 
+import enterprises.iwakura.ganyu.BatchResult;
+import enterprises.iwakura.ganyu.CommandInvocationContext;
+import enterprises.iwakura.ganyu.CommandPriority;
+import enterprises.iwakura.ganyu.CommandRegistry;
+import enterprises.iwakura.ganyu.CommandResult;
 import enterprises.iwakura.ganyu.Ganyu;
+import enterprises.iwakura.ganyu.GanyuCommand;
+import enterprises.iwakura.ganyu.Lazy;
+import enterprises.iwakura.ganyu.Output;
+import enterprises.iwakura.ganyu.ParseResult;
+import enterprises.iwakura.ganyu.TableWriter;
+import enterprises.iwakura.ganyu.annotation.Cacheable;
+import enterprises.iwakura.ganyu.annotation.Command;
+import enterprises.iwakura.ganyu.annotation.DefaultCommand;
+import enterprises.iwakura.ganyu.annotation.RateLimit;
+import enterprises.iwakura.ganyu.exception.CommandParseException;
 import enterprises.iwakura.ganyu.impl.*;
+import enterprises.iwakura.ganyu.impl.argumentParsers.MultiValuedArguments;
+import enterprises.iwakura.ganyu.impl.argumentParsers.PrimitiveArgumentParsers;
+import enterprises.iwakura.ganyu.impl.argumentParsers.StreamArgumentParsers;
+import enterprises.iwakura.ganyu.impl.script.ScriptReport;
+import enterprises.iwakura.ganyu.impl.script.ScriptRunner;
+import enterprises.iwakura.ganyu.impl.server.GanyuServer;
 import enterprises.iwakura.ganyu.test.TestCommand;
+import enterprises.iwakura.arguments.GreedySomeArg;
 import enterprises.iwakura.parsers.GreedySomeArgParser;
 import enterprises.iwakura.parsers.SomeArgParser;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,7 +76,7 @@ public class GanyuTest {
         input = new WritableInput();
         ganyu = Ganyu.standard(input, new ConsoleOutput());
 
-        ganyu.registerCommands(new TestCommand());
+        ganyu.registerCommands(new TestCommand(), new NestedEnumCommand());
         ganyu.registerArgumentParser(new SomeArgParser());
         ganyu.registerArgumentParser(new GreedySomeArgParser());
 
@@ -218,4 +267,1346 @@ public class GanyuTest {
         input.write("test greedy-some-arg " + value);
         assertEquals("Received GreedySomeArg with value: " + value, waitForReference(TestCommand.lastOutputReference));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSomeEnumCommand() {
+        input.write("test some-enum second_value");
+        assertEquals("Received SomeEnum with value: SECOND_VALUE", waitForReference(TestCommand.lastOutputReference));
+    }
+
+    @Test
+    public void testYearCommand() {
+        input.write("test year 2024");
+        assertEquals("Received Year with value: 2024", waitForReference(TestCommand.lastOutputReference));
+    }
+
+    @Test
+    public void testSumIntsCommand() {
+        input.write("test sum-ints total 1,2 3   4");
+        assertEquals("total: 10", waitForReference(TestCommand.lastOutputReference));
+    }
+
+    @Test
+    public void testListIdsCommand_repeatedNamedArgument() {
+        input.write("test list-ids -id 1 -tag b -id 2,3 -tag a -tag b");
+        assertEquals("Ids: [1, 2, 3], Tags: [b, a]", waitForReference(TestCommand.lastOutputReference));
+    }
+
+    @Test
+    public void testParseIntArray() {
+        assertArrayEquals(new int[] {-2147483648, 0, 42}, MultiValuedArguments.parseIntArray(" -2147483648, 0 ,42 "));
+        assertThrows(CommandParseException.class, () -> MultiValuedArguments.parseIntArray("1,2147483648"));
+    }
+
+    @Test
+    @SneakyThrows
+    public void testPayloadSizeCommand_file() {
+        Path file = Files.createTempFile("ganyu-payload", ".txt");
+        try {
+            Files.write(file, new byte[100_000]);
+            StreamArgumentParsers.register(ganyu, StreamArgumentParsers.FileAccess.within(file.getParent()));
+            input.write("test payload-size @" + file.getFileName());
+            assertEquals("Payload size: 100000", waitForReference(TestCommand.lastOutputReference));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testPayloadSizeCommand_inline() {
+        input.write("test payload-size @@inline");
+        assertEquals("Payload size: 7", waitForReference(TestCommand.lastOutputReference));
+    }
+
+    @Test
+    public void testPayloadSizeCommand_channelInput() {
+        byte[] bytes = "test payload-size @-\nfirst line\nsecond line".getBytes(StandardCharsets.UTF_8);
+        Ganyu channelGanyu = Ganyu.standard(new ChannelInput(Channels.newChannel(new ByteArrayInputStream(bytes))), new ConsoleOutput());
+        channelGanyu.registerCommands(new TestCommand());
+        channelGanyu.run();
+        assertEquals("Payload size: 22", waitForReference(TestCommand.lastOutputReference));
+    }
+
+    @Test
+    @SneakyThrows
+    public void testPayloadLinesCommand_closesStreams() {
+        Path file = Files.createTempFile("ganyu-payload", ".txt");
+        try {
+            Files.write(file, Arrays.asList("first", "second", "third"));
+            StreamArgumentParsers.register(ganyu, StreamArgumentParsers.FileAccess.within(file.getParent()));
+            input.write("test payload-lines -f \"@" + file + "\" -c inline");
+            assertEquals("Payload lines: 3", waitForReference(TestCommand.lastOutputReference));
+            waitForReference(TestCommand.postCommandOutputReference);
+            for (int i = 0; i < 100 && TestCommand.lastChannel.get().isOpen(); i++) {
+                Thread.sleep(10);
+            }
+            assertFalse(TestCommand.lastChannel.get().isOpen());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testPayloadSizeCommand_fileReferencesDisabled() {
+        input.write("test payload-size @/etc/hostname");
+        Exception exception = waitForReference(TestCommand.lastException);
+        assertInstanceOf(CommandParseException.class, exception);
+        assertEquals("File references are disabled: @/etc/hostname", exception.getMessage());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testPayloadSizeCommand_fileOutsideBaseDirectory() {
+        Path directory = Files.createTempDirectory("ganyu-base");
+        Path file = Files.createTempFile("ganyu-payload", ".txt");
+        try {
+            StreamArgumentParsers.register(ganyu, StreamArgumentParsers.FileAccess.within(directory));
+            input.write("test payload-size @../" + file.getFileName());
+            Exception exception = waitForReference(TestCommand.lastException);
+            assertInstanceOf(CommandParseException.class, exception);
+            assertTrue(exception.getMessage().startsWith("Cannot read file outside of " + directory));
+        } finally {
+            Files.delete(file);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void testPayloadSizeCommand_fileDeniedForServerSessions() {
+        Path file = Files.createTempFile("ganyu-payload", ".txt");
+        StreamArgumentParsers.register(ganyu, StreamArgumentParsers.FileAccess.within(file.getParent()));
+        try (GanyuServer server = new GanyuServer(ganyu)) {
+            InetSocketAddress address = server.bindLoopback(0);
+            server.start();
+
+            try (SocketChannel channel = SocketChannel.open(address)) {
+                channel.write(StandardCharsets.UTF_8.encode("test payload-size @" + file.getFileName() + "\n"));
+                channel.shutdownOutput();
+                readFully(channel);
+            }
+
+            Exception exception = waitForReference(TestCommand.lastException);
+            assertInstanceOf(CommandParseException.class, exception);
+            assertEquals("File references are not allowed for remote sources: @" + file.getFileName(), exception.getMessage());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testStreamArgumentParser_refusesFilesWithoutContext() {
+        StreamArgumentParsers.FileAccess fileAccess = StreamArgumentParsers.FileAccess.within(Paths.get("/"));
+        ParseResult<InputStream> result = new StreamArgumentParsers.InputStreamArgumentParser(fileAccess).tryParse("@/does/not/exist");
+        assertFalse(result.isSuccess());
+        assertEquals("Files can only be opened within a command invocation: @/does/not/exist", result.getErrorMessage());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testChannelInput_payloadReferenceOfNonStreamCommand() {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        byte[] bytes = "test echo @-\ntest echo second".getBytes(StandardCharsets.UTF_8);
+        Ganyu channelGanyu = Ganyu.standard(new ChannelInput(Channels.newChannel(new ByteArrayInputStream(bytes))), new Output() {
+            @Override
+            public void info(String message) {
+                if (message.equals("Updating reference to: @-") || message.equals("Updating reference to: second")) {
+                    written.add(message);
+                }
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+                written.add(message);
+            }
+        });
+        channelGanyu.registerCommands(new TestCommand());
+        channelGanyu.run();
+        for (int i = 0; i < 100 && written.size() < 2; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(Arrays.asList("Updating reference to: @-", "Updating reference to: second"), written);
+    }
+
+    @Test
+    public void testLazyCommand_notAccessed() {
+        input.write("test lazy false not-a-number");
+        assertEquals("Skipped", waitForReference(TestCommand.lastOutputReference));
+    }
+
+    @Test
+    public void testLazyCommand_accessed() {
+        input.write("test lazy true 42");
+        assertEquals("Number: 42", waitForReference(TestCommand.lastOutputReference));
+    }
+
+    @Test
+    public void testLazyCommand_invalid() {
+        input.write("test lazy true not-a-number");
+        assertInstanceOf(CommandParseException.class, waitForReference(TestCommand.lastException));
+    }
+
+    @Test
+    public void testLazyIdsCommand() {
+        input.write("test lazy-ids -id 1 -id 2,3");
+        assertEquals("Lazy ids: [1, 2, 3]", waitForReference(TestCommand.lastOutputReference));
+    }
+
+    @Test
+    public void testLazyParsesOnce() {
+        AtomicInteger parseCount = new AtomicInteger();
+        Lazy<Integer> lazy = Lazy.of(() -> ParseResult.success(parseCount.incrementAndGet()));
+
+        assertFalse(lazy.isParsed());
+        assertEquals(1, lazy.get());
+        assertEquals(1, lazy.get());
+        assertTrue(lazy.isParsed());
+        assertEquals(1, parseCount.get());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testAsyncOutput_flushesOncePerBatch() {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger flushes = new AtomicInteger();
+        AsyncOutput asyncOutput = new AsyncOutput(new Output() {
+            @Override
+            public void info(String message) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add("info: " + message);
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+                written.add("error: " + message);
+            }
+
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        });
+
+        asyncOutput.info("blocking");
+        writing.await();
+        asyncOutput.info("first");
+        asyncOutput.info("second");
+        asyncOutput.error("third", null);
+        release.countDown();
+        asyncOutput.close();
+
+        assertEquals(Arrays.asList("info: blocking", "info: first", "info: second", "error: third"), written);
+        assertEquals(2, flushes.get());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testAsyncOutput_dropInfoWhenFull() {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        AsyncOutput asyncOutput = new AsyncOutput(new Output() {
+            @Override
+            public void info(String message) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(message);
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+                written.add(message);
+            }
+        }, 2, AsyncOutput.OverflowPolicy.DROP_INFO);
+
+        asyncOutput.info("blocking");
+        writing.await();
+        asyncOutput.info("first");
+        asyncOutput.info("second");
+        asyncOutput.info("dropped");
+        release.countDown();
+        asyncOutput.close();
+
+        assertEquals(1, asyncOutput.getDroppedMessages());
+        assertEquals(Arrays.asList("blocking", "first", "second"), written);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testAsyncOutput_dropOldestKeepsErrors() {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        AsyncOutput asyncOutput = new AsyncOutput(new Output() {
+            @Override
+            public void info(String message) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(message);
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+                written.add(message);
+            }
+        }, 2, AsyncOutput.OverflowPolicy.DROP_OLDEST);
+
+        asyncOutput.info("blocking");
+        writing.await();
+        asyncOutput.error("first error", null);
+        asyncOutput.info("first");
+        asyncOutput.info("second");
+        asyncOutput.error("second error", null);
+        asyncOutput.info("dropped");
+        release.countDown();
+        asyncOutput.close();
+
+        assertEquals(3, asyncOutput.getDroppedMessages());
+        assertEquals(Arrays.asList("blocking", "first error", "second error"), written);
+    }
+
+    @Test
+    public void testAsyncOutput_survivesDelegateErrors() {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        List<Throwable> handled = Collections.synchronizedList(new ArrayList<>());
+        AsyncOutput asyncOutput = new AsyncOutput(new Output() {
+            @Override
+            public void info(String message) {
+                if (message.equals("fatal")) {
+                    throw new AssertionError("Broken delegate");
+                }
+                written.add(message);
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+            }
+        });
+        asyncOutput.setExceptionHandler((thread, exception) -> handled.add(exception));
+
+        asyncOutput.info("fatal");
+        asyncOutput.info("written");
+        asyncOutput.close();
+
+        assertEquals(1, handled.size());
+        assertEquals(Collections.singletonList("written"), written);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testAsyncOutput_dropsMessagesOnceWriterDied() {
+        AsyncOutput asyncOutput = new AsyncOutput(new Output() {
+            @Override
+            public void info(String message) {
+                throw new IllegalStateException("Broken pipe: " + message);
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+            }
+        }, 1, AsyncOutput.OverflowPolicy.BLOCK);
+        asyncOutput.setExceptionHandler((thread, exception) -> {
+            throw new IllegalStateException("Broken handler", exception);
+        });
+
+        asyncOutput.info("lost");
+        asyncOutput.flush();
+
+        CompletableFuture<Void> enqueued = CompletableFuture.runAsync(() -> {
+            asyncOutput.info("first");
+            asyncOutput.info("second");
+            asyncOutput.error("third", null);
+        });
+        enqueued.get(1, TimeUnit.SECONDS);
+        assertEquals(3, asyncOutput.getDroppedMessages());
+    }
+
+    @Test
+    public void testAsyncOutput_reportsDelegateExceptions() {
+        List<Throwable> handled = Collections.synchronizedList(new ArrayList<>());
+        AsyncOutput asyncOutput = new AsyncOutput(new Output() {
+            @Override
+            public void info(String message) {
+                throw new IllegalStateException("Broken pipe: " + message);
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+            }
+        });
+        asyncOutput.setExceptionHandler((thread, exception) -> handled.add(exception));
+
+        asyncOutput.info("lost");
+        asyncOutput.close();
+
+        assertEquals(1, handled.size());
+        assertEquals("Broken pipe: lost", handled.get(0).getMessage());
+    }
+
+    @Test
+    public void testInvocationOutput_buffersUntilComplete() {
+        ReadableOutput parent = new ReadableOutput();
+        InvocationOutput invocationOutput = new InvocationOutput(parent, 1024);
+
+        invocationOutput.info("first");
+        invocationOutput.info("second");
+        assertNull(parent.getLastOutput());
+
+        invocationOutput.complete();
+        assertEquals("second", parent.getLastOutput());
+
+        invocationOutput.info("third");
+        assertEquals("third", parent.getLastOutput());
+    }
+
+    @Test
+    public void testInvocationOutput_streamsPastLimit() {
+        ReadableOutput parent = new ReadableOutput();
+        InvocationOutput invocationOutput = new InvocationOutput(parent, 10);
+
+        invocationOutput.info("12345");
+        assertFalse(invocationOutput.isStreaming());
+        invocationOutput.info("678901");
+        assertTrue(invocationOutput.isStreaming());
+        assertEquals("678901", parent.getLastOutput());
+
+        invocationOutput.error("streamed", null);
+        assertEquals("streamed", parent.getLastOutput());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testPublishCommand_drainsPublisherInBatches() {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        Ganyu publishGanyu = Ganyu.standard(new WritableInput(), new Output() {
+            @Override
+            public void info(String message) {
+                if (message.startsWith("Number")) {
+                    written.add(message);
+                }
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+                written.add(message);
+            }
+        });
+        publishGanyu.registerCommands(new TestCommand());
+        TestCommand.publishRequests.set(0);
+
+        assertTrue(publishGanyu.submit("test publish 150").get(1, TimeUnit.SECONDS).isSuccess());
+        assertEquals(150, written.size());
+        assertEquals("Number 150", written.get(149));
+        assertEquals(3, TestCommand.publishRequests.get());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testCountCommand_streamsToOutput() {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        WritableInput countInput = new WritableInput();
+        Ganyu countGanyu = Ganyu.standard(countInput, new Output() {
+            @Override
+            public void info(String message) {
+                if (message.startsWith("Number")) {
+                    written.add(message);
+                }
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+                written.add(message);
+            }
+        });
+        countGanyu.registerCommands(new TestCommand());
+        countGanyu.run();
+
+        countInput.write("test count 3");
+        for (int i = 0; i < 100 && written.size() < 3; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(Arrays.asList("Number 1", "Number 2", "Number 3"), written);
+    }
+
+    @Test
+    public void testFailingIteratorCommand() {
+        input.write("test failing-iterator");
+        Exception exception = waitForReference(TestCommand.lastException);
+        assertInstanceOf(IllegalStateException.class, exception);
+        assertEquals("Iterator failure", exception.getMessage());
+    }
+
+    @Test
+    public void testTableWriter_aligned() {
+        List<String> written = new ArrayList<>();
+        Output output = new Output() {
+            @Override
+            public void info(String message) {
+                written.add(message);
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+            }
+        };
+
+        try (TableWriter table = new TableWriter(output, TableWriter.Mode.ALIGNED, 2, "id", "name", "role")) {
+            table.row(1, "alice", "admin");
+            assertTrue(written.isEmpty());
+            table.row(2, "bob", null);
+            table.row(3, "christopher", "user");
+        }
+
+        assertEquals(Arrays.asList(
+            "id  name   role",
+            "--  -----  -----",
+            "1   alice  admin",
+            "2   bob    ",
+            "3   christopher  user"
+        ), written);
+    }
+
+    @Test
+    public void testTableWriter_tsv() {
+        ReadableOutput output = new ReadableOutput();
+        TableWriter table = output.table(TableWriter.Mode.TSV, "key", "value");
+        assertEquals("key\tvalue", output.getLastOutput());
+
+        table.row("multi\nline", "tab\there");
+        assertEquals("multi\\nline\ttab\\there", output.getLastOutput());
+        assertEquals(1, table.getRowCount());
+    }
+
+    @Test
+    public void testJsonLinesOutput_escapesMessages() {
+        StringWriter writer = new StringWriter();
+        JsonLinesOutput output = new JsonLinesOutput(writer);
+
+        output.info("say \"hi\"\n\tback\\slash \u0001");
+        output.error("failed", new IllegalStateException("broken"));
+        output.flush();
+
+        assertEquals("{\"phase\":\"info\",\"message\":\"say \\\"hi\\\"\\n\\tback\\\\slash \\u0001\"}\n"
+            + "{\"phase\":\"error\",\"message\":\"failed\",\"exception\":\"java.lang.IllegalStateException: broken\"}\n",
+            writer.toString());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testJsonLinesOutput_invocationRecords() {
+        StringWriter writer = new StringWriter();
+        WritableInput jsonInput = new WritableInput();
+        Ganyu jsonGanyu = Ganyu.standard(jsonInput, new JsonLinesOutput(writer));
+        jsonGanyu.registerCommands(new TestCommand());
+        jsonGanyu.run();
+
+        jsonInput.write("test payload \"a b\"");
+        for (int i = 0; i < 100 && !writer.toString().contains("\"phase\":\"finished\""); i++) {
+            Thread.sleep(10);
+        }
+
+        String[] records = writer.toString().split("\n");
+        assertTrue(records[0].matches("\\{\"invocation\":\\d+,\"phase\":\"started\",\"command\":\"test payload\","
+            + "\"arguments\":\"\\\\\"a b\\\\\"\",\"time\":\\d+}"), records[0]);
+        String finished = records[records.length - 1];
+        assertTrue(finished.contains("\"phase\":\"finished\",\"command\":\"test payload\",\"success\":true,\"error\":null,"
+            + "\"payload\":{\"name\":\"\\\"a b\\\"\",\"sizes\":[1,2]},\"durationMicros\":"), finished);
+    }
+
+    @Test
+    public void testTrainingRun_waitsForInvocations() {
+        List<String> infos = Collections.synchronizedList(new ArrayList<>());
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        Ganyu trainingGanyu = Ganyu.standard(new WritableInput(), new Output() {
+            @Override
+            public void info(String message) {
+                infos.add(message);
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+                errors.add(message);
+            }
+        });
+        trainingGanyu.registerCommands(new TestCommand());
+        TestCommand.postCommandOutputReference.set("");
+
+        trainingGanyu.trainingRun("test echo warm-up");
+
+        assertEquals("Post command executed for: warm-up", TestCommand.postCommandOutputReference.get());
+        assertTrue(infos.contains("Updating reference to: warm-up"));
+        assertTrue(infos.contains("echo"));
+        assertFalse(infos.stream().anyMatch(message -> message.startsWith("Unknown command")));
+        assertEquals(Collections.emptyList(), errors);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testSubmit_returnsTypedPayload() {
+        CommandResult result = ganyu.submit("test payload alpha").get(1, TimeUnit.SECONDS);
+        assertTrue(result.isSuccess());
+        assertEquals("alpha", result.getPayload(Map.class).get("name"));
+        assertFalse(result.findPayload(String.class).isPresent());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testSubmit_reportsFailures() {
+        CommandResult unknown = ganyu.submit("unknown-command").get(1, TimeUnit.SECONDS);
+        assertFalse(unknown.isSuccess());
+        assertEquals("Unknown command: unknown-command", unknown.getErrorMessage());
+
+        CommandResult invalid = ganyu.submit("test sum-ints 1 two").get(1, TimeUnit.SECONDS);
+        assertFalse(invalid.isSuccess());
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> ganyu.submit("test throw-exception").get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RuntimeException.class, exception.getCause());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testGanyuServer_sessionsKeepOrderAndOwnOutput() {
+        try (GanyuServer server = new GanyuServer(ganyu)) {
+            InetSocketAddress address = server.bindLoopback(0);
+            server.start();
+
+            try (SocketChannel first = SocketChannel.open(address); SocketChannel second = SocketChannel.open(address)) {
+                first.write(StandardCharsets.UTF_8.encode("test count 2\r\nunknown-first\n"));
+                second.write(StandardCharsets.UTF_8.encode("unknown-second\n"));
+                first.shutdownOutput();
+                second.shutdownOutput();
+
+                assertEquals("Number 1\nNumber 2\nUnknown command: unknown-first\n", readFully(first));
+                assertEquals("Unknown command: unknown-second\n", readFully(second));
+            }
+        }
+    }
+
+    @SneakyThrows
+    private static String readFully(SocketChannel channel) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        while (channel.read(buffer) >= 0) {
+            if (!buffer.hasRemaining()) {
+                fail("Unexpected amount of output");
+            }
+        }
+        buffer.flip();
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+
+    @Test
+    @SneakyThrows
+    public void testPushInput_dispatchesWithoutReaderThread() {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        PushInput pushInput = new PushInput();
+        Ganyu pushGanyu = Ganyu.standard(pushInput, new Output() {
+            @Override
+            public void info(String message) {
+                if (message.startsWith("Number")) {
+                    written.add(message);
+                }
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+                written.add(message);
+            }
+        });
+        pushGanyu.registerCommands(new TestCommand());
+
+        pushInput.push("test count 1");
+        pushGanyu.run();
+        pushInput.push("");
+        pushInput.push("test count 2");
+        pushInput.close();
+        for (int i = 0; i < 100 && written.size() < 3; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(Thread.State.NEW, pushGanyu.getCommandReaderThread().getState());
+        assertEquals(Arrays.asList("Number 1", "Number 1", "Number 2"), written);
+        assertThrows(IllegalStateException.class, () -> pushInput.push("test count 3"));
+    }
+
+    @Test
+    public void testPushInput_stopsReading() {
+        PushInput pushInput = new PushInput();
+        ReadableOutput readableOutput = new ReadableOutput();
+        Ganyu pushGanyu = Ganyu.standard(pushInput, readableOutput);
+        pushGanyu.run();
+        pushGanyu.stop();
+
+        pushInput.push("unknown-command");
+        assertNull(readableOutput.getLastOutput());
+    }
+
+    @Test
+    public void testPushInput_restartDispatchesOnce() {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        PushInput pushInput = new PushInput();
+        Ganyu pushGanyu = Ganyu.standard(pushInput, new Output() {
+            @Override
+            public void info(String message) {
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+                written.add(message);
+            }
+        });
+        pushGanyu.run();
+        pushGanyu.stop();
+        pushGanyu.run();
+
+        pushInput.push("unknown-first");
+        pushInput.push("unknown-second");
+        assertEquals(Arrays.asList("Unknown command: unknown-first", "Unknown command: unknown-second"), written);
+    }
+
+    @Test
+    public void testAttachInput_writesToOwnOutput() {
+        PushInput attachedInput = new PushInput();
+        ReadableOutput attachedOutput = new ReadableOutput();
+        ganyu.attachInput(attachedInput, attachedOutput);
+        assertThrows(IllegalArgumentException.class, () -> ganyu.attachInput(attachedInput, attachedOutput));
+
+        attachedInput.push("unknown-attached");
+        assertEquals("Unknown command: unknown-attached", attachedOutput.getLastOutput());
+
+        assertTrue(ganyu.detachInput(attachedInput));
+        attachedInput.push("unknown-detached");
+        assertEquals("Unknown command: unknown-attached", attachedOutput.getLastOutput());
+    }
+
+    @Test
+    public void testDispatchQueue_roundRobin() {
+        List<Runnable> workers = new ArrayList<>();
+        List<String> order = new ArrayList<>();
+        DispatchQueue queue = new DispatchQueue(workers::add, 1);
+
+        queue.submit("chatty", () -> order.add("chatty 1"));
+        queue.submit("chatty", () -> order.add("chatty 2"));
+        queue.submit("chatty", () -> order.add("chatty 3"));
+        queue.submit("quiet", () -> order.add("quiet 1"));
+        assertEquals(1, workers.size());
+        assertEquals(4, queue.getQueuedTasks());
+
+        workers.get(0).run();
+        assertEquals(Arrays.asList("chatty 1", "quiet 1", "chatty 2", "chatty 3"), order);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testCommandRegistry_sharedBetweenInstances() {
+        CommandRegistry shared = new CommandRegistry();
+        shared.registerCommands(new TestCommand());
+        shared.registerArgumentParser(new SomeArgParser());
+        shared.freeze();
+        assertThrows(IllegalStateException.class, () -> shared.registerCommands(new TestCommand()));
+
+        Ganyu first = Ganyu.standard(new WritableInput(), new ReadableOutput(), shared);
+        Ganyu second = Ganyu.standard(new WritableInput(), new ReadableOutput(), shared);
+        second.registerArgumentParser(new GreedySomeArgParser());
+
+        assertSame(shared, first.getCommandRegistry().getParent());
+        assertSame(shared.getCommand("test payload"), second.getCommandRegistry().getCommand("test payload"));
+        assertNotNull(second.getCommandRegistry().getCommand("help"));
+        assertNotNull(second.getCommandRegistry().getArgumentParser(GreedySomeArg.class));
+        assertNull(first.getCommandRegistry().getArgumentParser(GreedySomeArg.class));
+
+        CommandResult result = first.submit("test payload shared").get(1, TimeUnit.SECONDS);
+        assertEquals("shared", result.getPayload(Map.class).get("name"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedSetters_registerIntoRegistry() {
+        Ganyu other = Ganyu.standard(new WritableInput(), new ReadableOutput());
+        other.setArgumentParsers(Collections.singletonMap(GreedySomeArg.class, new GreedySomeArgParser()));
+        other.setRegisteredCommands(Collections.singletonList(ganyu.getCommandRegistry().getCommand("test")));
+
+        assertNotNull(other.getCommandRegistry().getArgumentParser(GreedySomeArg.class));
+        assertSame(ganyu.getCommandRegistry().getCommand("test payload"), other.getCommandRegistry().getCommand("test payload"));
+    }
+
+    @Test
+    public void testCommandRegistry_requiresFrozenParent() {
+        assertThrows(IllegalArgumentException.class, () -> new CommandRegistry(new CommandRegistry()));
+        assertTrue(CommandRegistry.defaults().isFrozen());
+    }
+
+    @Test
+    public void testTryParseInvalidInteger() {
+        ParseResult<Integer> result = new PrimitiveArgumentParsers.IntegerArgumentParser().tryParse("2147483648");
+        assertFalse(result.isSuccess());
+        assertEquals("Invalid integer value: 2147483648", result.getErrorMessage());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testTryParseMalformedUUIDAndHexadecimal() {
+        ParseResult<UUID> uuid = new PrimitiveArgumentParsers.UUIDArgumentParser().tryParse("ffffffffffffffff-0-0-0-0");
+        assertFalse(uuid.isSuccess());
+        assertEquals("Invalid UUID format: ffffffffffffffff-0-0-0-0", uuid.getErrorMessage());
+        assertEquals(new UUID(1L << 32 | 2L << 16 | 3, 4L << 48 | 5), new PrimitiveArgumentParsers.UUIDArgumentParser().tryParse("1-2-3-4-5").getOrThrow());
+
+        assertFalse(new PrimitiveArgumentParsers.DoubleArgumentParser().tryParse("xyz").isSuccess());
+        assertFalse(new PrimitiveArgumentParsers.DoubleArgumentParser().tryParse("0x1.8").isSuccess());
+        assertEquals(Double.valueOf(3.0), new PrimitiveArgumentParsers.DoubleArgumentParser().tryParse("0x1.8p1").getOrThrow());
+        assertEquals(Float.valueOf(-3.0f), new PrimitiveArgumentParsers.FloatArgumentParser().tryParse("-0X1.8P1f").getOrThrow());
+    }
+
+    @Test
+    public void testCommandParseExceptionIsStackless() {
+        assertEquals(0, new CommandParseException("Invalid input").getStackTrace().length);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testPipeline_streamsBetweenStages() {
+        // More lines than the pipes buffer, so that the stages have to run concurrently
+        CommandResult result = ganyu.submit("test count 1000 | test grep 7 | test line-count").get(10, TimeUnit.SECONDS);
+
+        assertTrue(result.isSuccess());
+        assertEquals(271L, result.getPayload(Long.class));
+        assertEquals(0L, ganyu.submit("test line-count").get().getPayload(Long.class));
+    }
+
+    @Test
+    @SneakyThrows
+    public void testPipeline_unknownStage() {
+        ReadableOutput readableOutput = new ReadableOutput();
+        CommandResult result = ganyu.submit("test count 2 | nope", input, readableOutput).get(10, TimeUnit.SECONDS);
+
+        assertFalse(result.isSuccess());
+        assertEquals("Unknown command: nope", result.getErrorMessage());
+        assertEquals("Unknown command: nope", readableOutput.getLastOutput());
+    }
+
+    @Test
+    public void testSplitPipeline_ignoresQuotedSeparators() {
+        assertEquals(Arrays.asList("test echo \"a | b\"", "test grep a"), CommandLines.splitPipeline("test echo \"a | b\" | test grep a"));
+        assertEquals(Collections.singletonList("test echo a"), CommandLines.splitPipeline("test echo a"));
+    }
+
+    @Test
+    @SneakyThrows
+    public void testChain_shortCircuitsOnFailure() {
+        CommandResult result = ganyu.submit("test echo first ; test count x && test echo skipped && test echo skipped too ; test echo last").get(10, TimeUnit.SECONDS);
+        assertTrue(result.isSuccess());
+        assertEquals("last", TestCommand.lastOutputReference.get());
+
+        result = ganyu.submit("test echo first && test count x && test echo skipped").get(10, TimeUnit.SECONDS);
+        assertFalse(result.isSuccess());
+        assertNotEquals("skipped", TestCommand.lastOutputReference.get());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testChain_looksUpAllCommandsFirst() {
+        TestCommand.lastOutputReference.set("");
+        CommandResult result = ganyu.submit("test echo ran ; test count 3 | nope").get(10, TimeUnit.SECONDS);
+
+        assertFalse(result.isSuccess());
+        assertEquals("Unknown command: nope", result.getErrorMessage());
+        assertEquals("", TestCommand.lastOutputReference.get());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testChain_runsOnCommandExecutors() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "chain-executor"));
+        ExecutorService pool = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-pool-thread"));
+        try {
+            Ganyu chainGanyu = Ganyu.standardWithExecutor(new WritableInput(), new ConsoleOutput(), executor);
+            chainGanyu.registerCommands(new TestCommand());
+            chainGanyu.registerExecutor("test-pool", pool);
+            TestCommand.threadNames.clear();
+
+            CommandResult result = chainGanyu.submit("test record-thread ; test record-thread ; test record-thread ; test thread-name").get(10, TimeUnit.SECONDS);
+
+            assertEquals(Arrays.asList("chain-executor", "chain-executor", "chain-executor"), TestCommand.threadNames);
+            assertEquals("test-pool-thread", result.getPayload(String.class));
+        } finally {
+            executor.shutdown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSplitChain_ignoresQuotedSeparators() {
+        List<CommandLines.ChainedCommand> chain = CommandLines.splitChain("test echo \"a ; b\" && test echo c & d");
+
+        assertEquals(2, chain.size());
+        assertEquals("test echo \"a ; b\"", chain.get(0).getCommandLine());
+        assertFalse(chain.get(0).isConditional());
+        assertEquals("test echo c & d", chain.get(1).getCommandLine());
+        assertTrue(chain.get(1).isConditional());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testScriptRunner_stopsOnFailure() {
+        ScriptRunner runner = new ScriptRunner(ganyu);
+        runner.setOutput(new ReadableOutput());
+
+        ScriptReport report = runner.run(new StringReader(String.join("\n",
+            "# Deploy script",
+            "test echo one",
+            "",
+            "[counting]",
+            "test count 2",
+            "[failing after main, counting]",
+            "test count x",
+            "test echo never")));
+
+        assertFalse(report.isSuccess());
+        assertEquals(Arrays.asList(2, 5, 7, 8), report.getLines().stream().map(ScriptReport.LineResult::getLineNumber).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(ScriptReport.Status.SUCCEEDED, ScriptReport.Status.SUCCEEDED, ScriptReport.Status.FAILED, ScriptReport.Status.SKIPPED),
+            report.getLines().stream().map(ScriptReport.LineResult::getStatus).collect(Collectors.toList()));
+        assertEquals("failing", report.getFailures().get(0).getBlock());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testScriptRunner_skipsBlocksWithInvalidHeaders() {
+        ScriptRunner runner = new ScriptRunner(ganyu);
+        runner.setOutput(new ReadableOutput());
+        runner.setFailurePolicy(ScriptRunner.FailurePolicy.CONTINUE);
+
+        ScriptReport report = runner.run(new StringReader("[deploy after nope]\ntest echo skipped\n[other]\ntest echo ran"));
+
+        assertEquals(3, report.getLines().size());
+        assertEquals("Unknown block: nope", report.getLines().get(0).getMessage());
+        assertEquals(ScriptReport.Status.SKIPPED, report.getLines().get(1).getStatus());
+        assertEquals(ScriptReport.Status.SUCCEEDED, report.getLines().get(2).getStatus());
+        assertEquals(1, report.count(ScriptReport.Status.FAILED));
+    }
+
+    @Test
+    @SneakyThrows
+    public void testExecuteAll_aggregatesResults() {
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            inputs.add("test payload item-" + i);
+        }
+        inputs.set(10, "test count x");
+        inputs.set(500, "nope");
+        inputs.set(600, "test echo a && test payload chained");
+
+        BatchResult result = ganyu.executeAll(inputs).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1000, result.size());
+        assertEquals(998, result.getSucceededCount());
+        assertEquals(Arrays.asList(10, 500), result.getFailures().stream().map(BatchResult.Failure::getIndex).collect(Collectors.toList()));
+        assertEquals("Unknown command: nope", result.getFailures().get(1).getErrorMessage());
+        assertEquals("item-999", result.getResults().get(999).getPayload(Map.class).get("name"));
+        assertEquals("chained", result.getResults().get(600).getPayload(Map.class).get("name"));
+    }
+
+    @Test
+    @SneakyThrows
+    public void testExecuteAll_preparedCommand() {
+        BatchResult result = ganyu.executeAll("test payload", Arrays.asList("a", "b", "c")).get(10, TimeUnit.SECONDS);
+
+        assertTrue(result.isSuccess());
+        assertEquals("c", result.getResults().get(2).getPayload(Map.class).get("name"));
+        assertThrows(IllegalArgumentException.class, () -> ganyu.executeAll("nope", Collections.singletonList("a")));
+    }
+
+    @Test
+    @SneakyThrows
+    public void testSerializeOn_keepsOrderPerKey() {
+        TestCommand.serialSteps.clear();
+        List<CompletableFuture<CommandResult>> futures = new ArrayList<>();
+        for (int step = 0; step < 50; step++) {
+            futures.add(ganyu.submit("test serial-step -k a -s " + step));
+            futures.add(ganyu.submit("test serial-step --key \"b c\" -s " + step));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        List<String> expectedA = new ArrayList<>();
+        List<String> expectedB = new ArrayList<>();
+        for (int step = 0; step < 50; step++) {
+            expectedA.add("a " + step);
+            expectedB.add("b c " + step);
+        }
+        assertEquals(expectedA, TestCommand.serialSteps.stream().filter(step -> step.startsWith("a ")).collect(Collectors.toList()));
+        assertEquals(expectedB, TestCommand.serialSteps.stream().filter(step -> step.startsWith("b c ")).collect(Collectors.toList()));
+    }
+
+    @Test
+    @SneakyThrows
+    public void testExecuteAll_serializedItemsDoNotOverlap() {
+        TestCommand.serialSteps.clear();
+        TestCommand.serialOverlaps.set(0);
+        List<String> arguments = new ArrayList<>();
+        for (int step = 0; step < 50; step++) {
+            arguments.add("-k batch -s " + step);
+        }
+
+        assertTrue(ganyu.executeAll("test serial-step", arguments).get(10, TimeUnit.SECONDS).isSuccess());
+        assertEquals(50, TestCommand.serialSteps.size());
+        assertEquals(0, TestCommand.serialOverlaps.get());
+    }
+
+    @Test
+    public void testSerialLanes_reportsTaskExceptions() {
+        List<Throwable> handled = new ArrayList<>();
+        List<String> order = new ArrayList<>();
+        SerialLanes lanes = new SerialLanes(Runnable::run);
+        lanes.setExceptionHandler((thread, exception) -> handled.add(exception));
+
+        lanes.submit("a", () -> {
+            throw new IllegalStateException("Broken task");
+        });
+        lanes.submit("a", () -> {
+            order.add("a 2");
+            return null;
+        });
+
+        assertEquals(1, handled.size());
+        assertEquals("Broken task", handled.get(0).getMessage());
+        assertEquals(Collections.singletonList("a 2"), order);
+    }
+
+    @Test
+    public void testSerialLanes_rejectedTaskIsRemoved() {
+        AtomicInteger runs = new AtomicInteger();
+        SerialLanes lanes = new SerialLanes(task -> {
+            throw new RejectedExecutionException("Rejected");
+        });
+
+        assertThrows(RejectedExecutionException.class, () -> lanes.submit("a", () -> {
+            runs.incrementAndGet();
+            return null;
+        }));
+        assertEquals(0, lanes.getQueuedTasks());
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testDispatchQueue_reportsTaskExceptions() {
+        List<Throwable> handled = new ArrayList<>();
+        DispatchQueue queue = new DispatchQueue(Runnable::run);
+        queue.setExceptionHandler((thread, exception) -> handled.add(exception));
+
+        queue.submit("source", () -> {
+            throw new IllegalStateException("Broken task");
+        });
+        AtomicInteger runs = new AtomicInteger();
+        queue.submit("source", runs::incrementAndGet);
+
+        assertEquals(1, handled.size());
+        assertEquals("Broken task", handled.get(0).getMessage());
+        assertEquals(1, runs.get());
+
+        ReadableOutput readableOutput = new ReadableOutput();
+        Ganyu outputGanyu = Ganyu.standard(new WritableInput(), readableOutput);
+        DispatchQueue replaced = new DispatchQueue(Runnable::run);
+        outputGanyu.setDispatchQueue(replaced);
+        replaced.submit("source", () -> {
+            throw new IllegalStateException("Broken task");
+        });
+        assertEquals("An unexpected error occurred while dispatching a command!", readableOutput.getLastOutput());
+        assertEquals("Broken task", readableOutput.getLastThrowable().getMessage());
+    }
+
+    @Test
+    public void testDispatchQueue_rejectedTaskIsRemoved() {
+        AtomicInteger runs = new AtomicInteger();
+        DispatchQueue queue = new DispatchQueue(task -> {
+            throw new RejectedExecutionException("Rejected");
+        }, 1);
+
+        assertThrows(RejectedExecutionException.class, () -> queue.submit("source", runs::incrementAndGet));
+        assertThrows(RejectedExecutionException.class, () -> queue.submitPriority(runs::incrementAndGet));
+        assertEquals(0, queue.getQueuedTasks());
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testSerialLanes_differentKeysRunConcurrently() {
+        List<Runnable> workers = new ArrayList<>();
+        List<String> order = new ArrayList<>();
+        SerialLanes lanes = new SerialLanes(workers::add);
+        CompletableFuture<Void> firstA = new CompletableFuture<>();
+
+        lanes.submit("a", () -> {
+            order.add("a 1");
+            return firstA;
+        });
+        lanes.submit("a", () -> {
+            order.add("a 2");
+            return null;
+        });
+        lanes.submit("b", () -> {
+            order.add("b 1");
+            return null;
+        });
+        assertEquals(2, workers.size());
+
+        workers.get(0).run();
+        workers.get(1).run();
+        assertEquals(Arrays.asList("a 1", "b 1"), order);
+        assertEquals(1, lanes.getQueuedTasks());
+
+        firstA.complete(null);
+        assertEquals(3, workers.size());
+        workers.get(2).run();
+        assertEquals(Arrays.asList("a 1", "b 1", "a 2"), order);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testRunOn_routesToNamedExecutor() {
+        ExecutorService pool = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-pool-thread"));
+        try {
+            CommandResult unrouted = ganyu.submit("test thread-name").get(1, TimeUnit.SECONDS);
+            assertNotEquals("test-pool-thread", unrouted.getPayload(String.class));
+
+            ganyu.registerExecutor("test-pool", pool);
+            assertSame(pool, ganyu.getCommandExecutor(ganyu.getCommandRegistry().getCommand("test thread-name")));
+            assertSame(ganyu.getExecutor(), ganyu.getCommandExecutor(ganyu.getCommandRegistry().getCommand("test payload")));
+
+            CommandResult routed = ganyu.submit("test thread-name").get(1, TimeUnit.SECONDS);
+            assertEquals("test-pool-thread", routed.getPayload(String.class));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void testExecuteAll_routesItemsToNamedExecutor() {
+        ExecutorService pool = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-pool-thread"));
+        try {
+            ganyu.registerExecutor("test-pool", pool);
+
+            BatchResult result = ganyu.executeAll(Collections.nCopies(20, "test thread-name")).get(10, TimeUnit.SECONDS);
+
+            assertTrue(result.isSuccess());
+            assertTrue(result.getResults().stream().allMatch(item -> "test-pool-thread".equals(item.getPayload(String.class))));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void testRunOn_reportsUnknownExecutorOnce() {
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        Ganyu routedGanyu = Ganyu.standard(new WritableInput(), new Output() {
+            @Override
+            public void info(String message) {
+            }
+
+            @Override
+            public void error(String message, Throwable throwable) {
+                errors.add(message);
+            }
+        });
+        routedGanyu.registerCommands(new TestCommand());
+
+        assertTrue(routedGanyu.submit("test thread-name").get(1, TimeUnit.SECONDS).isSuccess());
+        assertTrue(routedGanyu.submit("test thread-name").get(1, TimeUnit.SECONDS).isSuccess());
+        assertEquals(Collections.singletonList("Executor 'test-pool' of command test thread-name is not registered, running on the default executor!"), errors);
+    }
+
+    @Test
+    public void testDispatchQueue_priorityTasksJumpTheQueue() {
+        List<Runnable> workers = new ArrayList<>();
+        List<String> order = new ArrayList<>();
+        DispatchQueue queue = new DispatchQueue(workers::add, 1);
+
+        queue.submit("heavy", () -> order.add("heavy 1"));
+        queue.submit("heavy", () -> order.add("heavy 2"));
+        queue.submitPriority(() -> order.add("stop"));
+        assertEquals(1, workers.size());
+        assertEquals(3, queue.getQueuedTasks());
+
+        workers.get(0).run();
+        assertEquals(Arrays.asList("stop", "heavy 1", "heavy 2"), order);
+        assertEquals(CommandPriority.HIGH, ganyu.getCommandRegistry().getCommand("test stop").getPriority());
+        assertEquals(CommandPriority.NORMAL, ganyu.getCommandRegistry().getCommand("test payload").getPriority());
+    }
+
+    @Test
+    public void testDispatchQueue_reservedWorker() {
+        List<Runnable> workers = new ArrayList<>();
+        List<Runnable> reserved = new ArrayList<>();
+        List<String> order = new ArrayList<>();
+        DispatchQueue queue = new DispatchQueue(workers::add, 1, reserved::add);
+
+        queue.submit("heavy", () -> order.add("heavy 1"));
+        queue.submitPriority(() -> order.add("stop"));
+        queue.submitPriority(() -> order.add("drain"));
+        assertEquals(1, workers.size());
+        assertEquals(1, reserved.size());
+
+        reserved.get(0).run();
+        assertEquals(Arrays.asList("stop", "drain"), order);
+        assertEquals(1, queue.getQueuedTasks());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testRateLimit_rejectsExcessInvocations() {
+        assertTrue(ganyu.submit("test limited").get(1, TimeUnit.SECONDS).isSuccess());
+        assertTrue(ganyu.submit("test limited").get(1, TimeUnit.SECONDS).isSuccess());
+
+        CommandResult rejected = ganyu.submit("test limited").get(1, TimeUnit.SECONDS);
+        assertFalse(rejected.isSuccess());
+        assertEquals("Rate limit exceeded for command: test limited", rejected.getErrorMessage());
+        assertEquals(1, ganyu.getCommandRegistry().getCommand("test limited").getRateLimiter().getRejectedCount());
+
+        WritableInput otherInput = new WritableInput();
+        assertTrue(ganyu.submit("test limited-per-source", input, new ReadableOutput()).get(1, TimeUnit.SECONDS).isSuccess());
+        assertTrue(ganyu.submit("test limited-per-source", otherInput, new ReadableOutput()).get(1, TimeUnit.SECONDS).isSuccess());
+        assertFalse(ganyu.submit("test limited-per-source", input, new ReadableOutput()).get(1, TimeUnit.SECONDS).isSuccess());
+    }
+
+    @Test
+    public void testRateLimit_delayRejectsInterruptedThread() {
+        RateLimiter rateLimiter = new RateLimiter(1, TimeUnit.HOURS.toNanos(1), RateLimit.Policy.DELAY, false);
+        assertTrue(rateLimiter.acquire(null));
+
+        Thread.currentThread().interrupt();
+        try {
+            assertFalse(rateLimiter.acquire(null));
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+        assertEquals(1, rateLimiter.getRejectedCount());
+        assertEquals(1, rateLimiter.getDelayedCount());
+    }
+
+    @Test
+    public void testTokenBucket_burstAndDelay() {
+        TokenBucket bucket = new TokenBucket(2, TimeUnit.HOURS.toNanos(1));
+
+        assertEquals(0, bucket.acquire(0));
+        assertEquals(0, bucket.acquire(0));
+        assertEquals(-1, bucket.acquire(0));
+        assertFalse(bucket.isFull());
+
+        long delay = bucket.acquire(Long.MAX_VALUE);
+        assertTrue(delay > TimeUnit.MINUTES.toNanos(29) && delay <= TimeUnit.MINUTES.toNanos(30));
+    }
+
+    @Test
+    @SneakyThrows
+    public void testCacheable_coalescesAndCachesResults() {
+        TestCommand.cachedInvocations.set(0);
+        TestCommand.cachedGate = new CompletableFuture<>();
+
+        CompletableFuture<CommandResult> first = ganyu.submit("test cached a");
+        CompletableFuture<CommandResult> coalesced = ganyu.submit("test cached a");
+        CompletableFuture<CommandResult> other = ganyu.submit("test cached b");
+        assertEquals(2, TestCommand.cachedInvocations.get());
+
+        TestCommand.cachedGate.complete(null);
+        assertEquals("a 1", first.get(1, TimeUnit.SECONDS).getPayload(String.class));
+        assertEquals("a 1", coalesced.get(1, TimeUnit.SECONDS).getPayload(String.class));
+        assertEquals("b 2", other.get(1, TimeUnit.SECONDS).getPayload(String.class));
+
+        assertEquals("a 1", ganyu.submit("test cached a").get(1, TimeUnit.SECONDS).getPayload(String.class));
+        assertEquals("Post command executed for: a", TestCommand.postCommandOutputReference.get());
+        assertEquals(2, TestCommand.cachedInvocations.get());
+
+        ResultCache resultCache = ganyu.getResultCache(ganyu.getCommandRegistry().getCommand("test cached"));
+        assertEquals(2, resultCache.getMissCount());
+        assertEquals(2, resultCache.getHitCount());
+
+        assertEquals("c 3", ganyu.submit("test cached c").get(1, TimeUnit.SECONDS).getPayload(String.class));
+        assertEquals(2, resultCache.size());
+        assertEquals("b 4", ganyu.submit("test cached b").get(1, TimeUnit.SECONDS).getPayload(String.class));
+    }
+
+    @Test
+    @SneakyThrows
+    public void testCacheable_perInstanceWithSharedRegistry() {
+        TestCommand.cachedInvocations.set(0);
+        TestCommand.cachedGate = CompletableFuture.completedFuture(null);
+        CommandRegistry shared = new CommandRegistry();
+        shared.registerCommands(new TestCommand());
+        shared.freeze();
+
+        Ganyu first = Ganyu.standard(new WritableInput(), new ReadableOutput(), shared);
+        Ganyu second = Ganyu.standard(new WritableInput(), new ReadableOutput(), shared);
+
+        assertEquals("a 1", first.submit("test cached a").get(1, TimeUnit.SECONDS).getPayload(String.class));
+        assertEquals("a 2", second.submit("test cached a").get(1, TimeUnit.SECONDS).getPayload(String.class));
+        assertEquals("a 1", first.submit("test cached a").get(1, TimeUnit.SECONDS).getPayload(String.class));
+        assertNotSame(first.getResultCache(shared.getCommand("test cached")), second.getResultCache(shared.getCommand("test cached")));
+        assertNull(first.getResultCache(shared.getCommand("test payload")));
+    }
+
+    @Test
+    public void testCacheable_rejectsStreamingResults() {
+        assertThrows(IllegalArgumentException.class, () -> new CommandRegistry().registerCommands(new CacheableStreamCommand()));
+    }
+
+    @Command("cacheable-stream")
+    public static class CacheableStreamCommand implements GanyuCommand {
+
+        @DefaultCommand
+        @Cacheable(ttl = 5)
+        public Stream<String> numbers(CommandInvocationContext ctx) {
+            return Stream.of("1", "2");
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void testDiscoveredParsers_packagePrivateEnum() {
+        CommandResult result = ganyu.submit("nested-enum second").get(1, TimeUnit.SECONDS);
+        assertTrue(result.isSuccess());
+        assertEquals(NestedEnumCommand.Level.SECOND, result.getPayload(NestedEnumCommand.Level.class));
+    }
+
+    @Test
+    public void testDiscoveredParsers_unresolvableTypeRejectedAtRegistration() {
+        CommandRegistry registry = new CommandRegistry();
+        assertThrows(IllegalArgumentException.class, () -> registry.registerCommands(new UnparsableArgumentCommand()));
+        assertNull(registry.getCommand("unparsable"));
+    }
+
+    @Command("nested-enum")
+    public static class NestedEnumCommand implements GanyuCommand {
+
+        enum Level {
+            FIRST, SECOND
+        }
+
+        @DefaultCommand
+        public CommandResult level(CommandInvocationContext ctx, Level level) {
+            return CommandResult.success(level);
+        }
+    }
+
+    @Command("unparsable")
+    public static class UnparsableArgumentCommand implements GanyuCommand {
+
+        @DefaultCommand
+        public void run(CommandInvocationContext ctx, Runnable runnable) {
+        }
+    }
+}
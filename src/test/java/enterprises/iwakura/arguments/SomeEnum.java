@@ -0,0 +1,8 @@
+package enterprises.iwakura.arguments;
+
+public enum SomeEnum {
+
+    FIRST_VALUE,
+    SECOND_VALUE
+
+}
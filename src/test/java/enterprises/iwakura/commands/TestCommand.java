@@ -2,15 +2,41 @@ package enterprises.iwakura.ganyu.test;
 
 import enterprises.iwakura.arguments.GreedySomeArg;
 import enterprises.iwakura.arguments.SomeArg;
+import enterprises.iwakura.arguments.SomeEnum;
 import enterprises.iwakura.ganyu.CommandInvocationContext;
 import enterprises.iwakura.ganyu.CommandResult;
 import enterprises.iwakura.ganyu.GanyuCommand;
+import enterprises.iwakura.ganyu.Lazy;
 import enterprises.iwakura.ganyu.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Command("test")
 @Syntax("<long ahh syntax text here>")
@@ -21,6 +47,14 @@ public class TestCommand implements GanyuCommand {
     public static final AtomicReference<String> preCommandOutputReference = new AtomicReference<>("");
     public static final AtomicReference<String> postCommandOutputReference = new AtomicReference<>("");
     public static final AtomicReference<Exception> lastException = new AtomicReference<>(null);
+    public static final AtomicReference<ReadableByteChannel> lastChannel = new AtomicReference<>(null);
+    public static final List<String> serialSteps = Collections.synchronizedList(new ArrayList<>());
+    public static final Map<String, AtomicInteger> serialRunning = new ConcurrentHashMap<>();
+    public static final AtomicInteger serialOverlaps = new AtomicInteger();
+    public static final List<String> threadNames = Collections.synchronizedList(new ArrayList<>());
+    public static final AtomicInteger publishRequests = new AtomicInteger();
+    public static final AtomicInteger cachedInvocations = new AtomicInteger();
+    public static volatile CompletableFuture<Void> cachedGate = CompletableFuture.completedFuture(null);
 
     private <T> void updateReference(CommandInvocationContext ctx, AtomicReference<T> reference, T message) {
         synchronized (reference) {
@@ -116,6 +150,7 @@ public class TestCommand implements GanyuCommand {
     }
 
     @SubCommand("stop")
+    @Priority
     @Description("Stops the application.")
     public void stop(CommandInvocationContext ctx) {
         updateReference(ctx, lastOutputReference, "Stopping!");
@@ -133,6 +168,217 @@ public class TestCommand implements GanyuCommand {
         updateReference(ctx, lastOutputReference, "Received GreedySomeArg with value: " + someArg.getStringValue());
     }
 
+    @SubCommand("some-enum")
+    @Description("Command with enum argument type.")
+    public void someEnum(CommandInvocationContext ctx, SomeEnum someEnum) {
+        updateReference(ctx, lastOutputReference, "Received SomeEnum with value: " + someEnum);
+    }
+
+    @SubCommand("year")
+    @Description("Command with argument type parsed by its static factory method.")
+    public void year(CommandInvocationContext ctx, Year year) {
+        updateReference(ctx, lastOutputReference, "Received Year with value: " + year);
+    }
+
+    @SubCommand("sum-ints")
+    @Syntax("<numbers...>")
+    @Description("Sums all specified integers.")
+    public void sumInts(CommandInvocationContext ctx, String label, int[] numbers) {
+        updateReference(ctx, lastOutputReference, String.format("%s: %d", label, Arrays.stream(numbers).sum()));
+    }
+
+    @SubCommand("list-ids")
+    @NamedArgumentHandler
+    @Description("Lists all specified ids.")
+    public void listIds(CommandInvocationContext ctx, @NamedArg("id") List<Long> ids, @OptionalArg @NamedArg("tag") Set<String> tags) {
+        updateReference(ctx, lastOutputReference, "Ids: " + ids + ", Tags: " + tags);
+    }
+
+    @SubCommand("payload-size")
+    @Syntax("<@file|@-|text>")
+    @Description("Counts the bytes of a payload.")
+    public void payloadSize(CommandInvocationContext ctx, InputStream payload) throws IOException {
+        long size = 0;
+        while (payload.read() != -1) {
+            size++;
+        }
+        updateReference(ctx, lastOutputReference, "Payload size: " + size);
+    }
+
+    @SubCommand("payload-lines")
+    @NamedArgumentHandler
+    @Description("Counts the lines of a payload.")
+    public void payloadLines(CommandInvocationContext ctx, @NamedArg("f") Reader payload, @NamedArg("c") ReadableByteChannel channel) {
+        lastChannel.set(channel);
+        updateReference(ctx, lastOutputReference, "Payload lines: " + new BufferedReader(payload).lines().count());
+    }
+
+    @SubCommand("lazy")
+    @Syntax("<parse> <number>")
+    @Description("Parses the number only if requested.")
+    public void lazy(CommandInvocationContext ctx, boolean parse, Supplier<Integer> number) {
+        updateReference(ctx, lastOutputReference, parse ? "Number: " + number.get() : "Skipped");
+    }
+
+    @SubCommand("lazy-ids")
+    @NamedArgumentHandler
+    @Description("Lists all specified ids, parsed lazily.")
+    public void lazyIds(CommandInvocationContext ctx, @NamedArg("id") Lazy<List<Long>> ids) {
+        updateReference(ctx, lastOutputReference, "Lazy ids: " + ids.get());
+    }
+
+    @SubCommand("count")
+    @Syntax("<count>")
+    @Description("Streams numbers from one to count.")
+    public Stream<String> count(CommandInvocationContext ctx, int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(number -> "Number " + number);
+    }
+
+    @SubCommand("publish")
+    @Syntax("<count>")
+    @Description("Publishes numbers from one to count, as many as requested at once.")
+    public Flow.Publisher<String> publish(CommandInvocationContext ctx, int count) {
+        return subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            private long requested;
+            private int published;
+            private boolean publishing;
+
+            @Override
+            public void request(long n) {
+                requested += n;
+                publishRequests.incrementAndGet();
+
+                if (publishing) {
+                    return; // Requested by onNext, published by the loop below
+                }
+
+                publishing = true;
+                while (requested > 0 && published < count) {
+                    requested--;
+                    subscriber.onNext("Number " + ++published);
+                }
+                publishing = false;
+
+                if (published == count) {
+                    published++;
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                published = count + 1;
+            }
+        });
+    }
+
+    @SubCommand("payload")
+    @Syntax("<name>")
+    @Description("Returns a result with a structured payload.")
+    public CommandResult payload(CommandInvocationContext ctx, String name) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("name", name);
+        payload.put("sizes", new int[] {1, 2});
+        return CommandResult.success(payload);
+    }
+
+    @SubCommand("grep")
+    @Syntax("<text>")
+    @Description("Streams the piped lines containing the text.")
+    public Stream<String> grep(CommandInvocationContext ctx, String text, @Piped Iterator<String> lines) {
+        final Iterable<String> pipedLines = () -> lines;
+        return StreamSupport.stream(pipedLines.spliterator(), false).filter(line -> line.contains(text));
+    }
+
+    @SubCommand("line-count")
+    @Description("Counts the piped lines.")
+    public CommandResult lineCount(CommandInvocationContext ctx, @Piped Reader piped) throws IOException {
+        long count = 0;
+        BufferedReader reader = new BufferedReader(piped);
+        while (reader.readLine() != null) {
+            count++;
+        }
+        return CommandResult.success(count);
+    }
+
+    @SubCommand("serial-step")
+    @NamedArgumentHandler
+    @SerializeOn("--key")
+    @Syntax("-k <key> -s <step>")
+    @Description("Records the step of the key asynchronously, steps of the same key run in order.")
+    public CompletableFuture<CommandResult> serialStep(
+            CommandInvocationContext ctx,
+            @NamedArg(value = "k", longForm = "key") String key,
+            @NamedArg(value = "s", longForm = "step") int step
+    ) {
+        final AtomicInteger running = serialRunning.computeIfAbsent(key, ignored -> new AtomicInteger());
+        if (running.incrementAndGet() > 1) {
+            serialOverlaps.incrementAndGet();
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextInt(100_000));
+            serialSteps.add(key + " " + step);
+            running.decrementAndGet();
+            return CommandResult.success();
+        });
+    }
+
+    @SubCommand("thread-name")
+    @RunOn("test-pool")
+    @Description("Returns the name of the thread the command runs on.")
+    public CommandResult threadName(CommandInvocationContext ctx) {
+        return CommandResult.success(Thread.currentThread().getName());
+    }
+
+    @SubCommand("record-thread")
+    @Description("Records the name of the thread the command runs on.")
+    public void recordThread(CommandInvocationContext ctx) {
+        threadNames.add(Thread.currentThread().getName());
+    }
+
+    @SubCommand("limited")
+    @RateLimit(permits = 2, per = 1, unit = TimeUnit.HOURS)
+    @Description("Allows two invocations per hour.")
+    public void limited(CommandInvocationContext ctx) {
+    }
+
+    @SubCommand("limited-per-source")
+    @RateLimit(permits = 1, per = 1, unit = TimeUnit.HOURS, perSource = true)
+    @Description("Allows one invocation per hour and source input.")
+    public void limitedPerSource(CommandInvocationContext ctx) {
+    }
+
+    @SubCommand("cached")
+    @Cacheable(ttl = 1, unit = TimeUnit.HOURS, maxEntries = 2)
+    @Syntax("<name>")
+    @Description("Returns the name along with the number of the invocation, once the gate opens.")
+    public CompletableFuture<CommandResult> cached(CommandInvocationContext ctx, String name) {
+        final int invocation = cachedInvocations.incrementAndGet();
+        return cachedGate.thenApply(ignored -> CommandResult.success(name + " " + invocation));
+    }
+
+    @SubCommand("failing-iterator")
+    @Description("Returns an iterator that fails after the first element.")
+    public Iterator<String> failingIterator(CommandInvocationContext ctx) {
+        return new Iterator<String>() {
+            private boolean first = true;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public String next() {
+                if (first) {
+                    first = false;
+                    return "First element";
+                }
+                throw new IllegalStateException("Iterator failure");
+            }
+        };
+    }
+
     @SubCommand("echo two-level-deep")
     @Syntax("<text>")
     @Description("Echoes a message as well.")